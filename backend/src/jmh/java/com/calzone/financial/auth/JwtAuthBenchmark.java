@@ -0,0 +1,94 @@
+package com.calzone.financial.auth;
+
+import com.calzone.financial.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token work of the JWT filter. {@code legacy} is what the filter did before: build a
+ * key and parser and verify the token twice (extractUsername, then isTokenValid). {@code uncached}
+ * is one {@link JwtService#validate} with the claims cache off, {@code cached} a repeat request
+ * served from the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "Tr0Xy9nLX8kf7W3uTnZ0jP8A5lKhbGH2eE8wJ9OTq3U";
+
+    private String token;
+    private JwtService uncached;
+    private JwtService cached;
+
+    @Setup
+    public void setUp() {
+        Date now = new Date();
+        token = Jwts.builder()
+                .setSubject("agent@example.com")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)))
+                .claim("userId", 42L)
+                .claim("role", "AGENT")
+                .claim("roles", List.of("AGENT"))
+                .claim("name", "Benchmark Agent")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+        uncached = new JwtService(properties(0));
+        cached = new JwtService(properties(1024));
+        cached.validate(token);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        blackhole.consume(parseLegacy(token).getSubject());
+        Claims claims = parseLegacy(token);
+        blackhole.consume(claims.getExpiration().after(new Date()));
+    }
+
+    @Benchmark
+    public Object uncached() {
+        return uncached.validate(token);
+    }
+
+    @Benchmark
+    public Object cached() {
+        return cached.validate(token);
+    }
+
+    private static Claims parseLegacy(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static JwtProperties properties(int cacheSize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(TimeUnit.HOURS.toMillis(1));
+        properties.setClaimsCacheSize(cacheSize);
+        return properties;
+    }
+}
@@ -0,0 +1,68 @@
+package com.calzone.financial.otp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTP issue and verify throughput per hashing strategy, through the in-memory store the way
+ * PhoneAuthController uses it. {@code bcrypt} uses the application's delegating password encoder,
+ * as codes were hashed before {@link HmacOtpHasher}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class OtpHasherBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Param({"hmac", "bcrypt"})
+    public String hasher;
+
+    private OtpHasher otpHasher;
+    private InMemoryOtpStore store;
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        otpHasher = "hmac".equals(hasher)
+                ? new HmacOtpHasher("benchmark-secret")
+                : new BCryptOtpHasher(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        store = new InMemoryOtpStore(64, 512, 1000, new SimpleMeterRegistry());
+        storedHash = otpHasher.hash(OtpChannel.PHONE, "9876543210", "123456");
+    }
+
+    @Benchmark
+    public OtpVerification issueAndVerify() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String phone = Long.toString(9_000_000_000L + random.nextInt(1_000_000_000));
+        String code = Integer.toString(100_000 + random.nextInt(900_000));
+        store.issue(OtpChannel.PHONE, phone, otpHasher.hash(OtpChannel.PHONE, phone, code), TTL, 5);
+        return store.verify(OtpChannel.PHONE, phone, hash -> otpHasher.matches(OtpChannel.PHONE, phone, code, hash));
+    }
+
+    // A wrong guess: the cost an attacker imposes per attempt
+    @Benchmark
+    public boolean verifyWrongCode() {
+        return otpHasher.matches(OtpChannel.PHONE, "9876543210", "654321", storedHash);
+    }
+}
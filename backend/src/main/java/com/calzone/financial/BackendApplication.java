@@ -31,7 +31,10 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
         "com.calzone.financial.system", // System repository
         "com.calzone.financial.company", // Company repository
         "com.calzone.financial.expert", // Expert repository
-        "com.calzone.financial.attendance" // Attendance repository
+        "com.calzone.financial.attendance", // Attendance repository
+        "com.calzone.financial.storage", // Content store
+        "com.calzone.financial.outbox", // Transactional outbox
+        "com.calzone.financial.archive" // Archived order history
     },
     basePackageClasses = {
         com.calzone.financial.order.OrderRepository.class,
@@ -61,7 +64,10 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
     "com.calzone.financial.system", // System entities
     "com.calzone.financial.company", // Company entities
     "com.calzone.financial.expert", // Expert entities
-    "com.calzone.financial.attendance" // Attendance entities
+    "com.calzone.financial.attendance", // Attendance entities
+    "com.calzone.financial.storage", // Content store
+    "com.calzone.financial.outbox", // Transactional outbox
+    "com.calzone.financial.archive" // Archived order history
     })
 public class BackendApplication {
 
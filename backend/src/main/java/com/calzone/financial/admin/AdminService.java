@@ -3,13 +3,18 @@ package com.calzone.financial.admin;
 import com.calzone.financial.user.Role;
 import com.calzone.financial.user.RoleRepository;
 import com.calzone.financial.user.User;
+import com.calzone.financial.user.UserAssetKind;
+import com.calzone.financial.user.UserAssetStore;
+import com.calzone.financial.user.UserChangedEvent;
 import com.calzone.financial.user.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -21,7 +26,6 @@ import com.calzone.financial.lead.dto.LeadResponse;
 import com.calzone.financial.order.OrderRepository;
 import com.calzone.financial.casemgmt.CaseRepository;
 import com.calzone.financial.lead.Lead;
-import com.calzone.financial.order.Order;
 
 @Service
 public class AdminService {
@@ -34,13 +38,18 @@ public class AdminService {
     private final CaseRepository caseRepository;
     private final com.calzone.financial.lead.LeadService leadService;
     private final com.calzone.financial.deal.DealRepository dealRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserAssetStore userAssetStore;
+    private final DashboardAggregates dashboardAggregates;
 
     // Define a constant for the maximum image size (e.g., 5MB)
     private static final long MAX_IMAGE_SIZE_BYTES = 5 * 1024 * 1024;
 
     public AdminService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
                         LeadRepository leadRepository, OrderRepository orderRepository, CaseRepository caseRepository,
-                        com.calzone.financial.lead.LeadService leadService, com.calzone.financial.deal.DealRepository dealRepository) {
+                        com.calzone.financial.lead.LeadService leadService, com.calzone.financial.deal.DealRepository dealRepository,
+                        ApplicationEventPublisher eventPublisher, UserAssetStore userAssetStore,
+                        DashboardAggregates dashboardAggregates) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
@@ -49,6 +58,9 @@ public class AdminService {
         this.caseRepository = caseRepository;
         this.leadService = leadService;
         this.dealRepository = dealRepository;
+        this.eventPublisher = eventPublisher;
+        this.userAssetStore = userAssetStore;
+        this.dashboardAggregates = dashboardAggregates;
     }
 
     @Transactional
@@ -72,10 +84,10 @@ public class AdminService {
             user.setAddress(address);
         }
 
-        // Validate and set profile image
-        validateAndSetImage(user, profileImageFile);
-
-        return userRepository.save(user);
+        validateImage(profileImageFile);
+        User saved = userRepository.save(user);
+        storeImage(saved, profileImageFile);
+        return saved;
     }
 
     @Transactional
@@ -104,10 +116,12 @@ public class AdminService {
             user.setAddress(address);
         }
 
-        // Validate and set profile image
-        validateAndSetImage(user, profileImageFile);
+        validateImage(profileImageFile);
+        storeImage(user, profileImageFile);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -129,54 +143,40 @@ public class AdminService {
         return leadService.findAll(user);
     }
 
-    @Transactional(readOnly = true)
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
-        
+        DashboardAggregates.Snapshot aggregates = dashboardAggregates.snapshot();
+
         // Counts
-        long totalEmployees = userRepository.findAll().stream()
-                .filter(u -> u.getRoles().stream().anyMatch(r -> "EMPLOYEE".equals(r.getName())))
-                .count();
-        long totalAgents = userRepository.findAll().stream()
-                .filter(u -> u.getRoles().stream().anyMatch(r -> "AGENT".equals(r.getName())))
-                .count();
-        long totalCustomers = userRepository.findAll().stream()
-                .filter(u -> u.getRoles().stream().anyMatch(r -> "CLIENT".equals(r.getName())))
-                .count();
-        // Get total leads including user-based leads (users without orders)
-        // We need to pass a dummy admin user to get all leads
-        User adminUser = userRepository.findAll().stream()
-                .filter(u -> u.getRoles().stream().anyMatch(r -> "ADMIN".equals(r.getName())))
-                .findFirst()
-                .orElse(null);
-        long totalLeads = adminUser != null ? leadService.findAll(adminUser).size() : leadRepository.count();
+        stats.put("totalEmployees", aggregates.usersWithRole("EMPLOYEE"));
+        stats.put("totalAgents", aggregates.usersWithRole("AGENT"));
+        stats.put("totalCustomers", aggregates.usersWithRole("CLIENT"));
+        // Manual leads plus users without orders, as listed by LeadService.findAll
+        stats.put("totalLeads", aggregates.manualLeads() + aggregates.signupLeads());
         // Total deals includes both manual deals and orders (as shown in AdminDeals page)
-        long totalDeals = dealRepository.count() + orderRepository.count();
-        long totalOrders = orderRepository.count();
-        double totalRevenue = orderRepository.findAll().stream()
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
-
-        stats.put("totalEmployees", totalEmployees);
-        stats.put("totalAgents", totalAgents);
-        stats.put("totalCustomers", totalCustomers);
-        stats.put("totalLeads", totalLeads);
-        stats.put("totalDeals", totalDeals);
-        stats.put("totalOrders", totalOrders);
-        stats.put("totalRevenue", totalRevenue);
+        stats.put("totalDeals", aggregates.deals() + aggregates.orders());
+        stats.put("totalOrders", aggregates.orders());
+        stats.put("totalRevenue", aggregates.revenue());
 
         // Chart Data: Order Status Distribution
-        Map<String, Long> orderStatusCounts = new HashMap<>();
-        orderRepository.findAll().forEach(order -> {
-            String status = order.getStatus() != null ? order.getStatus().toString() : "UNKNOWN";
-            orderStatusCounts.put(status, orderStatusCounts.getOrDefault(status, 0L) + 1);
-        });
         List<Map<String, Object>> orderStatusChart = new ArrayList<>();
-        orderStatusCounts.forEach((status, count) -> {
+        aggregates.ordersByStatus().forEach((status, count) -> {
             orderStatusChart.add(Map.of("name", status, "value", count));
         });
         stats.put("orderStatusChart", orderStatusChart);
 
+        // Chart Data: Revenue per month for the last 12 months
+        List<Map<String, Object>> revenueByMonthChart = new ArrayList<>();
+        YearMonth from = YearMonth.now().minusMonths(11);
+        aggregates.revenueByMonth().tailMap(from).forEach((month, totals) -> {
+            revenueByMonthChart.add(Map.of(
+                "name", month.toString(),
+                "orders", totals.orders(),
+                "revenue", totals.revenue()
+            ));
+        });
+        stats.put("revenueByMonthChart", revenueByMonthChart);
+
         // Chart Data: Leads vs Deals (Mock monthly trend for now as we might not have dates on all)
         // In a real scenario, we would group by createdDate
         List<Map<String, Object>> leadsVsDealsChart = new ArrayList<>();
@@ -213,9 +213,7 @@ public class AdminService {
         
         long totalCustomers = customers.size();
         long activeCustomers = customers.stream().filter(User::isEnabled).count();
-        double totalRevenue = orderRepository.findAll().stream()
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
+        double totalRevenue = dashboardAggregates.snapshot().revenue();
         
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalCustomers", totalCustomers);
@@ -257,7 +255,9 @@ public class AdminService {
 
     @Transactional
     public void deleteEmployee(Long id) {
+        userAssetStore.deleteAll(id);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 
     @Transactional(readOnly = true)
@@ -296,22 +296,11 @@ public class AdminService {
         user.setBankIfsc(bankIfsc);
         user.setBankName(bankName);
 
-        if (aadhaarFrontFile != null && !aadhaarFrontFile.isEmpty()) {
-            user.setAadhaarFront(aadhaarFrontFile.getBytes());
-            user.setAadhaarFrontType(aadhaarFrontFile.getContentType());
-        }
-        if (aadhaarBackFile != null && !aadhaarBackFile.isEmpty()) {
-            user.setAadhaarBack(aadhaarBackFile.getBytes());
-            user.setAadhaarBackType(aadhaarBackFile.getContentType());
-        }
-        if (panCardFile != null && !panCardFile.isEmpty()) {
-            user.setPanCard(panCardFile.getBytes());
-            user.setPanCardType(panCardFile.getContentType());
-        }
-
         Role agentRole = roleRepository.findByName("AGENT").orElseGet(() -> roleRepository.save(new Role("AGENT")));
         user.getRoles().add(agentRole);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        storeKycDocuments(saved, aadhaarFrontFile, aadhaarBackFile, panCardFile);
+        return saved;
     }
 
     @Transactional
@@ -340,25 +329,18 @@ public class AdminService {
         if (bankIfsc != null) user.setBankIfsc(bankIfsc);
         if (bankName != null) user.setBankName(bankName);
 
-        if (aadhaarFrontFile != null && !aadhaarFrontFile.isEmpty()) {
-            user.setAadhaarFront(aadhaarFrontFile.getBytes());
-            user.setAadhaarFrontType(aadhaarFrontFile.getContentType());
-        }
-        if (aadhaarBackFile != null && !aadhaarBackFile.isEmpty()) {
-            user.setAadhaarBack(aadhaarBackFile.getBytes());
-            user.setAadhaarBackType(aadhaarBackFile.getContentType());
-        }
-        if (panCardFile != null && !panCardFile.isEmpty()) {
-            user.setPanCard(panCardFile.getBytes());
-            user.setPanCardType(panCardFile.getContentType());
-        }
+        storeKycDocuments(user, aadhaarFrontFile, aadhaarBackFile, panCardFile);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public void deleteAgent(Long id) {
+        userAssetStore.deleteAll(id);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 
     @Transactional
@@ -370,6 +352,7 @@ public class AdminService {
         // For now, let's assume enabled = true means ACTIVE, enabled = false means INACTIVE
         user.setEnabled("ACTIVE".equalsIgnoreCase(status));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 
     @Transactional(readOnly = true)
@@ -386,7 +369,7 @@ public class AdminService {
         );
     }
 
-    private void validateAndSetImage(User user, MultipartFile imageFile) throws IOException {
+    private void validateImage(MultipartFile imageFile) {
         if (imageFile != null && !imageFile.isEmpty()) {
             if (imageFile.getSize() > MAX_IMAGE_SIZE_BYTES) {
                 throw new IllegalArgumentException("Image size exceeds the limit of 5MB.");
@@ -395,8 +378,24 @@ public class AdminService {
             if (!allowedTypes.contains(imageFile.getContentType())) {
                 throw new IllegalArgumentException("Invalid image type. Only JPG, PNG, GIF, or SVG are allowed.");
             }
-            user.setProfileImage(imageFile.getBytes());
-            user.setProfileImageType(imageFile.getContentType());
+        }
+    }
+
+    private void storeImage(User user, MultipartFile imageFile) throws IOException {
+        if (imageFile != null && !imageFile.isEmpty()) {
+            userAssetStore.store(user, UserAssetKind.PROFILE_IMAGE, imageFile);
+        }
+    }
+
+    private void storeKycDocuments(User user, MultipartFile aadhaarFrontFile, MultipartFile aadhaarBackFile, MultipartFile panCardFile) throws IOException {
+        if (aadhaarFrontFile != null && !aadhaarFrontFile.isEmpty()) {
+            userAssetStore.store(user, UserAssetKind.AADHAAR_FRONT, aadhaarFrontFile);
+        }
+        if (aadhaarBackFile != null && !aadhaarBackFile.isEmpty()) {
+            userAssetStore.store(user, UserAssetKind.AADHAAR_BACK, aadhaarBackFile);
+        }
+        if (panCardFile != null && !panCardFile.isEmpty()) {
+            userAssetStore.store(user, UserAssetKind.PAN_CARD, panCardFile);
         }
     }
 }
\ No newline at end of file
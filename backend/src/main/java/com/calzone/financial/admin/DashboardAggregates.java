@@ -0,0 +1,272 @@
+package com.calzone.financial.admin;
+
+import com.calzone.financial.deal.Deal;
+import com.calzone.financial.deal.DealRepository;
+import com.calzone.financial.lead.Lead;
+import com.calzone.financial.lead.LeadRepository;
+import com.calzone.financial.order.OrderChangedEvent;
+import com.calzone.financial.order.OrderRepository;
+import com.calzone.financial.user.User;
+import com.calzone.financial.user.UserChangedEvent;
+import com.calzone.financial.user.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory aggregates behind the admin dashboard: users per role, order count and revenue,
+ * orders per status, revenue per month, and lead/deal totals.
+ *
+ * <p>Order figures are maintained as deltas from {@link OrderChangedEvent}s and lead/deal
+ * totals from {@link DashboardEntityChangedEvent}s, all applied after commit. Role counts and
+ * the number of signup leads (users with no order and no lead) depend on joins, so events only
+ * mark them stale and {@link #refreshStale()} reloads them with one aggregate query each.
+ * {@link #recompute()} rebuilds everything from the database periodically to correct drift,
+ * e.g. from bulk SQL updates that bypass JPA.
+ */
+@Component
+public class DashboardAggregates {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardAggregates.class);
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+
+    public record MonthTotals(long orders, double revenue) {
+        MonthTotals plus(long orders, double revenue) {
+            return new MonthTotals(this.orders + orders, this.revenue + revenue);
+        }
+    }
+
+    public record Snapshot(Map<String, Long> usersByRole, long orders, double revenue,
+                           Map<String, Long> ordersByStatus, SortedMap<YearMonth, MonthTotals> revenueByMonth,
+                           long manualLeads, long signupLeads, long deals) {
+        public long usersWithRole(String role) {
+            return usersByRole.getOrDefault(role, 0L);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final LeadRepository leadRepository;
+    private final OrderRepository orderRepository;
+    private final DealRepository dealRepository;
+
+    // All state below is guarded by this
+    private final Map<String, Long> usersByRole = new HashMap<>();
+    private final Map<String, Long> ordersByStatus = new HashMap<>();
+    private final TreeMap<YearMonth, MonthTotals> revenueByMonth = new TreeMap<>();
+    private long orders;
+    private double revenue;
+    private long manualLeads;
+    private long signupLeads;
+    private long deals;
+    private boolean initialized;
+    private boolean usersStale;
+    private boolean signupLeadsStale;
+    // Bumped by every applied event; lets recompute() detect events that raced with its queries
+    private long version;
+    private boolean recomputeRequested;
+
+    public DashboardAggregates(UserRepository userRepository, LeadRepository leadRepository,
+                               OrderRepository orderRepository, DealRepository dealRepository) {
+        this.userRepository = userRepository;
+        this.leadRepository = leadRepository;
+        this.orderRepository = orderRepository;
+        this.dealRepository = dealRepository;
+    }
+
+    public Snapshot snapshot() {
+        synchronized (this) {
+            if (initialized) {
+                return copy();
+            }
+        }
+        recompute();
+        synchronized (this) {
+            return copy();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderChanged(OrderChangedEvent event) {
+        version++;
+        OrderChangedEvent.Figures before = event.before();
+        OrderChangedEvent.Figures after = event.after();
+        if (before != null) {
+            applyOrder(before, -1);
+        }
+        if (after != null) {
+            applyOrder(after, 1);
+        }
+        if (before == null || after == null
+                || !Objects.equals(before.userId(), after.userId())
+                || !Objects.equals(before.customerEmail(), after.customerEmail())) {
+            signupLeadsStale = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEntityChanged(DashboardEntityChangedEvent event) {
+        version++;
+        Class<?> type = event.entityType();
+        if (User.class.isAssignableFrom(type)) {
+            usersStale = true;
+            signupLeadsStale = true;
+        } else if (Lead.class.isAssignableFrom(type)) {
+            manualLeads += event.countDelta();
+            signupLeadsStale = true;
+        } else if (Deal.class.isAssignableFrom(type)) {
+            deals += event.countDelta();
+        }
+    }
+
+    // Role changes go through the user_roles join table and do not always flush the users row
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        version++;
+        usersStale = true;
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.aggregates.refresh-ms:10000}")
+    public void refreshStale() {
+        boolean users;
+        boolean signups;
+        boolean full;
+        synchronized (this) {
+            if (!initialized) return;
+            full = recomputeRequested;
+            users = usersStale;
+            signups = signupLeadsStale;
+            usersStale = false;
+            signupLeadsStale = false;
+        }
+        if (full) {
+            recompute();
+            return;
+        }
+        try {
+            if (users) {
+                Map<String, Long> roles = loadUsersByRole();
+                synchronized (this) {
+                    usersByRole.clear();
+                    usersByRole.putAll(roles);
+                }
+            }
+            if (signups) {
+                long count = leadRepository.countSignupLeads();
+                synchronized (this) {
+                    signupLeads = count;
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                usersStale |= users;
+                signupLeadsStale |= signups;
+            }
+            logger.warn("Dashboard aggregate refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /** Full rebuild from aggregate queries; also runs on first use. */
+    @Scheduled(initialDelayString = "${dashboard.aggregates.recompute-ms:600000}",
+            fixedDelayString = "${dashboard.aggregates.recompute-ms:600000}")
+    public void recompute() {
+        long startVersion;
+        synchronized (this) {
+            startVersion = version;
+        }
+
+        Map<String, Long> roles = loadUsersByRole();
+        Map<String, Long> statuses = new HashMap<>();
+        long orderCount = 0;
+        double orderRevenue = 0;
+        for (Object[] row : orderRepository.aggregateByStatus()) {
+            long count = ((Number) row[1]).longValue();
+            double amount = ((Number) row[2]).doubleValue();
+            statuses.merge(statusKey((String) row[0]), count, Long::sum);
+            orderCount += count;
+            orderRevenue += amount;
+        }
+        TreeMap<YearMonth, MonthTotals> months = new TreeMap<>();
+        for (Object[] row : orderRepository.aggregateByMonth()) {
+            YearMonth month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            months.put(month, new MonthTotals(((Number) row[2]).longValue(), ((Number) row[3]).doubleValue()));
+        }
+        long leadCount = leadRepository.count();
+        long signupCount = leadRepository.countSignupLeads();
+        long dealCount = dealRepository.count();
+
+        synchronized (this) {
+            // Events committed while we were reading may or may not be in these numbers. Keep
+            // the incrementally maintained state if there is one and try again on the next tick.
+            boolean raced = version != startVersion;
+            if (initialized && raced) {
+                recomputeRequested = true;
+                return;
+            }
+            if (initialized && drifted(orderCount, orderRevenue, leadCount, dealCount)) {
+                logger.info("Dashboard aggregates drifted (orders {} -> {}, leads {} -> {}, deals {} -> {}); corrected",
+                        orders, orderCount, manualLeads, leadCount, deals, dealCount);
+            }
+            usersByRole.clear();
+            usersByRole.putAll(roles);
+            ordersByStatus.clear();
+            ordersByStatus.putAll(statuses);
+            revenueByMonth.clear();
+            revenueByMonth.putAll(months);
+            orders = orderCount;
+            revenue = orderRevenue;
+            manualLeads = leadCount;
+            signupLeads = signupCount;
+            deals = dealCount;
+            usersStale = false;
+            signupLeadsStale = false;
+            recomputeRequested = raced;
+            initialized = true;
+        }
+    }
+
+    private Map<String, Long> loadUsersByRole() {
+        Map<String, Long> roles = new HashMap<>();
+        for (Object[] row : userRepository.countUsersByRole()) {
+            roles.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return roles;
+    }
+
+    private void applyOrder(OrderChangedEvent.Figures figures, int sign) {
+        orders += sign;
+        revenue += sign * figures.totalAmount();
+        ordersByStatus.merge(statusKey(figures.status()), (long) sign, Long::sum);
+        if (figures.createdAt() != null) {
+            revenueByMonth.merge(YearMonth.from(figures.createdAt()),
+                    new MonthTotals(sign, sign * figures.totalAmount()),
+                    (current, delta) -> current.plus(delta.orders(), delta.revenue()));
+        }
+    }
+
+    private boolean drifted(long orderCount, double orderRevenue, long leadCount, long dealCount) {
+        return orders != orderCount || manualLeads != leadCount || deals != dealCount
+                || Math.abs(revenue - orderRevenue) > 0.005;
+    }
+
+    private Snapshot copy() {
+        Map<String, Long> statuses = new HashMap<>();
+        ordersByStatus.forEach((status, count) -> {
+            if (count > 0) statuses.put(status, count);
+        });
+        return new Snapshot(Map.copyOf(usersByRole), orders, revenue, Map.copyOf(statuses),
+                new TreeMap<>(revenueByMonth), manualLeads, signupLeads, deals);
+    }
+
+    private static String statusKey(String status) {
+        return status != null ? status : UNKNOWN_STATUS;
+    }
+}
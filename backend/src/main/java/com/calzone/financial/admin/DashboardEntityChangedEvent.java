@@ -0,0 +1,8 @@
+package com.calzone.financial.admin;
+
+/**
+ * Published by {@link DashboardEntityListener} when a user, lead or deal row is inserted
+ * ({@code countDelta = 1}), removed ({@code -1}) or updated ({@code 0}).
+ */
+public record DashboardEntityChangedEvent(Class<?> entityType, int countDelta) {
+}
@@ -0,0 +1,37 @@
+package com.calzone.financial.admin;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on the entities counted by {@link DashboardAggregates}. Registered on the
+ * entities themselves, so writes from any service are seen.
+ */
+@Component
+public class DashboardEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DashboardEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        eventPublisher.publishEvent(new DashboardEntityChangedEvent(Hibernate.getClass(entity), 1));
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        eventPublisher.publishEvent(new DashboardEntityChangedEvent(Hibernate.getClass(entity), 0));
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        eventPublisher.publishEvent(new DashboardEntityChangedEvent(Hibernate.getClass(entity), -1));
+    }
+}
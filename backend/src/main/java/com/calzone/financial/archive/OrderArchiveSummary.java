@@ -0,0 +1,44 @@
+package com.calzone.financial.archive;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One row per order whose history has been moved to the archive tables by {@link OrderArchiver}.
+ * Its presence tells timeline readers to also look in the archive; the counts and time span
+ * describe what was moved without touching the archive.
+ */
+@Entity
+@Table(name = "order_archive_summary", indexes = {
+        @Index(name = "idx_archive_summary_last_event", columnList = "last_event_at")
+})
+public class OrderArchiveSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "workflow_events", nullable = false)
+    private long workflowEvents;
+
+    @Column(name = "process_stages", nullable = false)
+    private long processStages;
+
+    @Column(name = "first_event_at")
+    private LocalDateTime firstEventAt;
+
+    @Column(name = "last_event_at")
+    private LocalDateTime lastEventAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    protected OrderArchiveSummary() {}
+
+    public Long getOrderId() { return orderId; }
+    public long getWorkflowEvents() { return workflowEvents; }
+    public long getProcessStages() { return processStages; }
+    public LocalDateTime getFirstEventAt() { return firstEventAt; }
+    public LocalDateTime getLastEventAt() { return lastEventAt; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -0,0 +1,15 @@
+package com.calzone.financial.archive;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OrderArchiveSummaryRepository extends JpaRepository<OrderArchiveSummary, Long> {
+
+    // Newest archived event; date-range reads that start after it skip the archive
+    @Query("SELECT MAX(s.lastEventAt) FROM OrderArchiveSummary s")
+    LocalDateTime findLatestArchivedEventAt();
+}
@@ -0,0 +1,136 @@
+package com.calzone.financial.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves the {@code workflow_events} and {@code process_stages} of orders delivered more than
+ * {@code archive.after-months} ago into {@code workflow_events_archive} and
+ * {@code process_stages_archive}, and records an {@link OrderArchiveSummary} per order. The hot
+ * tables then only hold orders still in flight or recently delivered.
+ *
+ * <p>An order qualifies when its workflow projection shows Delivery completed, no open
+ * exceptions, and no activity since the cutoff. Each batch runs in its own transaction holding
+ * the orders' projection rows locked, the same lock a new event for the order takes first, so an
+ * event cannot slip in between the copy and the delete. An order that gets new events after it
+ * was archived is archived again once those are old enough.
+ */
+@Service
+public class OrderArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private static final String ELIGIBLE = "s.current_stage = 'DEL' AND s.stage_statuses LIKE '%DEL:COMPLETED%' "
+            + "AND s.open_exceptions = '' AND s.updated_at < :cutoff "
+            + "AND (a.order_id IS NULL OR a.archived_at < s.updated_at)";
+
+    private static final String FIND_CANDIDATES = "SELECT s.order_id FROM order_workflow_state s "
+            + "LEFT JOIN order_archive_summary a ON a.order_id = s.order_id "
+            + "WHERE " + ELIGIBLE + " AND s.order_id > :after ORDER BY s.order_id LIMIT :limit";
+
+    private static final String LOCK_ELIGIBLE = "SELECT s.order_id FROM order_workflow_state s "
+            + "LEFT JOIN order_archive_summary a ON a.order_id = s.order_id "
+            + "WHERE " + ELIGIBLE + " AND s.order_id IN (:ids) ORDER BY s.order_id FOR UPDATE OF s";
+
+    // Adds to an existing summary when an order is archived a second time
+    private static final String UPSERT_SUMMARY = "INSERT INTO order_archive_summary "
+            + "(order_id, workflow_events, process_stages, first_event_at, last_event_at, archived_at) "
+            + "SELECT * FROM (SELECT order_id, SUM(e) AS we, SUM(p) AS ps, MIN(created_at) AS first_at, "
+            + "MAX(created_at) AS last_at, :now AS archived FROM ("
+            + "SELECT order_id, 1 AS e, 0 AS p, created_at FROM workflow_events WHERE order_id IN (:ids) "
+            + "UNION ALL SELECT order_id, 0, 1, created_at FROM process_stages WHERE order_id IN (:ids)"
+            + ") moved GROUP BY order_id) dt "
+            + "ON DUPLICATE KEY UPDATE workflow_events = workflow_events + dt.we, process_stages = process_stages + dt.ps, "
+            + "first_event_at = LEAST(COALESCE(first_event_at, dt.first_at), dt.first_at), "
+            + "last_event_at = GREATEST(COALESCE(last_event_at, dt.last_at), dt.last_at), archived_at = dt.archived";
+
+    private static final String COPY_EVENTS = "INSERT INTO workflow_events_archive "
+            + "(id, order_id, stage, status, description, details, created_at, updated_at) "
+            + "SELECT id, order_id, stage, status, description, details, created_at, updated_at "
+            + "FROM workflow_events WHERE order_id IN (:ids)";
+
+    private static final String COPY_STAGES = "INSERT INTO process_stages_archive "
+            + "(id, order_id, stage, status, notes, created_at) "
+            + "SELECT id, order_id, stage, status, notes, created_at FROM process_stages WHERE order_id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int afterMonths;
+    private final int batchSize;
+    private final Counter archivedOrders;
+
+    public OrderArchiver(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${archive.enabled:true}") boolean enabled,
+                         @Value("${archive.after-months:12}") int afterMonths,
+                         @Value("${archive.batch-size:200}") int batchSize) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.afterMonths = afterMonths;
+        this.batchSize = batchSize;
+        this.archivedOrders = Counter.builder("archive.orders")
+                .description("Orders whose workflow history was moved to the archive").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${archive.cron:0 0 4 * * *}")
+    public void archiveDelivered() {
+        if (!enabled) return;
+        try {
+            int archived = archiveDeliveredBefore(LocalDateTime.now().minusMonths(afterMonths));
+            if (archived > 0) {
+                logger.info("Archived the workflow history of {} delivered orders", archived);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Order archival failed: {}", e.getMessage());
+        }
+    }
+
+    /** @return the number of orders archived */
+    public int archiveDeliveredBefore(LocalDateTime cutoff) {
+        int archived = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<Long> candidates = jdbc.queryForList(FIND_CANDIDATES, new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff).addValue("after", after).addValue("limit", batchSize), Long.class);
+            if (candidates.isEmpty()) {
+                return archived;
+            }
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(candidates, cutoff));
+            archived += moved == null ? 0 : moved;
+            after = candidates.get(candidates.size() - 1);
+        }
+    }
+
+    private int archiveBatch(List<Long> candidates, LocalDateTime cutoff) {
+        // Re-checked under lock: an event may have arrived since the candidates were read
+        List<Long> ids = jdbc.queryForList(LOCK_ELIGIBLE,
+                new MapSqlParameterSource().addValue("cutoff", cutoff).addValue("ids", candidates), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("now", LocalDateTime.now());
+        jdbc.update(UPSERT_SUMMARY, params);
+        jdbc.update(COPY_EVENTS, params);
+        jdbc.update(COPY_STAGES, params);
+        jdbc.update("DELETE FROM workflow_events WHERE order_id IN (:ids)", params);
+        jdbc.update("DELETE FROM process_stages WHERE order_id IN (:ids)", params);
+        archivedOrders.increment(ids.size());
+        return ids.size();
+    }
+}
@@ -3,6 +3,8 @@ package com.calzone.financial.auth;
 import com.calzone.financial.email.EmailVerificationService;
 import com.calzone.financial.notification.NotificationService;
 import com.calzone.financial.user.User;
+import com.calzone.financial.user.UserAssetKind;
+import com.calzone.financial.user.UserAssetStore;
 import com.calzone.financial.user.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +27,7 @@ public class AuthService {
     private final EmailVerificationService emailVerificationService;
     private final NotificationService notificationService;
     private final com.calzone.financial.lead.LeadRepository leadRepository;
+    private final UserAssetStore userAssetStore;
 
     public AuthService(
             UserRepository userRepository,
@@ -32,7 +35,8 @@ public class AuthService {
             JwtService jwtService,
             EmailVerificationService emailVerificationService,
             NotificationService notificationService,
-            com.calzone.financial.lead.LeadRepository leadRepository
+            com.calzone.financial.lead.LeadRepository leadRepository,
+            UserAssetStore userAssetStore
     ) {
         this.userRepository = userRepository;
         this.encoder = encoder;
@@ -40,6 +44,7 @@ public class AuthService {
         this.emailVerificationService = emailVerificationService;
         this.notificationService = notificationService;
         this.leadRepository = leadRepository;
+        this.userAssetStore = userAssetStore;
     }
 
     // ==================== REGISTER ====================
@@ -67,11 +72,14 @@ public class AuthService {
                 .emailVerified(false)
                 .build();
 
-        // Handle profile image if provided
+        // Save user to database
+        userRepository.save(user);
+
+        // Handle profile image if provided (the asset store needs the user's id)
         if (profileImage != null && !profileImage.isEmpty()) {
             try {
-                user.setProfileImage(profileImage.getBytes());
-                user.setProfileImageType(profileImage.getContentType());
+                userAssetStore.store(user, UserAssetKind.PROFILE_IMAGE, profileImage);
+                userRepository.save(user);
                 LOGGER.info("Profile image being stored for user: {}", email);
             } catch (IOException e) {
                 LOGGER.warn("Failed to process profile image for user {}: {}", email, e.getMessage());
@@ -81,9 +89,6 @@ public class AuthService {
             LOGGER.info("No profile image provided for user: {}", email);
         }
 
-        // Save user to database
-        userRepository.save(user);
-
         // Create Lead for this user
         try {
             com.calzone.financial.lead.Lead lead = new com.calzone.financial.lead.Lead();
@@ -102,7 +107,7 @@ public class AuthService {
         emailVerificationService.sendCode(email);
 
         // Create notification for Admin
-        notificationService.createNotification("New user signup: " + email + " (" + fullName + ")");
+        notificationService.notifyRole("ADMIN", "New user signup: " + email + " (" + fullName + ")");
 
         // Return success response
         Map<String, Object> response = new HashMap<>();
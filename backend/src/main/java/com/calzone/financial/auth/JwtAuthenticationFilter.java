@@ -1,6 +1,8 @@
 package com.calzone.financial.auth;
 
+import com.calzone.financial.config.JwtProperties;
 import com.calzone.financial.user.ApplicationUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,6 +12,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.lang.NonNull;
 
@@ -21,10 +24,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final ApplicationUserDetailsService userDetailsService;
+    private final JwtProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
-    public JwtAuthenticationFilter(JwtService jwtService, ApplicationUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, ApplicationUserDetailsService userDetailsService, JwtProperties properties) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.properties = properties;
     }
 
     @Override
@@ -38,11 +44,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authorizationHeader.substring(7);
-        Optional<String> username = jwtService.extractUsername(token);
+        Optional<Claims> claims = jwtService.validate(token);
 
-        if (username.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username.get());
-            if (jwtService.isTokenValid(token, userDetails)) {
+        if (claims.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = requiresDatabaseLoad(request)
+                    ? loadFromDatabase(claims.get())
+                    : jwtService.extractPrincipal(claims.get()).map(UserDetails.class::cast).orElseGet(() -> loadFromDatabase(claims.get()));
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -52,4 +60,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private boolean requiresDatabaseLoad(HttpServletRequest request) {
+        if (properties.getAuthenticationMode() != JwtProperties.AuthenticationMode.CLAIMS) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return properties.getDatabasePaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private UserDetails loadFromDatabase(Claims claims) {
+        if (claims.getSubject() == null) {
+            return null;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        return jwtService.isTokenValid(claims, userDetails) ? userDetails : null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.calzone.financial.auth;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of already verified tokens, keyed by the SHA-256 digest of the compact token so
+ * raw bearer strings are never held in memory. Entries are dropped once the token expires.
+ */
+class JwtClaimsCache {
+
+    private final int maxSize;
+    private final Map<String, Claims> entries;
+
+    JwtClaimsCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > JwtClaimsCache.this.maxSize;
+            }
+        };
+    }
+
+    Claims get(String token) {
+        if (maxSize == 0) {
+            return null;
+        }
+        String key = digest(token);
+        synchronized (entries) {
+            Claims claims = entries.get(key);
+            if (claims != null && !isLive(claims)) {
+                entries.remove(key);
+                return null;
+            }
+            return claims;
+        }
+    }
+
+    void put(String token, Claims claims) {
+        if (maxSize == 0 || !isLive(claims)) {
+            return;
+        }
+        String key = digest(token);
+        synchronized (entries) {
+            entries.put(key, claims);
+        }
+    }
+
+    private static boolean isLive(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.after(new Date());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
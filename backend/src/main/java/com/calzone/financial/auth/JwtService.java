@@ -2,8 +2,8 @@ package com.calzone.financial.auth;
 
 import com.calzone.financial.config.JwtProperties;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -11,69 +11,110 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import com.calzone.financial.user.Role;
 import com.calzone.financial.user.User;
 
 @Service
 public class JwtService {
 
     private final JwtProperties properties;
+    // Key and parser are immutable and thread-safe, so both are built once
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final JwtClaimsCache claimsCache;
 
     public JwtService(JwtProperties properties) {
         this.properties = properties;
+        // Use the raw secret bytes (matching JwtUtil.generateToken)
+        this.signingKey = Keys.hmacShaKeyFor(properties.getSecret().getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.claimsCache = new JwtClaimsCache(properties.getClaimsCacheSize());
     }
 
     public String generateToken(User user) {
         Date issuedAt = new Date();
         Date expiration = new Date(issuedAt.getTime() + properties.getExpiration());
+        List<String> roles = user.getRoles().stream().map(Role::getName).toList();
         return Jwts.builder()
                 .setSubject(user.getEmail())
                 .setIssuedAt(issuedAt)
                 .setExpiration(expiration)
                 .claim("userId", user.getId())
-                .claim("role", user.getRoles().stream().findFirst().map(r -> r.getName()).orElse("USER"))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .claim("role", roles.stream().findFirst().orElse("USER"))
+                .claim("roles", roles)
+                .claim("name", user.getFullName())
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public Optional<String> extractUsername(String token) {
+    /**
+     * Verifies the token once and returns its claims. Recently verified tokens are served from a
+     * bounded cache until they expire, so repeat requests skip the HMAC check entirely.
+     */
+    public Optional<Claims> validate(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        Claims cached = claimsCache.get(token);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
-            return Optional.ofNullable(parseToken(token).getBody().getSubject());
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            claimsCache.put(token, claims);
+            return Optional.of(claims);
         } catch (JwtException | IllegalArgumentException ex) {
             return Optional.empty();
         }
     }
 
+    public Optional<String> extractUsername(String token) {
+        return validate(token).map(Claims::getSubject);
+    }
+
    public Optional<Long> extractUserId(String token) {
-        try {
-            return Optional.ofNullable(parseToken(token).getBody().get("userId", Long.class));
-        } catch (JwtException | IllegalArgumentException ex) {
-            return Optional.empty();
-        }
+        return validate(token).map(claims -> claims.get("userId", Long.class));
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        try {
-            Jws<Claims> claimsJws = parseToken(token);
-            String subject = claimsJws.getBody().getSubject();
-            Date expiration = claimsJws.getBody().getExpiration();
-            return subject != null && subject.equals(userDetails.getUsername()) && expiration.after(new Date());
-        } catch (JwtException | IllegalArgumentException ex) {
-            return false;
-        }
+        return validate(token).map(claims -> isTokenValid(claims, userDetails)).orElse(false);
     }
 
-    private Jws<Claims> parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        String subject = claims.getSubject();
+        Date expiration = claims.getExpiration();
+        return subject != null && subject.equals(userDetails.getUsername()) && expiration != null && expiration.after(new Date());
     }
 
-    private Key getSigningKey() {
-        // Use the raw secret bytes (matching JwtUtil.generateToken)
-        byte[] keyBytes = properties.getSecret().getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    public Optional<User> extractPrincipal(String token) {
+        return validate(token).flatMap(this::extractPrincipal);
+    }
+
+    /**
+     * Builds a detached principal from verified claims without touching the database.
+     * Returns empty when the token was issued without a {@code userId} claim (e.g. by
+     * {@link JwtUtil}), in which case callers should fall back to a user load.
+     */
+    public Optional<User> extractPrincipal(Claims claims) {
+        String subject = claims.getSubject();
+        Long userId = claims.get("userId", Long.class);
+        if (subject == null || userId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(User.fromClaims(userId, subject, claims.get("name", String.class), roleNames(claims)));
+    }
+
+    private static Collection<String> roleNames(Claims claims) {
+        Object roles = claims.get("roles");
+        if (roles instanceof Collection<?> values && !values.isEmpty()) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        String role = claims.get("role", String.class);
+        // Tokens without roles map to ROLE_USER, matching User.getAuthorities()
+        return role == null || "USER".equals(role) ? List.of() : List.of(role);
     }
 }
@@ -12,10 +12,12 @@ import java.util.Date;
 public class JwtUtil {
 
     private final SecretKey key;
+    private final JwtParser parser;
     private final long expirationMs;
 
     public JwtUtil(@Value("${security.jwt.secret}") String secret, @Value("${security.jwt.expiration}") long expirationMs) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         this.expirationMs = expirationMs;
     }
 
@@ -31,6 +33,6 @@ public class JwtUtil {
     }
 
     public Jws<Claims> parseToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return parser.parseClaimsJws(token);
     }
 }
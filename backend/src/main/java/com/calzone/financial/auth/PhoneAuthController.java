@@ -4,20 +4,20 @@ package com.calzone.financial.auth;
 // import com.calzone.financial.auth.dto.UserProfile;
 import java.security.SecureRandom;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Map;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.calzone.financial.sms.PhoneOtp;
-import com.calzone.financial.sms.PhoneOtpRepository;
+import com.calzone.financial.otp.OtpChannel;
+import com.calzone.financial.otp.OtpHasher;
+import com.calzone.financial.otp.OtpStore;
+import com.calzone.financial.otp.OtpVerification;
 import com.calzone.financial.sms.SmsService;
 import com.calzone.financial.user.User;
 import com.calzone.financial.user.UserRepository;
@@ -30,22 +30,23 @@ import jakarta.validation.constraints.NotBlank;
 public class PhoneAuthController {
 
     private static final Duration TTL = Duration.ofMinutes(5);
+    private static final int MAX_ATTEMPTS = 5;
     private static final SecureRandom RNG = new SecureRandom();
 
     public record PhoneReq(@NotBlank String phone) {}
     public record VerifyReq(@NotBlank String phone, @NotBlank String code) {}
 
-    private final PhoneOtpRepository otpRepo;
+    private final OtpStore otpStore;
     private final SmsService smsService;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final OtpHasher otpHasher;
     private final JwtService jwtService;
 
-    public PhoneAuthController(PhoneOtpRepository otpRepo, SmsService smsService, UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService) {
-        this.otpRepo = otpRepo;
+    public PhoneAuthController(OtpStore otpStore, SmsService smsService, UserRepository userRepository, OtpHasher otpHasher, JwtService jwtService) {
+        this.otpStore = otpStore;
         this.smsService = smsService;
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.otpHasher = otpHasher;
         this.jwtService = jwtService;
     }
 
@@ -70,17 +71,11 @@ public class PhoneAuthController {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found for this phone");
         }
 
-        // Purge and create new OTP
-        otpRepo.purgeByPhoneOrExpired(ph, Instant.now());
+        // Replaces any code sent to this phone before
         String code = generateCode(6);
-        PhoneOtp otp = new PhoneOtp();
-        otp.setPhone(ph);
-        otp.setCodeHash(passwordEncoder.encode(code));
-        otp.setExpiresAt(Instant.now().plus(TTL));
-        otp.setUsed(false);
-        otpRepo.save(otp);
-
-        // Send SMS (mock logs token)
+        otpStore.issue(OtpChannel.PHONE, ph, otpHasher.hash(OtpChannel.PHONE, ph, code), TTL, MAX_ATTEMPTS);
+
+        // Queued; SmsDispatcher sends it through the configured gateway
         smsService.send(ph, "Your OTP is " + code);
         return ResponseEntity.ok(java.util.Map.of("message", "OTP sent", "code", code));
     }
@@ -89,23 +84,14 @@ public class PhoneAuthController {
     public ResponseEntity<Map<String, Object>> verifyPhone(@Valid @RequestBody VerifyReq req) {
         String ph = sanitizePhone(req.phone());
         String code = req.code();
-        PhoneOtp latest = otpRepo.findActiveLatest(ph, Instant.now())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "OTP expired or not found"));
-
-        if (latest.isUsed() || latest.getAttempts() >= latest.getMaxAttempts()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "OTP expired or too many attempts");
+        OtpVerification result = otpStore.verify(OtpChannel.PHONE, ph, hash -> otpHasher.matches(OtpChannel.PHONE, ph, code, hash));
+        switch (result) {
+            case NOT_FOUND -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "OTP expired or not found");
+            case TOO_MANY_ATTEMPTS -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "OTP expired or too many attempts");
+            case INVALID -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid code");
+            case VERIFIED -> { }
         }
 
-        boolean match = passwordEncoder.matches(code, latest.getCodeHash());
-        if (!match) {
-            latest.setAttempts(latest.getAttempts() + 1);
-            otpRepo.save(latest);
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid code");
-        }
-
-        latest.setUsed(true);
-        otpRepo.save(latest);
-
         User user = userRepository.findByPhone(ph)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
         if (user.getPhoneVerified() == null || !user.getPhoneVerified()) {
@@ -124,8 +110,7 @@ public class PhoneAuthController {
             "email", user.getEmail(),
             "phone", user.getPhone(),
             "role", role,
-            // Return the stored path/filename for the profile image (may be null or empty)
-            "profileImagePath", user.getProfileImage()
+            "hasProfileImage", user.hasProfileImage()
         );
         return ResponseEntity.ok(java.util.Map.of("token", token, "user", userMap));
     }
@@ -1,6 +1,7 @@
 package com.calzone.financial.company;
 
 import com.calzone.financial.user.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.math.BigDecimal;
@@ -37,7 +38,14 @@ public class CompanyProfile {
     // Financial Initialization
     private String primaryBankName;
     private BigDecimal currentBalance;
-    private String balanceSheetUrl; // File path or URL
+    private String balanceSheetUrl; // Download URL
+
+    // Balance sheet content lives in ContentStore
+    @JsonIgnore
+    @Column(name = "balance_sheet_sha256", length = 64)
+    private String balanceSheetHash;
+    private String balanceSheetFileName;
+    private String balanceSheetContentType;
     
     @Column(nullable = false)
     private String panNumber;
@@ -80,6 +88,15 @@ public class CompanyProfile {
     public String getBalanceSheetUrl() { return balanceSheetUrl; }
     public void setBalanceSheetUrl(String balanceSheetUrl) { this.balanceSheetUrl = balanceSheetUrl; }
 
+    public String getBalanceSheetHash() { return balanceSheetHash; }
+    public void setBalanceSheetHash(String balanceSheetHash) { this.balanceSheetHash = balanceSheetHash; }
+
+    public String getBalanceSheetFileName() { return balanceSheetFileName; }
+    public void setBalanceSheetFileName(String balanceSheetFileName) { this.balanceSheetFileName = balanceSheetFileName; }
+
+    public String getBalanceSheetContentType() { return balanceSheetContentType; }
+    public void setBalanceSheetContentType(String balanceSheetContentType) { this.balanceSheetContentType = balanceSheetContentType; }
+
     public String getPanNumber() { return panNumber; }
     public void setPanNumber(String panNumber) { this.panNumber = panNumber; }
 }
@@ -1,12 +1,18 @@
 package com.calzone.financial.company;
 
+import com.calzone.financial.storage.ContentStore;
 import com.calzone.financial.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -35,6 +41,27 @@ public class CompanyProfileController {
         return ResponseEntity.ok(profile);
     }
 
+    @GetMapping("/balance-sheet")
+    public ResponseEntity<Resource> getBalanceSheet(@AuthenticationPrincipal User user) {
+        CompanyProfile profile = companyProfileService.getProfile(user.getId());
+        if (profile == null || profile.getBalanceSheetHash() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String fileName = profile.getBalanceSheetFileName() == null ? "balance-sheet" : profile.getBalanceSheetFileName();
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(profile.getBalanceSheetContentType());
+        } catch (Exception e) {
+            mediaType = MediaType.APPLICATION_OCTET_STREAM;
+        }
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .eTag(ContentStore.etag(profile.getBalanceSheetHash()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.inline().filename(fileName, StandardCharsets.UTF_8).build().toString())
+                .body(companyProfileService.openBalanceSheet(profile));
+    }
+
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<CompanyProfile>> getAllCompanyProfiles() {
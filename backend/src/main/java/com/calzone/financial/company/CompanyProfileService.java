@@ -1,36 +1,31 @@
 package com.calzone.financial.company;
 
+import com.calzone.financial.storage.ContentStore;
 import com.calzone.financial.user.User;
 import com.calzone.financial.user.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class CompanyProfileService {
 
+    public static final String BALANCE_SHEET_URL = "/api/company/balance-sheet";
+
     @Autowired
     private CompanyProfileRepository companyProfileRepository;
 
     @Autowired
     private UserRepository userRepository;
 
-    private final Path rootLocation = Paths.get("uploads/balance-sheets");
-
-    public CompanyProfileService() {
-        try {
-            Files.createDirectories(rootLocation);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not initialize storage", e);
-        }
-    }
+    @Autowired
+    private ContentStore contentStore;
 
+    @Transactional
     public CompanyProfile createOrUpdateProfile(Long userId, CompanyProfileRequest request, MultipartFile balanceSheet) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -52,9 +47,12 @@ public class CompanyProfileService {
 
         if (balanceSheet != null && !balanceSheet.isEmpty()) {
             try {
-                String filename = UUID.randomUUID().toString() + "_" + balanceSheet.getOriginalFilename();
-                Files.copy(balanceSheet.getInputStream(), rootLocation.resolve(filename));
-                profile.setBalanceSheetUrl(rootLocation.resolve(filename).toString());
+                String previousHash = profile.getBalanceSheetHash();
+                profile.setBalanceSheetHash(contentStore.put(balanceSheet).sha256());
+                profile.setBalanceSheetFileName(balanceSheet.getOriginalFilename());
+                profile.setBalanceSheetContentType(balanceSheet.getContentType());
+                profile.setBalanceSheetUrl(BALANCE_SHEET_URL);
+                contentStore.release(previousHash);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to store file", e);
             }
@@ -69,6 +67,10 @@ public class CompanyProfileService {
         return companyProfileRepository.findByUser(user).orElse(null);
     }
 
+    public Resource openBalanceSheet(CompanyProfile profile) {
+        return contentStore.open(profile.getBalanceSheetHash());
+    }
+
     public List<CompanyProfile> getAllProfiles() {
         return companyProfileRepository.findAll();
     }
@@ -44,10 +44,7 @@ public class AdminService {
             user.setAddress(address);
         }
 
-        if (profileImageFile != null && !profileImageFile.isEmpty()) {
-            user.setProfileImage(profileImageFile.getBytes());
-            user.setProfileImageType(profileImageFile.getContentType());
-        }
+        // Profile images are written through UserAssetStore; see admin.AdminService
 
         return userRepository.save(user);
     }
@@ -78,10 +75,7 @@ public class AdminService {
             user.setAddress(address);
         }
 
-        if (profileImageFile != null && !profileImageFile.isEmpty()) {
-            user.setProfileImage(profileImageFile.getBytes());
-            user.setProfileImageType(profileImageFile.getContentType());
-        }
+        // Profile images are written through UserAssetStore; see admin.AdminService
 
         return userRepository.save(user);
     }
@@ -0,0 +1,166 @@
+package com.calzone.financial.config;
+
+import com.calzone.financial.company.CompanyProfileService;
+import com.calzone.financial.storage.ContentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the remaining legacy upload locations into {@link ContentStore}: the
+ * {@code documents.content} and {@code experts.image} LONGBLOBs, and balance sheets written to
+ * the public {@code uploads/balance-sheets} directory. Each row is moved in its own transaction
+ * and the source is cleared with it, so the job is restartable. Set
+ * {@code content-store.migration.drop-legacy-columns=true} to drop the BLOB columns once empty.
+ */
+@Component
+public class ContentStoreMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ContentStoreMigration.class);
+
+    private static final String BALANCE_SHEET_DIR = "uploads/balance-sheets/";
+
+    // table -> {legacy content column, digest column}
+    private static final Map<String, String[]> LEGACY_COLUMNS = Map.of(
+            "documents", new String[]{"content", "content_sha256"},
+            "experts", new String[]{"image", "image_sha256"});
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentStore contentStore;
+    private final boolean dropLegacyColumns;
+
+    public ContentStoreMigration(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, ContentStore contentStore,
+                                 @Value("${content-store.migration.drop-legacy-columns:false}") boolean dropLegacyColumns) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.contentStore = contentStore;
+        this.dropLegacyColumns = dropLegacyColumns;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        LEGACY_COLUMNS.forEach((table, columns) -> {
+            String column = columns[0];
+            try {
+                if (!columnExists(table, column)) {
+                    return;
+                }
+                int moved = migrateColumn(table, column, columns[1]);
+                if (moved > 0) {
+                    logger.info("Moved {} {}.{} values into the content store", moved, table, column);
+                }
+                if (dropLegacyColumns) {
+                    Integer remaining = jdbc.queryForObject(
+                            "SELECT COUNT(*) FROM " + table + " WHERE " + column + " IS NOT NULL", Integer.class);
+                    if (remaining != null && remaining == 0) {
+                        jdbc.update("ALTER TABLE " + table + " DROP COLUMN " + column);
+                        logger.info("Dropped legacy column {}.{}", table, column);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("ContentStoreMigration for {}.{} failed or not applicable: {}", table, column, e.getMessage());
+            }
+        });
+
+        try {
+            int moved = migrateBalanceSheets();
+            if (moved > 0) {
+                logger.info("Moved {} balance sheets into the content store", moved);
+            }
+        } catch (Exception e) {
+            logger.warn("ContentStoreMigration for balance sheets failed or not applicable: {}", e.getMessage());
+        }
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema=DATABASE() AND table_name=? AND column_name=?",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    private int migrateColumn(String table, String column, String hashColumn) {
+        int moved = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = jdbc.queryForList(
+                    "SELECT id FROM " + table + " WHERE " + column + " IS NOT NULL AND id > ? ORDER BY id LIMIT 100",
+                    Long.class, lastId);
+            if (ids.isEmpty()) {
+                return moved;
+            }
+            for (Long id : ids) {
+                transactionTemplate.executeWithoutResult(status -> migrateRow(table, column, hashColumn, id));
+                moved++;
+                lastId = id;
+            }
+        }
+    }
+
+    private void migrateRow(String table, String column, String hashColumn, Long id) {
+        jdbc.query("SELECT " + column + " FROM " + table + " WHERE id = ?", rs -> {
+            try (InputStream content = rs.getBinaryStream(1)) {
+                if (content == null) return;
+                ContentStore.StoredContent stored = contentStore.put(content);
+                jdbc.update("UPDATE " + table + " SET " + hashColumn + " = ?, " + column + " = NULL WHERE id = ?",
+                        stored.sha256(), id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, id);
+    }
+
+    private int migrateBalanceSheets() {
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "SELECT id, balance_sheet_url FROM company_profiles WHERE balance_sheet_sha256 IS NULL AND balance_sheet_url LIKE ?",
+                BALANCE_SHEET_DIR + "%");
+        int moved = 0;
+        for (Map<String, Object> row : rows) {
+            Long id = ((Number) row.get("id")).longValue();
+            Path file = Paths.get((String) row.get("balance_sheet_url"));
+            if (!Files.isReadable(file)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                try (InputStream content = Files.newInputStream(file)) {
+                    ContentStore.StoredContent stored = contentStore.put(content);
+                    jdbc.update("UPDATE company_profiles SET balance_sheet_sha256 = ?, balance_sheet_file_name = ?, "
+                                    + "balance_sheet_content_type = ?, balance_sheet_url = ? WHERE id = ?",
+                            stored.sha256(), originalFileName(file), Files.probeContentType(file),
+                            CompanyProfileService.BALANCE_SHEET_URL, id);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            // The old copy sat in a publicly served directory; remove it once the row points elsewhere
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete migrated balance sheet {}: {}", file, e.getMessage());
+            }
+            moved++;
+        }
+        return moved;
+    }
+
+    // Files were saved as "<uuid>_<original name>"
+    private static String originalFileName(Path file) {
+        String name = file.getFileName().toString();
+        int separator = name.indexOf('_');
+        return separator > 0 ? name.substring(separator + 1) : name;
+    }
+}
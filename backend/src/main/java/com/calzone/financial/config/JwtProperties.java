@@ -2,9 +2,13 @@ package com.calzone.financial.config;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Validated
 @ConfigurationProperties(prefix = "security.jwt")
 public class JwtProperties {
@@ -15,6 +19,26 @@ public class JwtProperties {
     @Positive
     private long expiration;
 
+    /**
+     * How the JWT filter resolves the principal. DATABASE loads the user row on every
+     * request; CLAIMS builds it from the signed token and only loads the row for
+     * {@link #databasePaths}.
+     */
+    private AuthenticationMode authenticationMode = AuthenticationMode.DATABASE;
+
+    /**
+     * Ant-style request paths that always load the user from the database, even in CLAIMS mode
+     * (endpoints that need the full profile or must see role/enabled changes immediately).
+     */
+    private List<String> databasePaths = new ArrayList<>(List.of("/api/user/me/**", "/api/admin/**"));
+
+    /**
+     * Maximum number of verified tokens kept in memory so repeat requests skip signature checks.
+     * Zero disables the cache.
+     */
+    @PositiveOrZero
+    private int claimsCacheSize = 1024;
+
     public JwtProperties() {}
 
     public String getSecret() {
@@ -32,4 +56,33 @@ public class JwtProperties {
     public void setExpiration(long expiration) {
         this.expiration = expiration;
     }
+
+    public AuthenticationMode getAuthenticationMode() {
+        return authenticationMode;
+    }
+
+    public void setAuthenticationMode(AuthenticationMode authenticationMode) {
+        this.authenticationMode = authenticationMode;
+    }
+
+    public List<String> getDatabasePaths() {
+        return databasePaths;
+    }
+
+    public void setDatabasePaths(List<String> databasePaths) {
+        this.databasePaths = databasePaths;
+    }
+
+    public int getClaimsCacheSize() {
+        return claimsCacheSize;
+    }
+
+    public void setClaimsCacheSize(int claimsCacheSize) {
+        this.claimsCacheSize = claimsCacheSize;
+    }
+
+    public enum AuthenticationMode {
+        DATABASE,
+        CLAIMS
+    }
 }
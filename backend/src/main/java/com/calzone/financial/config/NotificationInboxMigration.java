@@ -0,0 +1,61 @@
+package com.calzone.financial.config;
+
+import com.calzone.financial.notification.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands the notifications written before inboxes existed, which have no recipient and were all
+ * meant for admins, to every admin as their own rows, then fills the unread counters. Also fills
+ * the counters on a first start with an empty counter table.
+ */
+@Component
+public class NotificationInboxMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationInboxMigration.class);
+
+    private static final String COPY_TO_ADMINS = "INSERT INTO notifications (recipient_id, message, created_at, is_read) "
+            + "SELECT u.id, n.message, n.created_at, n.is_read FROM notifications n "
+            + "JOIN users u JOIN user_roles ur ON ur.user_id = u.id JOIN roles r ON r.id = ur.role_id "
+            + "WHERE n.recipient_id IS NULL AND r.name = 'ADMIN' ORDER BY n.id, u.id";
+
+    private final JdbcTemplate jdbc;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    public NotificationInboxMigration(JdbcTemplate jdbc, NotificationService notificationService,
+                                      PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Integer unassigned = jdbc.queryForObject("SELECT COUNT(*) FROM notifications WHERE recipient_id IS NULL", Integer.class);
+            Integer counters = jdbc.queryForObject("SELECT COUNT(*) FROM notification_unread_counts", Integer.class);
+            if ((unassigned == null || unassigned == 0) && (counters != null && counters > 0)) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (unassigned != null && unassigned > 0) {
+                    int copied = jdbc.update(COPY_TO_ADMINS);
+                    jdbc.update("DELETE FROM notifications WHERE recipient_id IS NULL");
+                    logger.info("Moved {} notifications into admin inboxes as {} rows", unassigned, copied);
+                }
+            });
+            int users = notificationService.rebuildUnreadCounts();
+            if (users > 0) {
+                logger.info("Built unread notification counters for {} users", users);
+            }
+        } catch (Exception e) {
+            logger.warn("NotificationInboxMigration failed or not applicable: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.calzone.financial.config;
+
+import com.calzone.financial.storage.ContentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves legacy {@code order_documents.content} LONGBLOBs into {@link ContentStore}.
+ * Rows are copied one at a time and their {@code content_sha256} set (and content nulled)
+ * in one transaction, so the job can be interrupted and re-run. Set
+ * {@code order-documents.migration.drop-legacy-column=true} to drop the column once empty.
+ */
+@Component
+public class OrderDocumentMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(OrderDocumentMigration.class);
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentStore contentStore;
+    private final boolean dropLegacyColumn;
+
+    public OrderDocumentMigration(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, ContentStore contentStore,
+                                  @Value("${order-documents.migration.drop-legacy-column:false}") boolean dropLegacyColumn) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.contentStore = contentStore;
+        this.dropLegacyColumn = dropLegacyColumn;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Integer hasContent = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema=DATABASE() AND table_name='order_documents' AND column_name='content'",
+                    Integer.class);
+            if (hasContent == null || hasContent == 0) {
+                return;
+            }
+            int moved = 0;
+            long lastId = 0;
+            while (true) {
+                List<Long> ids = jdbc.queryForList(
+                        "SELECT id FROM order_documents WHERE content IS NOT NULL AND id > ? ORDER BY id LIMIT 100",
+                        Long.class, lastId);
+                if (ids.isEmpty()) break;
+                for (Long id : ids) {
+                    transactionTemplate.executeWithoutResult(status -> migrateRow(id));
+                    moved++;
+                    lastId = id;
+                }
+            }
+            if (moved > 0) {
+                logger.info("Moved {} order document contents into the content store", moved);
+            }
+            Integer remaining = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM order_documents WHERE content IS NOT NULL", Integer.class);
+            if (dropLegacyColumn && remaining != null && remaining == 0) {
+                jdbc.update("ALTER TABLE order_documents DROP COLUMN content");
+                logger.info("Dropped legacy column order_documents.content");
+            }
+        } catch (Exception e) {
+            logger.warn("OrderDocumentMigration failed or not applicable: {}", e.getMessage());
+        }
+    }
+
+    private void migrateRow(Long documentId) {
+        jdbc.query("SELECT content FROM order_documents WHERE id = ?", rs -> {
+            try (InputStream content = rs.getBinaryStream(1)) {
+                if (content == null) return;
+                ContentStore.StoredContent stored = contentStore.put(content);
+                jdbc.update("UPDATE order_documents SET content_sha256 = ?, size = ?, content = NULL WHERE id = ?",
+                        stored.sha256(), stored.size(), documentId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, documentId);
+    }
+}
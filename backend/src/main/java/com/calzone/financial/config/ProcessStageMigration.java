@@ -0,0 +1,113 @@
+package com.calzone.financial.config;
+
+import com.calzone.financial.order.OrderRepository;
+import com.calzone.financial.process.ProcessStage;
+import com.calzone.financial.process.ProcessStageRepository;
+import com.calzone.financial.workflow.OrderWorkflowStateRepository;
+import com.calzone.financial.workflow.WorkflowPipeline;
+import com.calzone.financial.workflow.WorkflowPipelines;
+import com.calzone.financial.workflow.WorkflowService;
+import com.calzone.financial.workflow.WorkflowStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Carries orders that only have legacy {@code process_stages} rows over to the workflow engine,
+ * which the process and service hub views now read. Each completed, in-progress or failed row
+ * whose stage is a step code of the order's pipeline becomes a workflow event, oldest first;
+ * pending rows were placeholders and are skipped. Orders with nothing to carry over get an empty
+ * state row so they are not looked at again. The process stage rows themselves are left alone.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ProcessStageMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessStageMigration.class);
+
+    private static final int BATCH_SIZE = 200;
+
+    private static final Map<String, WorkflowStatus> STATUSES = Map.of(
+            "completed", WorkflowStatus.COMPLETED,
+            "in_progress", WorkflowStatus.IN_PROGRESS,
+            "in-progress", WorkflowStatus.IN_PROGRESS,
+            "failed", WorkflowStatus.FAILED);
+
+    private static final String FIND_UNCONVERTED = "SELECT DISTINCT p.order_id FROM process_stages p "
+            + "LEFT JOIN order_workflow_state s ON s.order_id = p.order_id "
+            + "WHERE s.order_id IS NULL AND p.order_id > ? ORDER BY p.order_id LIMIT ?";
+
+    private final JdbcTemplate jdbc;
+    private final ProcessStageRepository stageRepository;
+    private final OrderRepository orderRepository;
+    private final OrderWorkflowStateRepository stateRepository;
+    private final WorkflowPipelines pipelines;
+    private final WorkflowService workflowService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProcessStageMigration(JdbcTemplate jdbc, ProcessStageRepository stageRepository, OrderRepository orderRepository,
+                                 OrderWorkflowStateRepository stateRepository, WorkflowPipelines pipelines,
+                                 WorkflowService workflowService, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.stageRepository = stageRepository;
+        this.orderRepository = orderRepository;
+        this.stateRepository = stateRepository;
+        this.pipelines = pipelines;
+        this.workflowService = workflowService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int orders = 0;
+            int events = 0;
+            long after = Long.MIN_VALUE;
+            while (true) {
+                List<Long> orderIds = jdbc.queryForList(FIND_UNCONVERTED, Long.class, after, BATCH_SIZE);
+                if (orderIds.isEmpty()) {
+                    break;
+                }
+                for (Long orderId : orderIds) {
+                    events += convert(orderId);
+                    orders++;
+                }
+                after = orderIds.get(orderIds.size() - 1);
+            }
+            if (orders > 0) {
+                logger.info("Converted process stages of {} orders into {} workflow events", orders, events);
+            }
+        } catch (Exception e) {
+            logger.warn("ProcessStageMigration failed or not applicable: {}", e.getMessage());
+        }
+    }
+
+    private int convert(Long orderId) {
+        WorkflowPipeline pipeline = pipelines.forService(orderRepository.findServiceNameById(orderId).orElse(null));
+        int events = 0;
+        for (ProcessStage stage : stageRepository.findByOrderIdOrderByCreated(orderId)) {
+            WorkflowStatus status = stage.getStatus() == null ? null : STATUSES.get(stage.getStatus().toLowerCase(Locale.ROOT));
+            WorkflowPipeline.Step step = pipeline.step(stage.getStage()).orElse(null);
+            if (status == null || step == null) {
+                continue;
+            }
+            workflowService.createEvent(orderId, step.stage(), status, stage.getNotes(),
+                    "Converted from process stage " + stage.getStage() + " recorded at " + stage.getCreatedAt());
+            events++;
+        }
+        if (events == 0) {
+            transactionTemplate.executeWithoutResult(status -> stateRepository.insertIfAbsent(orderId));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,63 @@
+package com.calzone.financial.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the secondary indexes that the hand-written list queries rely on. Hibernate's
+ * {@code ddl-auto=update} only adds the indexes it generates itself, so these are checked
+ * against information_schema and created when missing.
+ */
+@Component
+public class QueryIndexMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(QueryIndexMigration.class);
+
+    private record IndexDef(String table, String name, String columns) {}
+
+    private static final List<IndexDef> INDEXES = List.of(
+            // Combined leads view: keyset order per branch and the anti-join probes
+            new IndexDef("leads", "idx_leads_created_at", "created_at, id"),
+            new IndexDef("leads", "idx_leads_updated_at", "updated_at, id"),
+            new IndexDef("leads", "idx_leads_email", "email"),
+            new IndexDef("users", "idx_users_created_at", "created_at, id"),
+            new IndexDef("orders", "idx_orders_user_id", "user_id"),
+            new IndexDef("orders", "idx_orders_customer_email", "customer_email"),
+            // Order listings: newest first, optionally narrowed by one equality filter
+            new IndexDef("orders", "idx_orders_created_at", "created_at, id"),
+            new IndexDef("orders", "idx_orders_status_created_at", "status, created_at, id"),
+            new IndexDef("orders", "idx_orders_service_created_at", "service_name, created_at, id"),
+            new IndexDef("orders", "idx_orders_assignee_created_at", "assignee_email, created_at, id"),
+            new IndexDef("orders", "idx_orders_customer_created_at", "customer_email, created_at, id"),
+            // OrderArchiver walks delivered orders by id
+            new IndexDef("order_workflow_state", "idx_workflow_state_stage_order", "current_stage, order_id"));
+
+    private final JdbcTemplate jdbc;
+
+    public QueryIndexMigration(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (IndexDef index : INDEXES) {
+            try {
+                Integer existing = jdbc.queryForObject(
+                        "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema=DATABASE() AND table_name=? AND index_name=?",
+                        Integer.class, index.table(), index.name());
+                if (existing != null && existing > 0) {
+                    continue;
+                }
+                jdbc.update("CREATE INDEX " + index.name() + " ON " + index.table() + " (" + index.columns() + ")");
+                logger.info("Created index {} on {} ({})", index.name(), index.table(), index.columns());
+            } catch (Exception e) {
+                logger.warn("QueryIndexMigration for {} failed or not applicable: {}", index.name(), e.getMessage());
+            }
+        }
+    }
+}
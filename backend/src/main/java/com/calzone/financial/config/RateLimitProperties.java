@@ -0,0 +1,97 @@
+package com.calzone.financial.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request rate limits for abuse-prone endpoints, one entry per route, e.g.
+ * {@code security.rate-limit.routes.login.limits.email.capacity=5}. A request must find a token
+ * in every bucket of its route: one for the client IP, and one for the phone or email in the
+ * request body where configured.
+ */
+@Validated
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    /** What a bucket is keyed by. PHONE and EMAIL are read from the JSON request body. */
+    public enum KeyType { IP, PHONE, EMAIL }
+
+    private boolean enabled = true;
+
+    /**
+     * Take the client IP from the first {@code X-Forwarded-For} entry. Only enable behind a proxy
+     * that sets the header, otherwise clients can pick their own key.
+     */
+    private boolean trustForwardedFor = false;
+
+    /** Buckets that have been full for this long are dropped. */
+    @NotNull
+    private Duration idleEviction = Duration.ofMinutes(10);
+
+    @Valid
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public static class Route {
+
+        /** Ant-style request path. */
+        @NotBlank
+        private String path;
+
+        private String method = "POST";
+
+        @Valid
+        private Map<KeyType, Limit> limits = new EnumMap<>(KeyType.class);
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public Map<KeyType, Limit> getLimits() { return limits; }
+        public void setLimits(Map<KeyType, Limit> limits) { this.limits = limits; }
+    }
+
+    /** Up to {@code capacity} requests at once, refilled evenly over {@code period}. */
+    public static class Limit {
+
+        @Positive
+        private int capacity;
+
+        @NotNull
+        private Duration period = Duration.ofMinutes(1);
+
+        /** JSON body field holding the phone or email; defaults to {@code phone} or {@code email}. */
+        private String field;
+
+        public String getField() { return field; }
+        public void setField(String field) { this.field = field; }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public Duration getPeriod() { return period; }
+        public void setPeriod(Duration period) { this.period = period; }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public boolean isTrustForwardedFor() { return trustForwardedFor; }
+    public void setTrustForwardedFor(boolean trustForwardedFor) { this.trustForwardedFor = trustForwardedFor; }
+
+    public Duration getIdleEviction() { return idleEviction; }
+    public void setIdleEviction(Duration idleEviction) { this.idleEviction = idleEviction; }
+
+    public Map<String, Route> getRoutes() { return routes; }
+    public void setRoutes(Map<String, Route> routes) { this.routes = routes; }
+}
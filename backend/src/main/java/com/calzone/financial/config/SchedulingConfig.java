@@ -0,0 +1,13 @@
+package com.calzone.financial.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the {@code @Scheduled} jobs. They share the pool Spring Boot builds from
+ * {@code spring.task.scheduling.pool.*}, sized in application.properties.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
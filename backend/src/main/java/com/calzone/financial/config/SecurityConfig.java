@@ -1,6 +1,8 @@
 package com.calzone.financial.config;
 
 import com.calzone.financial.auth.JwtAuthenticationFilter;
+import com.calzone.financial.ratelimit.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -24,13 +26,18 @@ import static org.springframework.security.config.Customizer.withDefaults; // Im
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter,
+                                                   RateLimitFilter rateLimitFilter) throws Exception {
         http
             // Use lambda style for cors and csrf
             .cors(withDefaults())
             .csrf(AbstractHttpConfigurer::disable)
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authorize -> authorize
+                // SSE streams and error pages are re-dispatched after the JWT filter has run for
+                // the original request; the stateless context is gone by then
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                 // --- Public Endpoints ---
                 // Allow unauthenticated access to auth endpoints (login, register)
                 .requestMatchers("/api/auth/**").permitAll()
@@ -38,6 +45,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/uploads/profile-images/**").permitAll() // Corrected path
                 // Allow preflight OPTIONS requests for CORS
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                // SMS gateway delivery reports; SmsStatusController checks their signature
+                .requestMatchers(HttpMethod.POST, "/api/sms/status").permitAll()
                 
                 // --- Secured Endpoints ---
                 // Require authentication for user profile endpoints
@@ -45,12 +54,18 @@ public class SecurityConfig {
                 // Require authentication for service hub endpoints
                 .requestMatchers("/api/servicehub/**").authenticated()
 
+                // Actuator: health stays open for probes; metrics expose internals, admins only
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                 // --- Fallback Rules ---
                 // Secure all other API endpoints by default
                 .requestMatchers("/api/**").authenticated()
                 // Allow all other requests (like serving the frontend)
                 .anyRequest().permitAll()
             )
+            // Throttle login and OTP requests before any authentication work is done
+            .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
             // Register JWT filter so the SecurityContext is populated
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
@@ -64,7 +79,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of("http://localhost:*", "http://127.0.0.1:*"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(List.of("Authorization", "Content-Type", "X-Next-Cursor", "Retry-After"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,50 @@
+package com.calzone.financial.config;
+
+import com.calzone.financial.workflow.WorkflowStage;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How long an order may sit in each main workflow stage before an SLA breach (SLAB) is raised.
+ * Service-specific values override the defaults, e.g.
+ * {@code workflow.sla.services[GST Registration].GOVT_REV=20d}.
+ */
+@Validated
+@ConfigurationProperties(prefix = "workflow.sla")
+public class SlaProperties {
+
+    private boolean enabled = true;
+
+    /** Default time allowed per stage; stages without a value are not tracked. */
+    private Map<WorkflowStage, Duration> deadlines = new EnumMap<>(WorkflowStage.class);
+
+    /** Per service name overrides, matched case-insensitively. */
+    private Map<String, Map<WorkflowStage, Duration>> services = new HashMap<>();
+
+    public Duration deadlineFor(String serviceName, WorkflowStage stage) {
+        if (serviceName != null) {
+            for (Map.Entry<String, Map<WorkflowStage, Duration>> entry : services.entrySet()) {
+                if (entry.getKey().toLowerCase(Locale.ROOT).equals(serviceName.toLowerCase(Locale.ROOT))
+                        && entry.getValue().containsKey(stage)) {
+                    return entry.getValue().get(stage);
+                }
+            }
+        }
+        return deadlines.get(stage);
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Map<WorkflowStage, Duration> getDeadlines() { return deadlines; }
+    public void setDeadlines(Map<WorkflowStage, Duration> deadlines) { this.deadlines = deadlines; }
+
+    public Map<String, Map<WorkflowStage, Duration>> getServices() { return services; }
+    public void setServices(Map<String, Map<WorkflowStage, Duration>> services) { this.services = services; }
+}
@@ -0,0 +1,123 @@
+package com.calzone.financial.config;
+
+import com.calzone.financial.user.User;
+import com.calzone.financial.user.UserAssetKind;
+import com.calzone.financial.user.UserAssetStore;
+import com.calzone.financial.user.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the legacy image/KYC LONGBLOB columns on {@code users} into {@link UserAssetStore}.
+ * Rows are copied one at a time, so at most one value is held in memory, and the source cell is
+ * nulled in the same transaction, so the job is restartable. Once every column is empty the
+ * columns can be dropped by setting {@code user-assets.migration.drop-legacy-columns=true}.
+ */
+@Component
+public class UserAssetMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(UserAssetMigration.class);
+
+    // legacy content column -> asset kind; the *_type columns stay on users
+    private static final Map<String, UserAssetKind> LEGACY_COLUMNS = Map.of(
+            "profile_image", UserAssetKind.PROFILE_IMAGE,
+            "aadhaar_front", UserAssetKind.AADHAAR_FRONT,
+            "aadhaar_back", UserAssetKind.AADHAAR_BACK,
+            "pan_card", UserAssetKind.PAN_CARD);
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final UserAssetStore userAssetStore;
+    private final boolean dropLegacyColumns;
+
+    public UserAssetMigration(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, UserRepository userRepository,
+                              UserAssetStore userAssetStore,
+                              @Value("${user-assets.migration.drop-legacy-columns:false}") boolean dropLegacyColumns) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.userAssetStore = userAssetStore;
+        this.dropLegacyColumns = dropLegacyColumns;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        LEGACY_COLUMNS.forEach((column, kind) -> {
+            try {
+                if (!columnExists(column)) {
+                    return;
+                }
+                int moved = migrateColumn(column, kind);
+                if (moved > 0) {
+                    logger.info("Moved {} users.{} values into the user asset store", moved, column);
+                }
+                if (dropLegacyColumns) {
+                    Integer remaining = jdbc.queryForObject(
+                            "SELECT COUNT(*) FROM users WHERE " + column + " IS NOT NULL", Integer.class);
+                    if (remaining != null && remaining == 0) {
+                        jdbc.update("ALTER TABLE users DROP COLUMN " + column);
+                        logger.info("Dropped legacy column users.{}", column);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("UserAssetMigration for users.{} failed or not applicable: {}", column, e.getMessage());
+            }
+        });
+    }
+
+    private boolean columnExists(String column) {
+        Integer count = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema=DATABASE() AND table_name='users' AND column_name=?",
+                Integer.class, column);
+        return count != null && count > 0;
+    }
+
+    private int migrateColumn(String column, UserAssetKind kind) {
+        int moved = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = jdbc.queryForList(
+                    "SELECT id FROM users WHERE " + column + " IS NOT NULL AND id > ? ORDER BY id LIMIT 100",
+                    Long.class, lastId);
+            if (ids.isEmpty()) {
+                return moved;
+            }
+            for (Long id : ids) {
+                transactionTemplate.executeWithoutResult(status -> migrateRow(id, column, kind));
+                moved++;
+                lastId = id;
+            }
+        }
+    }
+
+    private void migrateRow(Long userId, String column, UserAssetKind kind) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return;
+        }
+        String typeColumn = column + "_type";
+        jdbc.query("SELECT " + column + ", " + typeColumn + " FROM users WHERE id = ?", rs -> {
+            try (InputStream content = rs.getBinaryStream(1)) {
+                if (content != null) {
+                    userAssetStore.store(user, kind, content, rs.getString(2));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, userId);
+        userRepository.save(user);
+        jdbc.update("UPDATE users SET " + column + " = NULL WHERE id = ?", userId);
+    }
+}
@@ -0,0 +1,64 @@
+package com.calzone.financial.config;
+
+import com.calzone.financial.workflow.WorkflowStateReplayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds {@code order_workflow_state} from {@code workflow_events} the first time the
+ * application starts with the projection, i.e. when it has no rows yet. Later it can be rebuilt
+ * with {@code POST /api/workflow/state/replay}. Also drops the {@code completion_percentage}
+ * column earlier versions kept there; completion now comes from the order's pipeline.
+ */
+@Component
+// Before ProcessStageMigration, whose events would make the table look already built
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class WorkflowStateMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowStateMigration.class);
+
+    private final WorkflowStateReplayer stateReplayer;
+    private final JdbcTemplate jdbc;
+
+    public WorkflowStateMigration(WorkflowStateReplayer stateReplayer, JdbcTemplate jdbc) {
+        this.stateReplayer = stateReplayer;
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        dropCompletionPercentage();
+        try {
+            if (!stateReplayer.isEmpty()) {
+                return;
+            }
+            int orders = stateReplayer.replayAll();
+            if (orders > 0) {
+                logger.info("Built workflow state for {} orders from existing events", orders);
+            }
+        } catch (Exception e) {
+            logger.warn("WorkflowStateMigration failed or not applicable: {}", e.getMessage());
+        }
+    }
+
+    // NOT NULL without a default, so inserts fail once the entity stops writing it
+    private void dropCompletionPercentage() {
+        try {
+            Integer exists = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema=DATABASE() "
+                            + "AND table_name='order_workflow_state' AND column_name='completion_percentage'",
+                    Integer.class);
+            if (exists != null && exists > 0) {
+                jdbc.update("ALTER TABLE order_workflow_state DROP COLUMN completion_percentage");
+                logger.info("Dropped order_workflow_state.completion_percentage");
+            }
+        } catch (Exception e) {
+            logger.warn("Dropping order_workflow_state.completion_percentage failed or not applicable: {}", e.getMessage());
+        }
+    }
+}
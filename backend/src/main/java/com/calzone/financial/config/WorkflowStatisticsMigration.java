@@ -0,0 +1,43 @@
+package com.calzone.financial.config;
+
+import com.calzone.financial.workflow.WorkflowStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code workflow_stage_count_slots} from {@code workflow_events} the first time the application
+ * starts with the counter table, i.e. when there are no counters yet. Later drift can be fixed
+ * with {@code POST /api/workflow/analytics/rebuild-counters}.
+ */
+@Component
+// Before ProcessStageMigration, whose events would make the table look already built
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class WorkflowStatisticsMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowStatisticsMigration.class);
+
+    private final WorkflowStatistics statistics;
+
+    public WorkflowStatisticsMigration(WorkflowStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (!statistics.isEmpty()) {
+                return;
+            }
+            int pairs = statistics.rebuild();
+            if (pairs > 0) {
+                logger.info("Built {} workflow stage counters from existing events", pairs);
+            }
+        } catch (Exception e) {
+            logger.warn("WorkflowStatisticsMigration failed or not applicable: {}", e.getMessage());
+        }
+    }
+}
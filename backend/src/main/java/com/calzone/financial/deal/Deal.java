@@ -1,11 +1,13 @@
 package com.calzone.financial.deal;
 
+import com.calzone.financial.admin.DashboardEntityListener;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.Instant;
 
 @Entity
 @Table(name = "deals")
+@EntityListeners(DashboardEntityListener.class)
 public class Deal {
 
     @Id
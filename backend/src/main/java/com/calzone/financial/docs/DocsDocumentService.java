@@ -0,0 +1,58 @@
+package com.calzone.financial.docs;
+
+import com.calzone.financial.storage.ContentStore;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+/**
+ * Writes user documents. Content store references and the document row change in one
+ * transaction: a failed save gives a new reference back through {@link ContentStore}'s rollback
+ * cleanup, and a released blob is only collected once the row no longer points at it.
+ */
+@Service
+public class DocsDocumentService {
+
+    private final DocsDocumentRepository docs;
+    private final ContentStore contentStore;
+
+    public DocsDocumentService(DocsDocumentRepository docs, ContentStore contentStore) {
+        this.docs = docs;
+        this.contentStore = contentStore;
+    }
+
+    @Transactional(rollbackFor = IOException.class)
+    public Document upload(Long ownerUserId, MultipartFile file) throws IOException {
+        ContentStore.StoredContent stored = contentStore.put(file);
+        Document d = new Document();
+        d.setOwnerUserId(ownerUserId);
+        d.setFilename(file.getOriginalFilename());
+        d.setContentType(file.getContentType());
+        d.setSizeBytes(stored.size());
+        d.setContentHash(stored.sha256());
+        // Ensure s3Key column is not null in existing schema: set to empty string when not using S3
+        d.setS3Key("");
+        return docs.save(d);
+    }
+
+    @Transactional(rollbackFor = IOException.class)
+    public Document replace(Document existing, MultipartFile file) throws IOException {
+        ContentStore.StoredContent stored = contentStore.put(file);
+        String previousHash = existing.getContentHash();
+        existing.setFilename(file.getOriginalFilename());
+        existing.setContentType(file.getContentType());
+        existing.setSizeBytes(stored.size());
+        existing.setContentHash(stored.sha256());
+        Document saved = docs.save(existing);
+        contentStore.release(previousHash);
+        return saved;
+    }
+
+    @Transactional
+    public void delete(Document existing) {
+        docs.deleteById(existing.getId());
+        contentStore.release(existing.getContentHash());
+    }
+}
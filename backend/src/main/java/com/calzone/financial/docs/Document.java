@@ -1,5 +1,6 @@
 package com.calzone.financial.docs;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.Instant;
 
@@ -23,10 +24,10 @@ public class Document {
     private String contentType;
     private Long sizeBytes;
 
-    @Lob
-    @Basic(fetch = FetchType.LAZY)
-    @Column(name = "content", columnDefinition = "LONGBLOB")
-    private byte[] content;
+    // SHA-256 of the content in ContentStore; the legacy content LONGBLOB is moved there on startup
+    @JsonIgnore
+    @Column(name = "content_sha256", length = 64)
+    private String contentHash;
 
     private Instant createdAt = Instant.now();
 
@@ -47,8 +48,8 @@ public class Document {
     public void setContentType(String contentType) { this.contentType = contentType; }
     public Long getSizeBytes() { return sizeBytes; }
     public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
-    public byte[] getContent() { return content; }
-    public void setContent(byte[] content) { this.content = content; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
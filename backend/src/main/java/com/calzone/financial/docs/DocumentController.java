@@ -1,13 +1,16 @@
 package com.calzone.financial.docs;
 
+import com.calzone.financial.common.FileDownloads;
+import com.calzone.financial.storage.ContentStore;
 import com.calzone.financial.user.User;
 import com.calzone.financial.user.UserRepository;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,11 +22,16 @@ public class DocumentController {
 
     private final DocsDocumentRepository docs;
     private final UserRepository userRepository;
+    private final ContentStore contentStore;
+    private final DocsDocumentService documentService;
 
     // Constructor injection
-    public DocumentController(DocsDocumentRepository docs, UserRepository userRepository) {
+    public DocumentController(DocsDocumentRepository docs, UserRepository userRepository, ContentStore contentStore,
+                              DocsDocumentService documentService) {
         this.docs = docs;
         this.userRepository = userRepository;
+        this.contentStore = contentStore;
+        this.documentService = documentService;
     }
 
     // --- Simple ping for diagnostics ---
@@ -53,11 +61,8 @@ public class DocumentController {
             }
             if (userId == null) return ResponseEntity.status(401).build();
 
+            // Content lives in the content store, so the list carries metadata only
             List<Document> list = docs.findByOwnerUserId(userId);
-            // Do not return the content bytes in the list for efficiency
-            for (Document d : list) {
-                d.setContent(null);
-            }
             return ResponseEntity.ok(list);
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -65,7 +70,7 @@ public class DocumentController {
         }
     }
 
-    // --- Upload single file and store in DB ---
+    // --- Upload single file into the content store ---
     @RequestMapping(value = {"/upload", "/upload/"}, method = org.springframework.web.bind.annotation.RequestMethod.POST, consumes = {"multipart/form-data"})
     public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file,
                                     @RequestParam(value = "ownerUserId", required = false) Long ownerUserId) {
@@ -107,15 +112,7 @@ public class DocumentController {
 
             System.out.println("[DocumentController] upload: owner=" + resolvedOwner + " filename=" + file.getOriginalFilename() + " size=" + file.getSize() + " contentType=" + file.getContentType());
 
-            Document d = new Document();
-            d.setOwnerUserId(resolvedOwner);
-            d.setFilename(file.getOriginalFilename());
-            d.setContentType(file.getContentType());
-            d.setSizeBytes(file.getSize());
-            d.setContent(file.getBytes());
-            // Ensure s3Key column is not null in existing schema: set to empty string when not using S3
-            d.setS3Key("");
-            Document saved = docs.save(d);
+            Document saved = documentService.upload(resolvedOwner, file);
 
             return ResponseEntity.ok(Map.of("documentId", saved.getId()));
 
@@ -169,11 +166,7 @@ public class DocumentController {
 
             if (file == null || file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("message", "No file provided"));
 
-            existing.setFilename(file.getOriginalFilename());
-            existing.setContentType(file.getContentType());
-            existing.setSizeBytes(file.getSize());
-            existing.setContent(file.getBytes());
-            docs.save(existing);
+            documentService.replace(existing, file);
 
             return ResponseEntity.ok(Map.of("message", "Document replaced", "documentId", existing.getId()));
         } catch (Exception ex) {
@@ -217,7 +210,7 @@ public class DocumentController {
                 return ResponseEntity.status(403).body(Map.of("message", "You are not allowed to delete this document"));
             }
 
-            docs.deleteById(id);
+            documentService.delete(existing);
             return ResponseEntity.ok(Map.of("message", "Document deleted"));
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -231,18 +224,21 @@ public class DocumentController {
         return delete(id);
     }
 
-    // --- Download file bytes from DB by document id ---
+    // --- Download file content by document id ---
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> download(@PathVariable Long id) {
+    public void download(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
         Optional<Document> dopt = docs.findById(id);
-        if (dopt.isEmpty()) return ResponseEntity.notFound().build();
+        if (dopt.isEmpty()) {
+            response.sendError(404);
+            return;
+        }
         Document d = dopt.get();
-        byte[] content = d.getContent();
-        if (content == null || content.length == 0) return ResponseEntity.noContent().build();
+        if (d.getContentHash() == null) {
+            response.setStatus(204);
+            return;
+        }
         String filename = d.getFilename() == null ? "file" : d.getFilename();
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(d.getContentType() == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(d.getContentType()))
-                .body(content);
+        FileDownloads.serve(contentStore.path(d.getContentHash()), d.getContentType(), filename,
+                ContentStore.etag(d.getContentHash()), request, response);
     }
 }
\ No newline at end of file
@@ -3,8 +3,7 @@ package com.calzone.financial.email;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,31 +15,22 @@ import java.util.Map;
 @RequestMapping("/api/verify-email")
 public class EmailController {
 
-    private final JavaMailSender mailSender;
+    private final MailOutbox mailOutbox;
 
-    public EmailController(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailController(MailOutbox mailOutbox) {
+        this.mailOutbox = mailOutbox;
     }
 
+    // Both emails are queued together and sent by MailDispatcher
     @PostMapping("/send")
+    @Transactional
     public ResponseEntity<Void> send(@RequestBody SendPayload payload) {
         // send to receiver
-        SimpleMailMessage toReceiver = new SimpleMailMessage();
-        toReceiver.setTo(payload.to);
-        toReceiver.setSubject(payload.subject);
-        toReceiver.setText(payload.message);
-        if (payload.from != null && !payload.from.isBlank()) {
-            toReceiver.setReplyTo(payload.from);
-        }
-        mailSender.send(toReceiver);
+        mailOutbox.enqueue(payload.to, payload.from, payload.subject, payload.message);
 
         // copy to sender if provided
         if (payload.from != null && !payload.from.isBlank()) {
-            SimpleMailMessage toSender = new SimpleMailMessage();
-            toSender.setTo(payload.from);
-            toSender.setSubject("Copy: " + payload.subject);
-            toSender.setText(payload.message);
-            mailSender.send(toSender);
+            mailOutbox.enqueue(payload.from, "Copy: " + payload.subject, payload.message);
         }
         return ResponseEntity.ok().build();
     }
@@ -1,13 +1,15 @@
 package com.calzone.financial.email;
 
+import com.calzone.financial.otp.OtpChannel;
+import com.calzone.financial.otp.OtpHasher;
+import com.calzone.financial.otp.OtpStore;
+import com.calzone.financial.otp.OtpVerification;
 import com.calzone.financial.user.UserRepository;
 
 import jakarta.validation.constraints.Email;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,29 +17,27 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.security.SecureRandom;
 import java.time.Duration;
-import java.time.Instant;
-
-import org.springframework.mail.MailException;
 
 @Service
 public class EmailVerificationService {
 
     private static final Duration TTL = Duration.ofMinutes(10);
+    private static final int MAX_ATTEMPTS = 5;
     private static final SecureRandom RNG = new SecureRandom();
 
-    private final VerificationCodeRepository repo;
-    private final JavaMailSender mailSender;
+    private final OtpStore otpStore;
+    private final MailOutbox mailOutbox;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final OtpHasher otpHasher;
 
-    @Value("${spring.mail.username:}")
-    private String fromEmail;
-
-    public EmailVerificationService(VerificationCodeRepository repo, JavaMailSender mailSender, UserRepository userRepository, PasswordEncoder passwordEncoder) {
-        this.repo = repo;
-        this.mailSender = mailSender;
+    public EmailVerificationService(OtpStore otpStore, MailOutbox mailOutbox, UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                    OtpHasher otpHasher) {
+        this.otpStore = otpStore;
+        this.mailOutbox = mailOutbox;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.otpHasher = otpHasher;
     }
 
     // ✅ FIX: Removed @Transactional from this field. 
@@ -48,39 +48,14 @@ public class EmailVerificationService {
     public String sendCode(@Email String email) {
         // Generate and save code
         String code = generateCode(6);
-        Instant now = Instant.now();
-
-        // Purge old/expired codes for this email
-        repo.purgeByEmailOrExpired(email.toLowerCase(), now);
-
-        VerificationCode vc = new VerificationCode();
-        vc.setEmail(email.toLowerCase());
-        vc.setCodeHash(passwordEncoder.encode(code)); // Hash the code for security
-        vc.setExpiresAt(now.plus(TTL));
-        vc.setUsed(false);
-        vc.setAttempts(0);
-        vc.setMaxAttempts(5);
-        repo.save(vc);
-
-        // Send email
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(email);
-        if (fromEmail != null && !fromEmail.isBlank()) {
-            message.setFrom(fromEmail);
-        }
-        message.setSubject("Verify your email for Calzone Financial");
-        message.setText("Your verification code is: " + code + "\nThis code expires in " + TTL.toMinutes() + " minutes.");
-        try {
-            mailSender.send(message);
-        } catch (MailException e) {
-            System.err.println("Failed to send email to " + email + ": " + e.getMessage());
-            if (returnCode) {
-                // In debug mode return the code so frontend can show it
-                return code;
-            }
-            // Throwing a public error to the client lets them know the email service failed.
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to send verification email. Please check server logs.");
-        }
+
+        // Replaces any code sent to this email before
+        otpStore.issue(OtpChannel.EMAIL, email.toLowerCase(), otpHasher.hash(OtpChannel.EMAIL, email.toLowerCase(), code), TTL, MAX_ATTEMPTS);
+
+        // Queued with this transaction and sent by MailDispatcher, so a slow SMTP server does not hold the request
+        mailOutbox.enqueue(email, "Verify your email for Calzone Financial",
+                "Your verification code is: " + code + "\nThis code expires in " + TTL.toMinutes() + " minutes.");
+
         // In debug mode return the code
         if (returnCode) return code;
         return null;
@@ -88,24 +63,17 @@ public class EmailVerificationService {
 
     @Transactional // Correctly annotated on the method
     public void verifyCode(@Email String email, String code) {
-        VerificationCode latest = repo.findActiveLatest(email.toLowerCase(), Instant.now())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "OTP expired or not found"));
-
-        if (latest.isUsed() || latest.getAttempts() >= latest.getMaxAttempts()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "OTP expired or too many attempts.");
-        }
-
-        // Verify the provided code against the stored hash
-        boolean match = passwordEncoder.matches(code, latest.getCodeHash());
-        if (!match) {
-            latest.setAttempts(latest.getAttempts() + 1);
-            repo.save(latest);
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid code");
+        // Counts the attempt and, on a match, uses the code up
+        OtpVerification result = otpStore.verify(OtpChannel.EMAIL, email.toLowerCase(),
+                hash -> otpHasher.matches(OtpChannel.EMAIL, email.toLowerCase(), code, hash));
+        switch (result) {
+            case NOT_FOUND -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "OTP expired or not found");
+            case TOO_MANY_ATTEMPTS -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "OTP expired or too many attempts.");
+            case INVALID -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid code");
+            case VERIFIED -> { }
         }
 
-        // Mark code as used and verify the user's email
-        latest.setUsed(true);
-        repo.save(latest);
+        // Verify the user's email
 
         userRepository.findByEmail(email.toLowerCase()).ifPresent(u -> {
             if (u.getEmailVerified() == null || !u.getEmailVerified()) {
@@ -0,0 +1,239 @@
+package com.calzone.financial.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends queued {@link OutboundEmail}s off the request thread.
+ *
+ * <p>Each poll claims the due emails, oldest first, with {@code SKIP LOCKED} and pushes their next
+ * attempt out by {@code mail.outbox.lease-seconds}, so other instances and later polls leave them
+ * alone; an instance that dies mid-send only delays its emails by the lease. Claimed emails are
+ * split into batches of {@code mail.outbox.batch-size} and handed to a pool of
+ * {@code mail.outbox.threads} without waiting, so the scheduler thread is free at once;
+ * each batch goes out over one SMTP connection, since {@link JavaMailSender#send(SimpleMailMessage...)}
+ * sends all its messages through a single transport. Emails the server refuses, or all of a batch
+ * whose connection fails, back off exponentially and are marked DEAD after
+ * {@code mail.outbox.max-attempts}.
+ *
+ * <p>Queue depth is published as {@code mail.outbox.depth}, the time from queueing to sending as
+ * {@code mail.outbox.latency}, SMTP batch time as {@code mail.outbox.send} and outcomes as
+ * {@code mail.outbox.dispatch}. At most {@code mail.outbox.poll-size} emails are in flight per
+ * instance.
+ */
+@Component
+public class MailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+
+    private final OutboundEmailRepository repository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService pool;
+    private final String fromEmail;
+    private final int pollSize;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final Duration lease;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong depth = new AtomicLong();
+    private final Timer latency;
+    private final Timer sendTime;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+
+    public MailDispatcher(OutboundEmailRepository repository, JavaMailSender mailSender,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          @Value("${spring.mail.username:}") String fromEmail,
+                          @Value("${mail.outbox.threads:2}") int threads,
+                          @Value("${mail.outbox.poll-size:200}") int pollSize,
+                          @Value("${mail.outbox.batch-size:25}") int batchSize,
+                          @Value("${mail.outbox.max-attempts:8}") int maxAttempts,
+                          @Value("${mail.outbox.retention-days:7}") int retentionDays,
+                          @Value("${mail.outbox.lease-seconds:300}") int leaseSeconds) {
+        this.repository = repository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("mail-", 0).daemon().factory());
+        this.fromEmail = fromEmail;
+        this.pollSize = pollSize;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofDays(retentionDays);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        Gauge.builder("mail.outbox.depth", depth, AtomicLong::get)
+                .description("Emails waiting to be sent").register(meterRegistry);
+        this.latency = Timer.builder("mail.outbox.latency")
+                .description("Time from queueing an email to sending it").register(meterRegistry);
+        this.sendTime = Timer.builder("mail.outbox.send")
+                .description("Time to send one batch over SMTP").register(meterRegistry);
+        this.sent = Counter.builder("mail.outbox.dispatch").tag("result", "sent").register(meterRegistry);
+        this.retried = Counter.builder("mail.outbox.dispatch").tag("result", "retry").register(meterRegistry);
+        this.dead = Counter.builder("mail.outbox.dispatch").tag("result", "dead").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-ms:1000}")
+    public void poll() {
+        int room = pollSize - inFlight.get();
+        if (room <= 0) return;
+        List<OutboundEmail> due;
+        try {
+            depth.set(repository.countByStatus(OutboundEmail.Status.PENDING));
+            due = transactionTemplate.execute(status -> claimDue(room));
+        } catch (RuntimeException e) {
+            logger.warn("Mail outbox poll failed: {}", e.getMessage());
+            return;
+        }
+        if (due == null || due.isEmpty()) return;
+
+        for (int i = 0; i < due.size(); i += batchSize) {
+            List<OutboundEmail> batch = due.subList(i, Math.min(i + batchSize, due.size()));
+            inFlight.addAndGet(batch.size());
+            try {
+                pool.execute(() -> {
+                    try {
+                        sendBatch(batch);
+                    } finally {
+                        inFlight.addAndGet(-batch.size());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the lease runs out and another instance sends them
+                inFlight.addAndGet(-batch.size());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${mail.outbox.cleanup-cron:0 45 3 * * *}")
+    public void cleanup() {
+        try {
+            Integer removed = transactionTemplate.execute(status ->
+                    repository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+            if (removed != null && removed > 0) {
+                logger.info("Removed {} sent emails from the outbox", removed);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Mail outbox cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private List<OutboundEmail> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboundEmail> due = repository.findDueForUpdate(now, PageRequest.of(0, limit));
+        due.forEach(email -> email.claim(now.plus(lease)));
+        return due;
+    }
+
+    private void sendBatch(List<OutboundEmail> batch) {
+        Map<SimpleMailMessage, Long> ids = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = toMessage(batch.get(i));
+            ids.put(messages[i], batch.get(i).getId());
+        }
+        Map<Long, String> failures = new HashMap<>();
+        long started = System.nanoTime();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            // Messages the server refused; the rest of the batch went out
+            e.getFailedMessages().forEach((message, error) -> {
+                Long id = ids.get(message);
+                if (id != null) failures.put(id, error.getMessage());
+            });
+            if (failures.isEmpty()) {
+                ids.values().forEach(id -> failures.put(id, e.getMessage()));
+            }
+        } catch (MailException e) {
+            // Connection or authentication failure: nothing was sent
+            ids.values().forEach(id -> failures.put(id, e.getMessage()));
+        } finally {
+            sendTime.record(Duration.ofNanos(System.nanoTime() - started));
+        }
+        recordOutcome(batch, failures);
+    }
+
+    private void recordOutcome(List<OutboundEmail> batch, Map<Long, String> failures) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (OutboundEmail email : repository.findAllById(batch.stream().map(OutboundEmail::getId).toList())) {
+                    if (email.getStatus() != OutboundEmail.Status.PENDING) continue;
+                    String error = failures.get(email.getId());
+                    if (error == null) {
+                        email.markSent();
+                        sent.increment();
+                        latency.record(Duration.between(email.getCreatedAt(), now));
+                        continue;
+                    }
+                    boolean giveUp = email.getAttempts() + 1 >= maxAttempts;
+                    long backoffSeconds = Math.min(1L << Math.min(email.getAttempts() + 1, 20), MAX_BACKOFF.toSeconds());
+                    email.markFailed(error, now.plusSeconds(backoffSeconds), giveUp);
+                    if (giveUp) {
+                        dead.increment();
+                        logger.error("Email {} to {} failed {} times; giving up: {}", email.getId(), email.getRecipient(),
+                                email.getAttempts(), error);
+                    } else {
+                        retried.increment();
+                        logger.warn("Email {} to {} failed, retrying in {}s: {}", email.getId(), email.getRecipient(),
+                                backoffSeconds, error);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The emails stay PENDING and are sent again once their lease runs out
+            logger.warn("Could not record the outcome of {} emails: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private SimpleMailMessage toMessage(OutboundEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(email.getRecipient());
+        if (fromEmail != null && !fromEmail.isBlank()) {
+            message.setFrom(fromEmail);
+        }
+        if (email.getReplyTo() != null) {
+            message.setReplyTo(email.getReplyTo());
+        }
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+}
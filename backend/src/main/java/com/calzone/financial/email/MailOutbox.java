@@ -0,0 +1,29 @@
+package com.calzone.financial.email;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Queues plain-text emails in {@code mail_outbox}. Called inside a transaction the email is
+ * written with it, so it goes out if and only if that transaction commits; {@link MailDispatcher}
+ * sends it shortly after, off the request thread.
+ */
+@Service
+public class MailOutbox {
+
+    private final OutboundEmailRepository repository;
+
+    public MailOutbox(OutboundEmailRepository repository) {
+        this.repository = repository;
+    }
+
+    @Transactional
+    public OutboundEmail enqueue(String to, String subject, String text) {
+        return enqueue(to, null, subject, text);
+    }
+
+    @Transactional
+    public OutboundEmail enqueue(String to, String replyTo, String subject, String text) {
+        return repository.save(new OutboundEmail(to, replyTo == null || replyTo.isBlank() ? null : replyTo, subject, text));
+    }
+}
@@ -0,0 +1,101 @@
+package com.calzone.financial.email;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An email written by {@link MailOutbox} in the caller's transaction and sent afterwards by
+ * {@link MailDispatcher}.
+ */
+@Entity
+@Table(name = "mail_outbox", indexes = {
+        @Index(name = "idx_mail_outbox_status_due", columnList = "status, next_attempt_at, id"),
+        @Index(name = "idx_mail_outbox_processed_at", columnList = "processed_at")
+})
+public class OutboundEmail {
+
+    public enum Status { PENDING, SENT, DEAD }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "reply_to")
+    private String replyTo;
+
+    @Column(name = "subject", nullable = false, length = 500)
+    private String subject;
+
+    @Column(name = "body", columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    @Column(name = "status", length = 10, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public OutboundEmail() {}
+
+    public OutboundEmail(String recipient, String replyTo, String subject, String body) {
+        this.recipient = recipient;
+        this.replyTo = replyTo;
+        this.subject = subject;
+        this.body = body;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public Long getId() { return id; }
+    public String getRecipient() { return recipient; }
+    public String getReplyTo() { return replyTo; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+    public Status getStatus() { return status; }
+    public int getAttempts() { return attempts; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getProcessedAt() { return processedAt; }
+
+    // Not due again until the lease runs out, unless the dispatcher records an outcome first
+    void claim(LocalDateTime leaseUntil) {
+        nextAttemptAt = leaseUntil;
+    }
+
+    // The body may hold a one-time code, so it is not kept once the email is done with
+    void markSent() {
+        body = "";
+        status = Status.SENT;
+        processedAt = LocalDateTime.now();
+        lastError = null;
+    }
+
+    void markFailed(String error, LocalDateTime retryAt, boolean dead) {
+        attempts++;
+        lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (dead) {
+            body = "";
+            status = Status.DEAD;
+            processedAt = LocalDateTime.now();
+        } else {
+            nextAttemptAt = retryAt;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.calzone.financial.email;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    // SKIP LOCKED: emails another instance is claiming right now are left to it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM OutboundEmail m WHERE m.status = com.calzone.financial.email.OutboundEmail.Status.PENDING "
+            + "AND m.nextAttemptAt <= :now ORDER BY m.id")
+    List<OutboundEmail> findDueForUpdate(@Param("now") LocalDateTime now, Pageable page);
+
+    long countByStatus(OutboundEmail.Status status);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail m WHERE m.status = com.calzone.financial.email.OutboundEmail.Status.SENT AND m.processedAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
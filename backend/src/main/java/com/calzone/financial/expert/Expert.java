@@ -1,5 +1,6 @@
 package com.calzone.financial.expert;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -32,9 +33,10 @@ public class Expert {
     
     private String price;
     
-    @Lob
-    @Column(length = 1000000) // Ensure it's large enough
-    private byte[] image;
+    // SHA-256 of the image in ContentStore; served by GET /api/experts/{id}/image
+    @JsonIgnore
+    @Column(name = "image_sha256", length = 64)
+    private String imageHash;
     
     private String imageContentType;
     
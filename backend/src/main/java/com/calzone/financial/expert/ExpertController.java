@@ -1,5 +1,6 @@
 package com.calzone.financial.expert;
 
+import com.calzone.financial.storage.ContentStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -41,12 +42,14 @@ public class ExpertController {
     public ResponseEntity<?> getExpertImage(@PathVariable Long id) {
         return expertService.getExpertById(id)
                 .map(expert -> {
-                    if (expert.getImage() == null) {
+                    if (expert.getImageHash() == null) {
                         return ResponseEntity.notFound().build();
                     }
+                    // Streamed from the content store; the hash makes a strong ETag for browser caching
                     return ResponseEntity.ok()
                             .header(HttpHeaders.CONTENT_TYPE, expert.getImageContentType())
-                            .body(expert.getImage());
+                            .eTag(ContentStore.etag(expert.getImageHash()))
+                            .body(expertService.openImage(expert));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -1,5 +1,7 @@
 package com.calzone.financial.expert;
 
+import com.calzone.financial.storage.ContentStore;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,9 +14,11 @@ import java.util.Optional;
 public class ExpertService {
 
     private final ExpertRepository expertRepository;
+    private final ContentStore contentStore;
 
-    public ExpertService(ExpertRepository expertRepository) {
+    public ExpertService(ExpertRepository expertRepository, ContentStore contentStore) {
         this.expertRepository = expertRepository;
+        this.contentStore = contentStore;
     }
 
     public List<Expert> getAllExperts() {
@@ -25,10 +29,10 @@ public class ExpertService {
         return expertRepository.findById(id);
     }
 
-    @Transactional
+    @Transactional(rollbackFor = IOException.class)
     public Expert createExpert(Expert expert, MultipartFile file) throws IOException {
         if (file != null && !file.isEmpty()) {
-            expert.setImage(file.getBytes());
+            expert.setImageHash(contentStore.put(file).sha256());
             expert.setImageContentType(file.getContentType());
         }
         return expertRepository.save(expert);
@@ -50,8 +54,10 @@ public class ExpertService {
             
             if (file != null && !file.isEmpty()) {
                 try {
-                    expert.setImage(file.getBytes());
+                    String previousHash = expert.getImageHash();
+                    expert.setImageHash(contentStore.put(file).sha256());
                     expert.setImageContentType(file.getContentType());
+                    contentStore.release(previousHash);
                 } catch (IOException e) {
                     throw new RuntimeException("Failed to process image file", e);
                 }
@@ -63,6 +69,13 @@ public class ExpertService {
 
     @Transactional
     public void deleteExpert(Long id) {
-        expertRepository.deleteById(id);
+        expertRepository.findById(id).ifPresent(expert -> {
+            expertRepository.delete(expert);
+            contentStore.release(expert.getImageHash());
+        });
+    }
+
+    public Resource openImage(Expert expert) {
+        return contentStore.open(expert.getImageHash());
     }
 }
@@ -1,8 +1,10 @@
 package com.calzone.financial.lead;
 
+import com.calzone.financial.admin.DashboardEntityListener;
 import com.calzone.financial.user.User;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -18,6 +20,7 @@ import java.time.Instant;
 
 @Entity(name = "com_calzone.financial_lead_Lead")
 @Table(name = "leads", uniqueConstraints = @UniqueConstraint(name = "uk_leads_name_owner", columnNames = {"name", "owner_id"}))
+@EntityListeners(DashboardEntityListener.class)
 public class Lead {
 
     @Id
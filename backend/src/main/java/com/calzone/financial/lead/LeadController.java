@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -22,15 +23,31 @@ import java.util.List;
 @RequestMapping("/api/leads")
 public class LeadController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final LeadService leadService;
 
     public LeadController(LeadService leadService) {
         this.leadService = leadService;
     }
 
+    /**
+     * Without {@code limit} the whole (filtered, sorted) list is returned, as before. With it,
+     * one page is returned and the cursor for the next page is sent in {@code X-Next-Cursor}.
+     */
     @GetMapping
-    public ResponseEntity<List<LeadResponse>> findAll(@AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(leadService.findAll(user));
+    public ResponseEntity<List<LeadResponse>> findAll(@AuthenticationPrincipal User user,
+                                                      @RequestParam(required = false) String status,
+                                                      @RequestParam(required = false) String sort,
+                                                      @RequestParam(required = false) String direction,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit) {
+        LeadQueryRepository.Page page = leadService.search(status, sort, direction, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next().encode());
+        }
+        return response.body(page.items());
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,201 @@
+package com.calzone.financial.lead;
+
+import com.calzone.financial.lead.dto.LeadResponse;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Set-based query behind the combined leads view: manual leads unioned with "signup" leads,
+ * i.e. users that have no order (by id or email) and no lead with their email.
+ *
+ * <p>Pagination is keyset based on (sort key, source, id). Each branch of the union applies the
+ * filter, the keyset predicate and the limit itself, so each can stop early; the outer query only
+ * merges two short, already ordered lists. Sort keys are wrapped in COALESCE, so rows with a null
+ * timestamp or name sort first ascending instead of falling out of the keyset comparison.
+ */
+@Repository
+public class LeadQueryRepository {
+
+    private static final String LEAD = "LEAD";
+    private static final String USER = "USER";
+    private static final String SIGNUP_STATUS = "New";
+
+    private static final String NO_TIME = "CAST('1970-01-01 00:00:00' AS DATETIME)";
+
+    public enum Sort {
+        CREATED_AT("COALESCE(l.created_at, " + NO_TIME + ")", "COALESCE(u.created_at, " + NO_TIME + ")"),
+        UPDATED_AT("COALESCE(l.updated_at, " + NO_TIME + ")", "COALESCE(u.updated_at, " + NO_TIME + ")"),
+        NAME("COALESCE(l.name, '')", "COALESCE(u.full_name, '')");
+
+        private final String leadColumn;
+        private final String userColumn;
+
+        Sort(String leadColumn, String userColumn) {
+            this.leadColumn = leadColumn;
+            this.userColumn = userColumn;
+        }
+
+        public static Sort parse(String value) {
+            if (value == null || value.isBlank()) return CREATED_AT;
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "createdat", "created_at" -> CREATED_AT;
+                case "updatedat", "updated_at" -> UPDATED_AT;
+                case "name" -> NAME;
+                default -> throw new IllegalArgumentException("Unsupported sort: " + value);
+            };
+        }
+
+        boolean isTime() {
+            return this != NAME;
+        }
+    }
+
+    /** Position after the last row of a page; opaque to clients. */
+    public record Cursor(Sort sort, String key, String source, long id) {
+
+        public String encode() {
+            // The key goes last so a name containing the separator still round-trips
+            String raw = sort.name() + "\n" + source + "\n" + id + "\n" + key;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String value, Sort expectedSort) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\n", 4);
+                Sort sort = Sort.valueOf(parts[0]);
+                if (parts.length != 4 || sort != expectedSort || !(LEAD.equals(parts[1]) || USER.equals(parts[1]))) {
+                    throw new IllegalArgumentException("Cursor does not match the requested sort");
+                }
+                if (sort.isTime()) {
+                    Instant.parse(parts[3]);
+                }
+                return new Cursor(sort, parts[3], parts[1], Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
+    /**
+     * @param status    exact status to match (case-insensitive), or null for all
+     * @param after     cursor from the previous page, or null for the first page
+     * @param limit     page size, or null for the whole list
+     */
+    public record Query(String status, Sort sort, boolean ascending, Cursor after, Integer limit) {}
+
+    public record Page(List<LeadResponse> items, Cursor next) {}
+
+    private record Row(LeadResponse lead, String source, String key) {}
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public LeadQueryRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Page find(Query query) {
+        Sort sort = query.sort() != null ? query.sort() : Sort.CREATED_AT;
+        String direction = query.ascending() ? "ASC" : "DESC";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        // One extra row tells us whether there is a next page
+        String limit = "";
+        if (query.limit() != null) {
+            params.addValue("limit", query.limit() + 1);
+            limit = " LIMIT :limit";
+        }
+        if (query.status() != null) {
+            params.addValue("status", query.status());
+        }
+        if (query.after() != null) {
+            params.addValue("cursorKey", sort.isTime()
+                    ? Timestamp.from(Instant.parse(query.after().key())) : query.after().key());
+            params.addValue("cursorSource", query.after().source());
+            params.addValue("cursorId", query.after().id());
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM (");
+        sql.append("(SELECT l.id, '").append(LEAD).append("' AS source, l.name, l.email, l.phone, l.service, l.status, ")
+                .append("COALESCE(ou.full_name, 'Unknown') AS owner_name, l.created_at, l.updated_at, ")
+                .append(sort.leadColumn).append(" AS sort_key ")
+                .append("FROM leads l LEFT JOIN users ou ON ou.id = l.owner_id WHERE 1 = 1");
+        if (query.status() != null) {
+            sql.append(" AND l.status = :status");
+        }
+        appendKeyset(sql, query, sort.leadColumn, LEAD, "l.id");
+        sql.append(" ORDER BY ").append(sort.leadColumn).append(' ').append(direction)
+                .append(", l.id ").append(direction).append(limit).append(')');
+
+        // Signup leads always have status "New"
+        if (query.status() == null || SIGNUP_STATUS.equalsIgnoreCase(query.status())) {
+            sql.append(" UNION ALL ");
+            sql.append("(SELECT u.id, '").append(USER).append("' AS source, u.full_name AS name, u.email, u.phone, ")
+                    .append("'Signup' AS service, '").append(SIGNUP_STATUS).append("' AS status, 'System' AS owner_name, ")
+                    .append("u.created_at, u.updated_at, ").append(sort.userColumn).append(" AS sort_key ")
+                    .append("FROM users u ")
+                    .append("WHERE NOT EXISTS (SELECT 1 FROM orders o WHERE o.user_id = u.id) ")
+                    .append("AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.customer_email = u.email) ")
+                    // Relies on the case-insensitive column collation, as the old equalsIgnoreCase did
+                    .append("AND NOT EXISTS (SELECT 1 FROM leads l2 WHERE l2.email = u.email)");
+            appendKeyset(sql, query, sort.userColumn, USER, "u.id");
+            sql.append(" ORDER BY ").append(sort.userColumn).append(' ').append(direction)
+                    .append(", u.id ").append(direction).append(limit).append(')');
+        }
+        sql.append(") c ORDER BY c.sort_key ").append(direction)
+                .append(", c.source ").append(direction)
+                .append(", c.id ").append(direction).append(limit);
+
+        List<Row> rows = jdbc.query(sql.toString(), params, (rs, rowNum) -> mapRow(rs, sort));
+        Cursor next = null;
+        if (query.limit() != null && rows.size() > query.limit()) {
+            rows = rows.subList(0, query.limit());
+            Row last = rows.get(rows.size() - 1);
+            next = new Cursor(sort, last.key(), last.source(), last.lead().id());
+        }
+        return new Page(rows.stream().map(Row::lead).toList(), next);
+    }
+
+    // (key, source, id) strictly after the cursor in the requested direction. The source is a
+    // literal per branch, so MySQL folds that part.
+    private static void appendKeyset(StringBuilder sql, Query query, String keyColumn, String source, String idColumn) {
+        if (query.after() == null) return;
+        String op = query.ascending() ? ">" : "<";
+        sql.append(" AND (").append(keyColumn).append(' ').append(op).append(" :cursorKey OR (")
+                .append(keyColumn).append(" = :cursorKey AND ('").append(source).append("' ").append(op)
+                .append(" :cursorSource OR ('").append(source).append("' = :cursorSource AND ")
+                .append(idColumn).append(' ').append(op).append(" :cursorId))))");
+    }
+
+    private static Row mapRow(ResultSet rs, Sort sort) throws SQLException {
+        Instant createdAt = toInstant(rs.getTimestamp("created_at"));
+        Instant updatedAt = toInstant(rs.getTimestamp("updated_at"));
+        LeadResponse lead = new LeadResponse(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getString("service"),
+                rs.getString("status"),
+                rs.getString("owner_name"),
+                createdAt != null ? createdAt : Instant.now(),
+                updatedAt != null ? updatedAt : Instant.now());
+        // The coalesced sort_key, never null, so the cursor always round-trips
+        String key = sort.isTime()
+                ? rs.getTimestamp("sort_key").toInstant().toString()
+                : rs.getString("sort_key");
+        return new Row(lead, rs.getString("source"), key);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
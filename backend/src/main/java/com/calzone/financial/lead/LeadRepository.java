@@ -2,6 +2,7 @@ package com.calzone.financial.lead;
 
 import com.calzone.financial.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +12,12 @@ public interface LeadRepository extends JpaRepository<Lead, Long> {
     Optional<Lead> findByIdAndOwner(Long id, User owner);
     Optional<Lead> findByEmail(String email);
     List<Lead> findAllByOrderByCreatedAtDesc();
+
+    // Users shown as "Signup" leads: no order (by id or email) and no lead with their email.
+    // Email comparisons rely on the case-insensitive column collation.
+    @Query(value = "SELECT COUNT(*) FROM users u " +
+            "WHERE NOT EXISTS (SELECT 1 FROM orders o WHERE o.user_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.customer_email = u.email) " +
+            "AND NOT EXISTS (SELECT 1 FROM leads l WHERE l.email = u.email)", nativeQuery = true)
+    long countSignupLeads();
 }
@@ -15,71 +15,49 @@ import com.calzone.financial.user.User;
 @Service
 public class LeadService {
 
+    // Page size bounds for the keyset-paginated listing
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final LeadRepository leadRepository;
-    private final com.calzone.financial.user.UserRepository userRepository;
-    private final com.calzone.financial.order.OrderRepository orderRepository;
+    private final LeadQueryRepository leadQueryRepository;
 
-    public LeadService(LeadRepository leadRepository, com.calzone.financial.user.UserRepository userRepository, com.calzone.financial.order.OrderRepository orderRepository) {
+    public LeadService(LeadRepository leadRepository, LeadQueryRepository leadQueryRepository) {
         this.leadRepository = leadRepository;
-        this.userRepository = userRepository;
-        this.orderRepository = orderRepository;
+        this.leadQueryRepository = leadQueryRepository;
     }
 
+    /**
+     * Manual leads plus users without orders or a lead entry ("Signup" leads), newest first.
+     * Admins and employees see the same list.
+     */
     @Transactional(readOnly = true)
     public List<LeadResponse> findAll(User owner) {
-        boolean isAdmin = owner.getRoles().stream()
-                .anyMatch(role -> role.getName().equalsIgnoreCase("ADMIN"));
-
-        List<LeadResponse> responses = new java.util.ArrayList<>();
-
-        // 1. Get Manual Leads
-        List<Lead> leads;
-        if (isAdmin) {
-            leads = leadRepository.findAllByOrderByCreatedAtDesc();
-        } else {
-            // For employees: show all leads (not just assigned to them)
-            // This allows employees to view and work with all leads in the system
-            leads = leadRepository.findAllByOrderByCreatedAtDesc();
+        return leadQueryRepository.find(new LeadQueryRepository.Query(
+                null, LeadQueryRepository.Sort.CREATED_AT, false, null, null)).items();
+    }
+
+    /**
+     * Same view as {@link #findAll}, filtered by status, sorted server-side and paginated by
+     * keyset. Pass the returned cursor back to get the next page.
+     */
+    @Transactional(readOnly = true)
+    public LeadQueryRepository.Page search(String status, String sort, String direction, String cursor, Integer limit) {
+        try {
+            LeadQueryRepository.Sort sortField = LeadQueryRepository.Sort.parse(sort);
+            boolean ascending = "asc".equalsIgnoreCase(direction);
+            if (direction != null && !ascending && !"desc".equalsIgnoreCase(direction)) {
+                throw new IllegalArgumentException("Unsupported direction: " + direction);
+            }
+            if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            LeadQueryRepository.Cursor after = cursor == null || cursor.isBlank()
+                    ? null : LeadQueryRepository.Cursor.decode(cursor, sortField);
+            String statusFilter = status == null || status.isBlank() ? null : status.trim();
+            return leadQueryRepository.find(new LeadQueryRepository.Query(statusFilter, sortField, ascending, after, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
-        responses.addAll(leads.stream().map(this::toResponse).toList());
-
-        // 2. Get Users without Orders (For both Admin and Employees)
-        List<User> allUsers = userRepository.findAll();
-        // Get user IDs who have orders
-        java.util.Set<Long> userIdsWithOrders = orderRepository.findAll().stream()
-                .filter(o -> o.getUserId() != null)
-                .map(com.calzone.financial.order.Order::getUserId)
-                .collect(java.util.stream.Collectors.toSet());
-        
-        // Also check by email for orders without userId
-        java.util.Set<String> emailsWithOrders = orderRepository.findAll().stream()
-                .filter(o -> o.getCustomerEmail() != null)
-                .map(com.calzone.financial.order.Order::getCustomerEmail)
-                .collect(java.util.stream.Collectors.toSet());
-
-        List<LeadResponse> userLeads = allUsers.stream()
-                .filter(u -> !userIdsWithOrders.contains(u.getId()))
-                .filter(u -> !emailsWithOrders.contains(u.getEmail()))
-                // Filter out users who already have a Lead entry to avoid duplicates (by email)
-                .filter(u -> leads.stream().noneMatch(l -> l.getEmail() != null && l.getEmail().equalsIgnoreCase(u.getEmail())))
-                .map(u -> new LeadResponse(
-                        u.getId(), // Use User ID (might overlap with Lead ID, but okay for display)
-                        u.getFullName(),
-                        u.getEmail(),
-                        u.getPhone(),
-                        "Signup", // Service
-                        "New", // Status
-                        "System", // Owner
-                        u.getCreatedAt() != null ? u.getCreatedAt() : java.time.Instant.now(),
-                        u.getUpdatedAt() != null ? u.getUpdatedAt() : java.time.Instant.now()
-                ))
-                .toList();
-        responses.addAll(userLeads);
-
-        // Sort by created at desc
-        responses.sort((r1, r2) -> r2.createdAt().compareTo(r1.createdAt()));
-
-        return responses;
     }
 
     @Transactional(readOnly = true)
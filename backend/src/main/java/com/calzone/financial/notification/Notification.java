@@ -3,14 +3,28 @@ package com.calzone.financial.notification;
 import jakarta.persistence.*;
 import java.time.Instant;
 
+/**
+ * One notification in one user's inbox. Broadcasts to a role are stored as one row per
+ * recipient, so reading an inbox and counting its unread rows never scans other users' rows.
+ */
 @Entity
-@Table(name = "notifications")
+@Table(
+    name = "notifications",
+    indexes = {
+        @Index(name = "idx_notifications_recipient", columnList = "recipient_id, id"),
+        @Index(name = "idx_notifications_recipient_unread", columnList = "recipient_id, is_read, id")
+    }
+)
 public class Notification {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Null only on rows written before inboxes existed, until NotificationInboxMigration assigns them
+    @Column(name = "recipient_id")
+    private Long recipientId;
+
     @Column(nullable = false)
     private String message;
 
@@ -29,6 +43,14 @@ public class Notification {
         this.id = id;
     }
 
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public void setRecipientId(Long recipientId) {
+        this.recipientId = recipientId;
+    }
+
     public String getMessage() {
         return message;
     }
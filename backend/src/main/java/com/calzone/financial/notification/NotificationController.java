@@ -1,19 +1,29 @@
 package com.calzone.financial.notification;
 
+import com.calzone.financial.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * The signed-in user's notification inbox, newest first. One page is returned per call and the
+ * cursor for the next page is sent in {@code X-Next-Cursor}.
+ */
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public record MarkReadRequest(List<Long> ids) {}
+
     private final NotificationService notificationService;
 
     @Autowired
@@ -22,10 +32,54 @@ public class NotificationController {
     }
 
     @GetMapping
-    public ResponseEntity<Map<String, List<Notification>>> getAllNotifications() {
-        List<Notification> notifications = notificationService.getAllNotifications();
-        Map<String, List<Notification>> response = new HashMap<>();
-        response.put("notifications", notifications);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> getNotifications(@AuthenticationPrincipal User user,
+                                                                @RequestParam(defaultValue = "false") boolean unread,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit) {
+        Long userId = requireUserId(user);
+        NotificationInboxRepository.Page page = notificationService.getInbox(userId, unread, cursor, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("notifications", page.items());
+        response.put("unread", notificationService.getUnreadCount(userId));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.next() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.next().encode());
+        }
+        return builder.body(response);
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> unreadCount(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(Map.of("unread", notificationService.getUnreadCount(requireUserId(user))));
+    }
+
+    @PostMapping("/read")
+    public ResponseEntity<Map<String, Long>> markRead(@AuthenticationPrincipal User user, @RequestBody MarkReadRequest request) {
+        Long userId = requireUserId(user);
+        int marked = notificationService.markRead(userId, request.ids());
+        return ResponseEntity.ok(Map.of("marked", (long) marked, "unread", notificationService.getUnreadCount(userId)));
+    }
+
+    @PostMapping("/read-all")
+    public ResponseEntity<Map<String, Long>> markAllRead(@AuthenticationPrincipal User user) {
+        Long userId = requireUserId(user);
+        int marked = notificationService.markAllRead(userId);
+        return ResponseEntity.ok(Map.of("marked", (long) marked, "unread", notificationService.getUnreadCount(userId)));
+    }
+
+    @PostMapping("/unread-count/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildUnreadCounts(@AuthenticationPrincipal User user) {
+        requireUserId(user);
+        if (user.getAuthorities().stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Requires ADMIN role");
+        }
+        return ResponseEntity.ok(Map.of("users", notificationService.rebuildUnreadCounts()));
+    }
+
+    private static Long requireUserId(User user) {
+        if (user == null || user.getId() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        return user.getId();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.calzone.financial.notification;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inbox reads and bulk writes on {@code notifications}. Pages are keyset based on the id, newest
+ * first, walking {@code (recipient_id, id)} or {@code (recipient_id, is_read, id)} backwards, so a
+ * page deep into a long history costs the same as the first one.
+ */
+@Repository
+public class NotificationInboxRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    /** Position after the last row of a page; opaque to clients. */
+    public record Cursor(long id) {
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String value) {
+            try {
+                return new Cursor(Long.parseLong(new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
+    public record Page(List<Notification> items, Cursor next) {}
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationInboxRepository(NamedParameterJdbcTemplate jdbc, JdbcTemplate jdbcTemplate) {
+        this.jdbc = jdbc;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** @param after cursor from the previous page, or null for the first page */
+    public Page find(Long recipientId, boolean unreadOnly, Cursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("recipientId", recipientId)
+                // One extra row tells us whether there is a next page
+                .addValue("limit", limit + 1);
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, recipient_id, message, created_at, is_read FROM notifications WHERE recipient_id = :recipientId");
+        if (unreadOnly) {
+            sql.append(" AND is_read = false");
+        }
+        if (after != null) {
+            params.addValue("cursorId", after.id());
+            sql.append(" AND id < :cursorId");
+        }
+        sql.append(" ORDER BY id DESC LIMIT :limit");
+        List<Notification> rows = jdbc.query(sql.toString(), params, NotificationInboxRepository::mapRow);
+        if (rows.size() <= limit) {
+            return new Page(rows, null);
+        }
+        List<Notification> items = rows.subList(0, limit);
+        return new Page(items, new Cursor(items.get(limit - 1).getId()));
+    }
+
+    /** Marks the recipient's unread notifications among {@code ids} as read; other users' ids are ignored. */
+    public int markRead(Long recipientId, Collection<Long> ids) {
+        return jdbc.update("UPDATE notifications SET is_read = true WHERE recipient_id = :recipientId "
+                + "AND is_read = false AND id IN (:ids)", new MapSqlParameterSource()
+                .addValue("recipientId", recipientId)
+                .addValue("ids", ids));
+    }
+
+    public int markAllRead(Long recipientId) {
+        return jdbc.update("UPDATE notifications SET is_read = true WHERE recipient_id = :recipientId AND is_read = false",
+                new MapSqlParameterSource("recipientId", recipientId));
+    }
+
+    /** Inserts one unread notification per recipient and adds one to each recipient's unread counter. */
+    public void insertForRecipients(List<Long> recipientIds, String message) {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int from = 0; from < recipientIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = recipientIds.subList(from, Math.min(from + BATCH_SIZE, recipientIds.size()));
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (Long recipientId : batch) {
+                rows.add(new Object[]{recipientId, message, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO notifications (recipient_id, message, created_at, is_read) "
+                    + "VALUES (?, ?, ?, false)", rows);
+            // Counters are upserted in id order, the order concurrent fan-outs lock them in
+            List<Object[]> counters = batch.stream().sorted().map(id -> new Object[]{id}).toList();
+            jdbcTemplate.batchUpdate("INSERT INTO notification_unread_counts (user_id, unread) VALUES (?, 1) "
+                    + "ON DUPLICATE KEY UPDATE unread = unread + 1", counters);
+        }
+    }
+
+    /** Ids of the users holding the role, in id order. */
+    public List<Long> findUserIdsByRole(String roleName) {
+        return jdbcTemplate.queryForList("SELECT u.id FROM users u JOIN user_roles ur ON ur.user_id = u.id "
+                + "JOIN roles r ON r.id = ur.role_id WHERE r.name = ? ORDER BY u.id", Long.class, roleName);
+    }
+
+    private static Notification mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Notification notification = new Notification();
+        notification.setId(rs.getLong("id"));
+        notification.setRecipientId(rs.getLong("recipient_id"));
+        notification.setMessage(rs.getString("message"));
+        notification.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+        notification.setRead(rs.getBoolean("is_read"));
+        return notification;
+    }
+}
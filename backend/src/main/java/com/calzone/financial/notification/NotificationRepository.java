@@ -3,9 +3,6 @@ package com.calzone.financial.notification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findAllByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+}
@@ -1,27 +1,114 @@
 package com.calzone.financial.notification;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 
+/**
+ * Per-user notification inboxes. Every write adjusts the recipient's
+ * {@link NotificationUnreadCount} in the same transaction, so the unread badge never has to
+ * count rows.
+ */
 @Service
 public class NotificationService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_MARK_READ = 1000;
+
     private final NotificationRepository notificationRepository;
+    private final NotificationInboxRepository inboxRepository;
+    private final NotificationUnreadCountRepository unreadCountRepository;
 
     @Autowired
-    public NotificationService(NotificationRepository notificationRepository) {
+    public NotificationService(NotificationRepository notificationRepository, NotificationInboxRepository inboxRepository,
+                               NotificationUnreadCountRepository unreadCountRepository) {
         this.notificationRepository = notificationRepository;
+        this.inboxRepository = inboxRepository;
+        this.unreadCountRepository = unreadCountRepository;
     }
 
-    public Notification createNotification(String message) {
+    @Transactional
+    public Notification createNotification(Long recipientId, String message) {
         Notification notification = new Notification();
+        notification.setRecipientId(recipientId);
         notification.setMessage(message);
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        unreadCountRepository.add(recipientId, 1);
+        return saved;
+    }
+
+    /**
+     * Sends the message to every user with the role, one row each, written with JDBC batches.
+     *
+     * @return the number of recipients
+     */
+    @Transactional
+    public int notifyRole(String roleName, String message) {
+        List<Long> recipients = inboxRepository.findUserIdsByRole(roleName);
+        inboxRepository.insertForRecipients(recipients, message);
+        return recipients.size();
+    }
+
+    /** @param cursor cursor from the previous page's {@code X-Next-Cursor}, or null for the first page */
+    @Transactional(readOnly = true)
+    public NotificationInboxRepository.Page getInbox(Long recipientId, boolean unreadOnly, String cursor, Integer limit) {
+        try {
+            if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            NotificationInboxRepository.Cursor after = cursor == null || cursor.isBlank()
+                    ? null : NotificationInboxRepository.Cursor.decode(cursor);
+            return inboxRepository.find(recipientId, unreadOnly, after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    public long getUnreadCount(Long recipientId) {
+        return unreadCountRepository.findById(recipientId).map(NotificationUnreadCount::getUnread).orElse(0L);
+    }
+
+    /**
+     * Marks up to {@link #MAX_MARK_READ} of the recipient's notifications read in one statement.
+     *
+     * @return how many were unread before
+     */
+    @Transactional
+    public int markRead(Long recipientId, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        if (ids.size() > MAX_MARK_READ) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_MARK_READ + " notifications can be marked at once");
+        }
+        int marked = inboxRepository.markRead(recipientId, new LinkedHashSet<>(ids));
+        if (marked > 0) {
+            unreadCountRepository.add(recipientId, -marked);
+        }
+        return marked;
+    }
+
+    @Transactional
+    public int markAllRead(Long recipientId) {
+        int marked = inboxRepository.markAllRead(recipientId);
+        if (marked > 0) {
+            unreadCountRepository.add(recipientId, -marked);
+        }
+        return marked;
     }
 
-    public List<Notification> getAllNotifications() {
-        return notificationRepository.findAllByOrderByCreatedAtDesc();
+    /** Recomputes every unread counter from the notifications; for fixing drift. */
+    @Transactional
+    public int rebuildUnreadCounts() {
+        unreadCountRepository.deleteAllCounts();
+        return unreadCountRepository.insertCountsFromNotifications();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.calzone.financial.notification;
+
+import jakarta.persistence.*;
+
+/**
+ * Unread notifications per user, kept in step with {@code notifications} by
+ * {@link NotificationService} in the same transaction as every insert and mark-as-read, so the
+ * notification bell is a primary key lookup however long the inbox gets.
+ */
+@Entity
+@Table(name = "notification_unread_counts")
+public class NotificationUnreadCount {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long unread;
+
+    protected NotificationUnreadCount() {}
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getUnread() {
+        return unread;
+    }
+}
@@ -0,0 +1,27 @@
+package com.calzone.financial.notification;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationUnreadCountRepository extends JpaRepository<NotificationUnreadCount, Long> {
+
+    // Insert-or-add in one statement so the first notifications of a user cannot race
+    @Modifying
+    @Query(value = "INSERT INTO notification_unread_counts (user_id, unread) VALUES (:userId, GREATEST(:amount, 0)) "
+            + "ON DUPLICATE KEY UPDATE unread = GREATEST(unread + :amount, 0)", nativeQuery = true)
+    int add(@Param("userId") Long userId, @Param("amount") long amount);
+
+    @Modifying
+    @Query(value = "DELETE FROM notification_unread_counts", nativeQuery = true)
+    int deleteAllCounts();
+
+    @Modifying
+    @Query(value = "INSERT INTO notification_unread_counts (user_id, unread) "
+            + "SELECT recipient_id, COUNT(*) FROM notifications WHERE recipient_id IS NOT NULL AND is_read = false "
+            + "GROUP BY recipient_id", nativeQuery = true)
+    int insertCountsFromNotifications();
+}
@@ -1,5 +1,6 @@
 package com.calzone.financial.order;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -13,9 +14,10 @@ public class Document {
     private Long orderId;
     private String fileName;
 
-    @Lob
-    @Column(name = "content", columnDefinition = "LONGBLOB")
-    private byte[] content;
+    // SHA-256 of the content in ContentStore
+    @JsonIgnore
+    @Column(name = "content_sha256", length = 64)
+    private String contentHash;
 
     private String contentType;
     private Long size;
@@ -33,8 +35,8 @@ public class Document {
     public String getFileName() { return fileName; }
     public void setFileName(String fileName) { this.fileName = fileName; }
 
-    public byte[] getContent() { return content; }
-    public void setContent(byte[] content) { this.content = content; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
 
     public String getContentType() { return contentType; }
     public void setContentType(String contentType) { this.contentType = contentType; }
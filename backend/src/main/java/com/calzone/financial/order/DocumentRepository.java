@@ -1,11 +1,22 @@
 package com.calzone.financial.order;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByOrderId(Long orderId);
     long countByVerifiedFalse();
+
+    // Rows of [order id, document count]; orders without documents are absent
+    @Query("SELECT d.orderId, COUNT(d) FROM com_calzone_financial_order_Document d WHERE d.orderId IN :orderIds GROUP BY d.orderId")
+    List<Object[]> countByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // verified is nullable on legacy rows; anything not TRUE counts as unverified
+    @Query("SELECT COUNT(d) FROM com_calzone_financial_order_Document d WHERE d.orderId = :orderId AND (d.verified IS NULL OR d.verified = false)")
+    long countUnverifiedByOrderId(@Param("orderId") Long orderId);
 }
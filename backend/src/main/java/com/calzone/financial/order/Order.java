@@ -1,10 +1,12 @@
 package com.calzone.financial.order;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity(name = "com_calzone_financial_order_Order")
 @Table(name = "orders")
+@EntityListeners(OrderEntityListener.class)
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,6 +20,11 @@ public class Order {
     private double totalAmount = 0.0;
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Values as of the last load/flush, maintained by OrderEntityListener
+    @Transient
+    @JsonIgnore
+    private OrderChangedEvent.Figures persistedFigures;
+
     public Order() {}
 
     public Long getId() { return id; }
@@ -38,4 +45,7 @@ public class Order {
     public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    OrderChangedEvent.Figures getPersistedFigures() { return persistedFigures; }
+    void setPersistedFigures(OrderChangedEvent.Figures persistedFigures) { this.persistedFigures = persistedFigures; }
 }
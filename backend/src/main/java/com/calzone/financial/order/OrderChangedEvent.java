@@ -0,0 +1,27 @@
+package com.calzone.financial.order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link OrderEntityListener} whenever an order row is inserted, updated or
+ * removed. {@code before} is null for a new order and {@code after} is null for a deleted one,
+ * so listeners can apply the change as a delta instead of rescanning {@code orders}.
+ */
+public record OrderChangedEvent(Long orderId, Figures before, Figures after) {
+
+    /** The order fields that aggregates are built from. */
+    public record Figures(String status, double totalAmount, LocalDateTime createdAt, Long userId, String customerEmail) {
+        static Figures of(Order order) {
+            return new Figures(order.getStatus(), order.getTotalAmount(), order.getCreatedAt(),
+                    order.getUserId(), order.getCustomerEmail());
+        }
+    }
+
+    public boolean isCreated() {
+        return before == null;
+    }
+
+    public boolean isDeleted() {
+        return after == null;
+    }
+}
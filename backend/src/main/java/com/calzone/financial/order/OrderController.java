@@ -1,5 +1,7 @@
 package com.calzone.financial.order;
 
+import com.calzone.financial.common.FileDownloads;
+import com.calzone.financial.storage.ContentStore;
 import com.calzone.financial.user.User;
 import com.calzone.financial.user.UserRepository;
 import org.springframework.http.ResponseEntity;
@@ -16,18 +18,28 @@ import java.util.Optional;
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final OrderRepository orderRepository;
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
-    private final com.calzone.financial.wallet.WalletService walletService;
     private final com.calzone.financial.lead.LeadRepository leadRepository;
+    private final ContentStore contentStore;
+    private final OrderQueryService orderQueryService;
+    private final OrderPaymentService orderPaymentService;
+    private final OrderDocumentService orderDocumentService;
 
-    public OrderController(OrderRepository orderRepository, DocumentRepository documentRepository, UserRepository userRepository, com.calzone.financial.wallet.WalletService walletService, com.calzone.financial.lead.LeadRepository leadRepository) {
+    public OrderController(OrderRepository orderRepository, DocumentRepository documentRepository, UserRepository userRepository, com.calzone.financial.lead.LeadRepository leadRepository,
+                           ContentStore contentStore, OrderQueryService orderQueryService, OrderPaymentService orderPaymentService,
+                           OrderDocumentService orderDocumentService) {
         this.orderRepository = orderRepository;
         this.documentRepository = documentRepository;
         this.userRepository = userRepository;
-        this.walletService = walletService;
         this.leadRepository = leadRepository;
+        this.contentStore = contentStore;
+        this.orderQueryService = orderQueryService;
+        this.orderPaymentService = orderPaymentService;
+        this.orderDocumentService = orderDocumentService;
     }
 
     @PostMapping
@@ -79,9 +91,23 @@ public class OrderController {
         return ResponseEntity.ok(saved);
     }
 
+    /**
+     * Newest first, optionally filtered. Without {@code limit} the whole filtered list is returned;
+     * with it, one page is returned and the cursor for the next page is sent in {@code X-Next-Cursor}.
+     */
     @GetMapping
-    public ResponseEntity<List<Order>> list() {
-        return ResponseEntity.ok(orderRepository.findAll());
+    public ResponseEntity<List<OrderSummary>> list(@RequestParam(required = false) String status,
+                                                   @RequestParam(required = false) String service,
+                                                   @RequestParam(required = false) String assignee,
+                                                   @RequestParam(required = false) String customer,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit) {
+        OrderQueryRepository.Page page = orderQueryService.search(status, service, assignee, customer, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next().encode());
+        }
+        return response.body(page.items());
     }
 
     @GetMapping("/my-orders")
@@ -161,25 +187,10 @@ public class OrderController {
     // --- Documents ---
     @PostMapping(path = "/{id}/documents", consumes = { "multipart/form-data" })
     public ResponseEntity<Document> addDocument(@PathVariable Long id,
-            @RequestParam("file") org.springframework.web.multipart.MultipartFile file) throws java.io.IOException {
-        Optional<Order> o = orderRepository.findById(id);
-        if (o.isEmpty())
-            return ResponseEntity.notFound().build();
-        Document d = new Document();
-        d.setOrderId(id);
-        d.setFileName(file.getOriginalFilename());
-        d.setContent(file.getBytes());
-        d.setContentType(file.getContentType());
-        d.setSize(file.getSize());
-        Document saved = documentRepository.save(d);
-        // Mark order status to DOCUMENTS_PENDING
-        Order order = o.get();
-        order.setStatus("DOCUMENTS_PENDING");
-        orderRepository.save(order);
-        // Return metadata only (content not necessary in response) — but saved entity
-        // contains it.
-        saved.setContent(null);
-        return ResponseEntity.ok(saved);
+            @RequestParam("file") org.springframework.web.multipart.MultipartFile file) {
+        return orderDocumentService.addDocument(id, file)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/{id}/documents")
@@ -201,19 +212,21 @@ public class OrderController {
     }
 
     @GetMapping("/{id}/documents/{docId}/download")
-    public ResponseEntity<byte[]> downloadDocument(@PathVariable Long id, @PathVariable Long docId) {
+    public void downloadDocument(@PathVariable Long id, @PathVariable Long docId,
+            jakarta.servlet.http.HttpServletRequest request,
+            jakarta.servlet.http.HttpServletResponse response) throws java.io.IOException {
         Optional<Document> d = documentRepository.findById(docId);
-        if (d.isEmpty() || !d.get().getOrderId().equals(id))
-            return ResponseEntity.notFound().build();
+        if (d.isEmpty() || !d.get().getOrderId().equals(id)) {
+            response.sendError(404);
+            return;
+        }
         Document doc = d.get();
-        byte[] content = doc.getContent();
-        if (content == null)
-            return ResponseEntity.noContent().build();
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=\"" + doc.getFileName() + "\"")
-                .header("Content-Type",
-                        doc.getContentType() == null ? "application/octet-stream" : doc.getContentType())
-                .body(content);
+        if (doc.getContentHash() == null) {
+            response.setStatus(204);
+            return;
+        }
+        FileDownloads.serve(contentStore.path(doc.getContentHash()), doc.getContentType(), doc.getFileName(),
+                ContentStore.etag(doc.getContentHash()), request, response);
     }
 
     @PostMapping("/{id}/documents/{docId}/verify")
@@ -225,8 +238,7 @@ public class OrderController {
         doc.setVerified(true);
         documentRepository.save(doc);
         // If all docs verified mark order VERIFIED
-        List<Document> docs = documentRepository.findByOrderId(id);
-        boolean allVerified = docs.stream().allMatch(docItem -> Boolean.TRUE.equals(docItem.getVerified()));
+        boolean allVerified = documentRepository.countUnverifiedByOrderId(id) == 0;
         if (allVerified) {
             orderRepository.findById(id).ifPresent(order -> {
                 order.setStatus("DOCUMENTS_VERIFIED");
@@ -239,32 +251,11 @@ public class OrderController {
     // --- Payment (mock) ---
     @PostMapping("/{id}/pay")
     public ResponseEntity<Map<String, Object>> pay(@PathVariable Long id, @RequestBody Map<String, Object> body) {
-        Optional<Order> o = orderRepository.findById(id);
-        if (o.isEmpty())
-            return ResponseEntity.notFound().build();
-        Order order = o.get();
-        // mock payment success
-        order.setStatus("PAYMENT_COMPLETED");
-        if (body.containsKey("paymentId"))
-            order.setPaymentId(String.valueOf(body.get("paymentId")));
-        orderRepository.save(order);
-
-        // Commission Logic
-        if (order.getUserId() != null) {
-            userRepository.findById(order.getUserId()).ifPresent(user -> {
-                boolean isAgent = user.getRoles().stream()
-                        .anyMatch(role -> role.getName().equalsIgnoreCase("AGENT"));
-                
-                if (isAgent && order.getTotalAmount() > 0) {
-                    java.math.BigDecimal commission = java.math.BigDecimal.valueOf(order.getTotalAmount())
-                            .multiply(new java.math.BigDecimal("0.10")); // 10% commission
-                    
-                    walletService.credit(user.getId(), commission, "Commission for Order #" + order.getId());
-                }
-            });
-        }
-
-        return ResponseEntity.ok(Map.of("message", "Payment processed", "orderId", order.getId()));
+        String paymentId = body.containsKey("paymentId") ? String.valueOf(body.get("paymentId")) : null;
+        // Commission and other follow-ups run from the outbox after this returns
+        return orderPaymentService.markPaid(id, paymentId)
+                .map(order -> ResponseEntity.ok(Map.<String, Object>of("message", "Payment processed", "orderId", order.getId())))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     // --- Assign to employee (admin) ---
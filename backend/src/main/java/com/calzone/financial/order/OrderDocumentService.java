@@ -0,0 +1,54 @@
+package com.calzone.financial.order;
+
+import com.calzone.financial.storage.ContentStore;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+/**
+ * Attaches uploaded files to orders. The content store reference and the document row are
+ * written in one transaction, so a failure anywhere gives the reference back through
+ * {@link ContentStore}'s rollback cleanup.
+ */
+@Service
+public class OrderDocumentService {
+
+    private final OrderRepository orderRepository;
+    private final DocumentRepository documentRepository;
+    private final ContentStore contentStore;
+
+    public OrderDocumentService(OrderRepository orderRepository, DocumentRepository documentRepository,
+                                ContentStore contentStore) {
+        this.orderRepository = orderRepository;
+        this.documentRepository = documentRepository;
+        this.contentStore = contentStore;
+    }
+
+    @Transactional
+    public Optional<Document> addDocument(Long orderId, MultipartFile file) {
+        return orderRepository.findById(orderId).map(order -> {
+            ContentStore.StoredContent stored;
+            try {
+                stored = contentStore.put(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to store file", e);
+            }
+            // Content goes to the content store; only metadata is stored in order_documents
+            Document d = new Document();
+            d.setOrderId(orderId);
+            d.setFileName(file.getOriginalFilename());
+            d.setContentHash(stored.sha256());
+            d.setContentType(file.getContentType());
+            d.setSize(stored.size());
+            Document saved = documentRepository.save(d);
+            // Mark order status to DOCUMENTS_PENDING
+            order.setStatus("DOCUMENTS_PENDING");
+            orderRepository.save(order);
+            return saved;
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.calzone.financial.order;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Turns every write to {@code orders}, whichever code path makes it, into an
+ * {@link OrderChangedEvent}. The values seen at load (or last flush) are kept on the entity so
+ * an update can be published as a before/after pair.
+ */
+@Component
+public class OrderEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrderEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    public void onLoad(Order order) {
+        order.setPersistedFigures(OrderChangedEvent.Figures.of(order));
+    }
+
+    @PostPersist
+    public void onPersist(Order order) {
+        OrderChangedEvent.Figures after = OrderChangedEvent.Figures.of(order);
+        order.setPersistedFigures(after);
+        eventPublisher.publishEvent(new OrderChangedEvent(order.getId(), null, after));
+    }
+
+    @PostUpdate
+    public void onUpdate(Order order) {
+        OrderChangedEvent.Figures before = order.getPersistedFigures();
+        OrderChangedEvent.Figures after = OrderChangedEvent.Figures.of(order);
+        order.setPersistedFigures(after);
+        if (!Objects.equals(before, after)) {
+            eventPublisher.publishEvent(new OrderChangedEvent(order.getId(), before, after));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Order order) {
+        OrderChangedEvent.Figures before = order.getPersistedFigures() != null
+                ? order.getPersistedFigures() : OrderChangedEvent.Figures.of(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(order.getId(), before, null));
+    }
+}
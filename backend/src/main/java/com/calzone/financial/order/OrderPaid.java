@@ -0,0 +1,7 @@
+package com.calzone.financial.order;
+
+/** Outbox payload written when an order's payment is recorded. */
+public record OrderPaid(Long orderId, Long userId, double totalAmount, String paymentId) {
+
+    public static final String TYPE = "order.paid";
+}
@@ -0,0 +1,39 @@
+package com.calzone.financial.order;
+
+import com.calzone.financial.outbox.OutboxMessage;
+import com.calzone.financial.outbox.OutboxPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Records a payment on an order. Follow-up work (agent commission, notifications) is not done
+ * here: an {@link OrderPaid} message is written to the outbox in the same transaction and
+ * handled after the response has gone out.
+ */
+@Service
+public class OrderPaymentService {
+
+    private final OrderRepository orderRepository;
+    private final OutboxPublisher outboxPublisher;
+
+    public OrderPaymentService(OrderRepository orderRepository, OutboxPublisher outboxPublisher) {
+        this.orderRepository = orderRepository;
+        this.outboxPublisher = outboxPublisher;
+    }
+
+    @Transactional
+    public Optional<Order> markPaid(Long orderId, String paymentId) {
+        return orderRepository.findById(orderId).map(order -> {
+            // mock payment success
+            order.setStatus("PAYMENT_COMPLETED");
+            if (paymentId != null)
+                order.setPaymentId(paymentId);
+            orderRepository.save(order);
+            outboxPublisher.publish(OutboxMessage.ORDER_AGGREGATE, order.getId(), OrderPaid.TYPE,
+                    new OrderPaid(order.getId(), order.getUserId(), order.getTotalAmount(), order.getPaymentId()));
+            return order;
+        });
+    }
+}
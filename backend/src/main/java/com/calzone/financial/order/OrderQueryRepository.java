@@ -0,0 +1,127 @@
+package com.calzone.financial.order;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Filtered order listing, newest first. Pagination is keyset based on (created_at, id), so a page
+ * deep into the list costs the same as the first one; each equality filter has a composite index
+ * ending in (created_at, id) that MySQL can walk backwards and stop after {@code limit} rows.
+ * Legacy rows without created_at sort last (MySQL orders NULL lowest), and are paged by id alone.
+ */
+@Repository
+public class OrderQueryRepository {
+
+    /**
+     * Position after the last row of a page; opaque to clients. A null {@code createdAt} means the
+     * page ended among the rows without a creation time.
+     */
+    public record Cursor(LocalDateTime createdAt, long id) {
+
+        private static final String NO_TIME = "-";
+
+        public String encode() {
+            String raw = (createdAt != null ? createdAt.toString() : NO_TIME) + "\n" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String value) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\n");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Malformed cursor");
+                }
+                LocalDateTime createdAt = NO_TIME.equals(parts[0]) ? null : LocalDateTime.parse(parts[0]);
+                return new Cursor(createdAt, Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
+    /**
+     * Null filters match everything. Emails and service names compare with the column collation,
+     * i.e. case-insensitively, like the derived {@code ...IgnoreCase} finders did.
+     *
+     * @param after cursor from the previous page, or null for the first page
+     * @param limit page size, or null for the whole list
+     */
+    public record Query(String status, String serviceName, String assigneeEmail, String customerEmail,
+                        Cursor after, Integer limit) {}
+
+    public record Page(List<OrderSummary> items, Cursor next) {}
+
+    private static final String COLUMNS =
+            "id, service_name, customer_email, status, user_id, assignee_email, total_amount, created_at";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public OrderQueryRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Page find(Query query) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM orders WHERE 1 = 1");
+        appendFilter(sql, params, "status", query.status());
+        appendFilter(sql, params, "service_name", query.serviceName());
+        appendFilter(sql, params, "assignee_email", query.assigneeEmail());
+        appendFilter(sql, params, "customer_email", query.customerEmail());
+        if (query.after() != null) {
+            params.addValue("cursorId", query.after().id());
+            if (query.after().createdAt() == null) {
+                sql.append(" AND created_at IS NULL AND id < :cursorId");
+            } else {
+                params.addValue("cursorCreatedAt", Timestamp.valueOf(query.after().createdAt()));
+                // The NULL tail comes after every dated row
+                sql.append(" AND (created_at < :cursorCreatedAt OR (created_at = :cursorCreatedAt AND id < :cursorId)"
+                        + " OR created_at IS NULL)");
+            }
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC");
+        if (query.limit() != null) {
+            // One extra row tells us whether there is a next page
+            params.addValue("limit", query.limit() + 1);
+            sql.append(" LIMIT :limit");
+        }
+
+        List<OrderSummary> rows = jdbc.query(sql.toString(), params, (rs, rowNum) -> mapRow(rs));
+        Cursor next = null;
+        if (query.limit() != null && rows.size() > query.limit()) {
+            rows = rows.subList(0, query.limit());
+            OrderSummary last = rows.get(rows.size() - 1);
+            next = new Cursor(last.createdAt(), last.id());
+        }
+        return new Page(rows, next);
+    }
+
+    private static void appendFilter(StringBuilder sql, MapSqlParameterSource params, String column, String value) {
+        if (value == null) return;
+        params.addValue(column, value);
+        sql.append(" AND ").append(column).append(" = :").append(column);
+    }
+
+    private static OrderSummary mapRow(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        long rawUserId = rs.getLong("user_id");
+        Long userId = rs.wasNull() ? null : rawUserId;
+        return new OrderSummary(
+                rs.getLong("id"),
+                rs.getString("service_name"),
+                rs.getString("customer_email"),
+                rs.getString("status"),
+                userId,
+                rs.getString("assignee_email"),
+                rs.getDouble("total_amount"),
+                createdAt != null ? createdAt.toLocalDateTime() : null);
+    }
+}
@@ -0,0 +1,37 @@
+package com.calzone.financial.order;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Validates listing parameters from the order endpoints and runs the keyset query. */
+@Service
+public class OrderQueryService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final OrderQueryRepository orderQueryRepository;
+
+    public OrderQueryService(OrderQueryRepository orderQueryRepository) {
+        this.orderQueryRepository = orderQueryRepository;
+    }
+
+    public OrderQueryRepository.Page search(String status, String serviceName, String assigneeEmail,
+                                            String customerEmail, String cursor, Integer limit) {
+        try {
+            if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            OrderQueryRepository.Cursor after = cursor == null || cursor.isBlank()
+                    ? null : OrderQueryRepository.Cursor.decode(cursor);
+            return orderQueryRepository.find(new OrderQueryRepository.Query(
+                    filter(status), filter(serviceName), filter(assigneeEmail), filter(customerEmail), after, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static String filter(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -1,13 +1,42 @@
  package com.calzone.financial.order;
 
     import org.springframework.data.jpa.repository.JpaRepository;
+    import org.springframework.data.jpa.repository.Query;
+    import org.springframework.data.repository.query.Param;
+    import java.util.Collection;
     import java.util.List;
+    import java.util.Optional;
 
     public interface OrderRepository extends JpaRepository<Order, Long> {
         List<Order> findByAssigneeEmailIgnoreCase(String assigneeEmail);
         List<Order> findByAssigneeEmailNotNull();
+        long countByAssigneeEmailNotNull();
         List<Order> findByCustomerEmail(String customerEmail);
         List<Order> findByServiceName(String serviceName);
         List<Order> findByServiceNameAndCustomerEmail(String serviceName, String customerEmail);
         List<Order> findByUserId(Long userId); //finds the users as ids,
+
+        @Query("SELECT o.assigneeEmail FROM com_calzone_financial_order_Order o WHERE o.id = :id AND o.assigneeEmail IS NOT NULL")
+        Optional<String> findAssigneeEmailById(@Param("id") Long id);
+
+        @Query("SELECT o.serviceName FROM com_calzone_financial_order_Order o WHERE o.id = :id")
+        Optional<String> findServiceNameById(@Param("id") Long id);
+
+        // Rows of [id, serviceName] for the orders that exist
+        @Query("SELECT o.id, o.serviceName FROM com_calzone_financial_order_Order o WHERE o.id IN :ids")
+        List<Object[]> findServiceNamesByIds(@Param("ids") Collection<Long> ids);
+
+        // Plain equality so the assignee index applies; the column collation is case-insensitive
+        @Query("SELECT o.id FROM com_calzone_financial_order_Order o WHERE o.assigneeEmail = :assigneeEmail")
+        List<Long> findIdsByAssigneeEmail(@Param("assigneeEmail") String assigneeEmail);
+
+        // Rows of [status, order count, revenue]
+        @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM com_calzone_financial_order_Order o GROUP BY o.status")
+        List<Object[]> aggregateByStatus();
+
+        // Rows of [year, month, order count, revenue]
+        @Query("SELECT YEAR(o.createdAt), MONTH(o.createdAt), COUNT(o), COALESCE(SUM(o.totalAmount), 0) " +
+               "FROM com_calzone_financial_order_Order o WHERE o.createdAt IS NOT NULL " +
+               "GROUP BY YEAR(o.createdAt), MONTH(o.createdAt)")
+        List<Object[]> aggregateByMonth();
     }
@@ -0,0 +1,7 @@
+package com.calzone.financial.order;
+
+import java.time.LocalDateTime;
+
+/** The order columns list screens show; read straight from {@code orders} without loading entities. */
+public record OrderSummary(Long id, String serviceName, String customerEmail, String status, Long userId,
+                           String assigneeEmail, double totalAmount, LocalDateTime createdAt) {}
@@ -0,0 +1,27 @@
+package com.calzone.financial.otp;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/** Hashes codes with the application's {@link PasswordEncoder}, as OTPs were hashed before. */
+@Component
+@ConditionalOnProperty(name = "otp.hasher", havingValue = "bcrypt")
+public class BCryptOtpHasher implements OtpHasher {
+
+    private final PasswordEncoder passwordEncoder;
+
+    public BCryptOtpHasher(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public String hash(OtpChannel channel, String subject, String code) {
+        return passwordEncoder.encode(code);
+    }
+
+    @Override
+    public boolean matches(OtpChannel channel, String subject, String code, String hash) {
+        return code != null && hash != null && passwordEncoder.matches(code, hash);
+    }
+}
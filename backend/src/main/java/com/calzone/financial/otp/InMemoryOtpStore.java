@@ -0,0 +1,174 @@
+package com.calzone.financial.otp;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Keeps one-time codes in this process, so issuing and checking a code touches no database.
+ * Codes are spread over {@code otp.memory.stripes} maps with a lock each; attempts are counted
+ * with an atomic counter before the (possibly slow) hash check runs, outside the lock, so
+ * concurrent guesses cannot exceed {@code maxAttempts}.
+ *
+ * <p>Expired codes are dropped by a hashed timer wheel of {@code otp.memory.wheel-slots} slots of
+ * {@code otp.memory.tick-ms} each: a code is filed under the slot of its expiry and the slot is
+ * swept when the wheel reaches it. Codes living longer than one turn of the wheel are re-filed
+ * until due. Verification checks the expiry itself, so a late sweep only delays freeing memory.
+ *
+ * <p>Codes do not survive a restart and are not shared between instances; use
+ * {@code otp.store=jpa} when login requests may reach more than one instance.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private record Key(OtpChannel channel, String subject) {}
+
+    private static final class Entry {
+        final String codeHash;
+        final long expiresAt;
+        final int maxAttempts;
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicBoolean used = new AtomicBoolean();
+
+        Entry(String codeHash, long expiresAt, int maxAttempts) {
+            this.codeHash = codeHash;
+            this.expiresAt = expiresAt;
+            this.maxAttempts = maxAttempts;
+        }
+    }
+
+    private final Map<Key, Entry>[] stripes;
+    private final Set<Key>[] wheel;
+    private final long tickMillis;
+    // Last tick whose slot was swept; ticks count tickMillis periods since the epoch
+    private volatile long sweptTick;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore(@Value("${otp.memory.stripes:64}") int stripeCount,
+                            @Value("${otp.memory.wheel-slots:512}") int wheelSlots,
+                            @Value("${otp.memory.tick-ms:1000}") long tickMillis,
+                            MeterRegistry meterRegistry) {
+        this.stripes = new Map[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new HashMap<>();
+        }
+        this.wheel = new Set[Math.max(1, wheelSlots)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.tickMillis = Math.max(1, tickMillis);
+        this.sweptTick = System.currentTimeMillis() / this.tickMillis;
+
+        Gauge.builder("otp.store.size", this, InMemoryOtpStore::size)
+                .description("One-time codes held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void issue(OtpChannel channel, String subject, String codeHash, Duration ttl, int maxAttempts) {
+        Key key = new Key(channel, subject);
+        Entry entry = new Entry(codeHash, System.currentTimeMillis() + ttl.toMillis(), maxAttempts);
+        Map<Key, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, entry);
+        }
+        schedule(key, entry.expiresAt);
+    }
+
+    @Override
+    public OtpVerification verify(OtpChannel channel, String subject, Predicate<String> matcher) {
+        Key key = new Key(channel, subject);
+        Map<Key, Entry> stripe = stripe(key);
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+        }
+        if (entry == null || entry.used.get() || entry.expiresAt <= System.currentTimeMillis()) {
+            return OtpVerification.NOT_FOUND;
+        }
+        if (entry.attempts.incrementAndGet() > entry.maxAttempts) {
+            return OtpVerification.TOO_MANY_ATTEMPTS;
+        }
+        if (!matcher.test(entry.codeHash)) {
+            return OtpVerification.INVALID;
+        }
+        // Two requests with the right code: only one uses it
+        if (!entry.used.compareAndSet(false, true)) {
+            return OtpVerification.NOT_FOUND;
+        }
+        synchronized (stripe) {
+            stripe.remove(key, entry);
+        }
+        return OtpVerification.VERIFIED;
+    }
+
+    @Scheduled(fixedDelayString = "${otp.memory.tick-ms:1000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        long current = now / tickMillis;
+        // After a long pause every slot is due, but each needs sweeping only once
+        long from = Math.max(sweptTick + 1, current - wheel.length + 1);
+        for (long tick = from; tick <= current; tick++) {
+            Set<Key> slot = wheel[(int) (tick % wheel.length)];
+            for (Iterator<Key> it = slot.iterator(); it.hasNext(); ) {
+                Key key = it.next();
+                it.remove();
+                expireIfDue(key, now);
+            }
+        }
+        sweptTick = current;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<Key, Entry> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private void expireIfDue(Key key, long now) {
+        Map<Key, Entry> stripe = stripe(key);
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+            if (entry == null) {
+                return;
+            }
+            if (entry.expiresAt <= now) {
+                stripe.remove(key);
+                return;
+            }
+        }
+        // Re-issued since, or beyond one turn of the wheel
+        schedule(key, entry.expiresAt);
+    }
+
+    private void schedule(Key key, long expiresAt) {
+        // A sweep running concurrently may just have passed the slot; the code then waits one more
+        // turn, which verify() does not notice because it checks the expiry itself
+        long tick = Math.max((expiresAt + tickMillis - 1) / tickMillis, sweptTick + 1);
+        tick = Math.min(tick, sweptTick + wheel.length);
+        wheel[(int) (tick % wheel.length)].add(key);
+    }
+
+    private Map<Key, Entry> stripe(Key key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+}
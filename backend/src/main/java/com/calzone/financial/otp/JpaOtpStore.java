@@ -0,0 +1,92 @@
+package com.calzone.financial.otp;
+
+import com.calzone.financial.email.VerificationCode;
+import com.calzone.financial.email.VerificationCodeRepository;
+import com.calzone.financial.sms.PhoneOtp;
+import com.calzone.financial.sms.PhoneOtpRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Predicate;
+
+/**
+ * Keeps one-time codes in {@code phone_otp_codes} and {@code email_verification_codes}, for
+ * deployments where requests of one login may reach different instances. Issuing purges the
+ * subject's earlier and all expired codes; attempts are written in their own transaction, so a
+ * failed guess is counted even though the caller then fails its request.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "jpa")
+public class JpaOtpStore implements OtpStore {
+
+    private final PhoneOtpRepository phoneOtpRepository;
+    private final VerificationCodeRepository verificationCodeRepository;
+
+    public JpaOtpStore(PhoneOtpRepository phoneOtpRepository, VerificationCodeRepository verificationCodeRepository) {
+        this.phoneOtpRepository = phoneOtpRepository;
+        this.verificationCodeRepository = verificationCodeRepository;
+    }
+
+    @Override
+    @Transactional
+    public void issue(OtpChannel channel, String subject, String codeHash, Duration ttl, int maxAttempts) {
+        Instant now = Instant.now();
+        if (channel == OtpChannel.PHONE) {
+            phoneOtpRepository.purgeByPhoneOrExpired(subject, now);
+            PhoneOtp otp = new PhoneOtp();
+            otp.setPhone(subject);
+            otp.setCodeHash(codeHash);
+            otp.setExpiresAt(now.plus(ttl));
+            otp.setUsed(false);
+            otp.setMaxAttempts(maxAttempts);
+            phoneOtpRepository.save(otp);
+        } else {
+            verificationCodeRepository.purgeByEmailOrExpired(subject, now);
+            VerificationCode vc = new VerificationCode();
+            vc.setEmail(subject);
+            vc.setCodeHash(codeHash);
+            vc.setExpiresAt(now.plus(ttl));
+            vc.setUsed(false);
+            vc.setAttempts(0);
+            vc.setMaxAttempts(maxAttempts);
+            verificationCodeRepository.save(vc);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public OtpVerification verify(OtpChannel channel, String subject, Predicate<String> matcher) {
+        Instant now = Instant.now();
+        if (channel == OtpChannel.PHONE) {
+            PhoneOtp otp = phoneOtpRepository.findActiveLatest(subject, now).orElse(null);
+            if (otp == null) {
+                return OtpVerification.NOT_FOUND;
+            }
+            otp.setAttempts(otp.getAttempts() + 1);
+            OtpVerification result = check(otp.getAttempts(), otp.getMaxAttempts(), otp.getCodeHash(), matcher);
+            otp.setUsed(result == OtpVerification.VERIFIED);
+            phoneOtpRepository.save(otp);
+            return result;
+        }
+        VerificationCode vc = verificationCodeRepository.findActiveLatest(subject, now).orElse(null);
+        if (vc == null) {
+            return OtpVerification.NOT_FOUND;
+        }
+        vc.setAttempts(vc.getAttempts() + 1);
+        OtpVerification result = check(vc.getAttempts(), vc.getMaxAttempts(), vc.getCodeHash(), matcher);
+        vc.setUsed(result == OtpVerification.VERIFIED);
+        verificationCodeRepository.save(vc);
+        return result;
+    }
+
+    private static OtpVerification check(int attempts, int maxAttempts, String codeHash, Predicate<String> matcher) {
+        if (attempts > maxAttempts) {
+            return OtpVerification.TOO_MANY_ATTEMPTS;
+        }
+        return matcher.test(codeHash) ? OtpVerification.VERIFIED : OtpVerification.INVALID;
+    }
+}
@@ -0,0 +1,6 @@
+package com.calzone.financial.otp;
+
+/** Where a one-time code was sent; codes of different channels never replace each other. */
+public enum OtpChannel {
+    PHONE, EMAIL
+}
@@ -0,0 +1,16 @@
+package com.calzone.financial.otp;
+
+/**
+ * Hashes one-time codes for {@link OtpStore}. {@code otp.hasher=hmac} (the default) uses a
+ * server-keyed HMAC, see {@link HmacOtpHasher}; {@code otp.hasher=bcrypt} uses the password
+ * encoder as before.
+ *
+ * @param subject the phone or email the code was sent to; bound into the hash, so a stored hash
+ *                is useless for any other subject
+ */
+public interface OtpHasher {
+
+    String hash(OtpChannel channel, String subject, String code);
+
+    boolean matches(OtpChannel channel, String subject, String code, String hash);
+}
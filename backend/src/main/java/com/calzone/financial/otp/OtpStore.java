@@ -0,0 +1,24 @@
+package com.calzone.financial.otp;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Holds the one-time codes sent for phone login and email verification, one live code per
+ * channel and subject. Codes are stored as hashes; callers hash on issue and match on verify.
+ *
+ * <p>{@code otp.store=memory} (the default) keeps codes in this process, see
+ * {@link InMemoryOtpStore}; {@code otp.store=jpa} keeps them in {@code phone_otp_codes} and
+ * {@code email_verification_codes}, which several application instances can share.
+ */
+public interface OtpStore {
+
+    /** Stores a code for the subject, replacing any code issued to it before. */
+    void issue(OtpChannel channel, String subject, String codeHash, Duration ttl, int maxAttempts);
+
+    /**
+     * Counts an attempt against the subject's live code and, while attempts remain, checks it with
+     * {@code matcher}, which receives the stored hash. A matching code is used up.
+     */
+    OtpVerification verify(OtpChannel channel, String subject, Predicate<String> matcher);
+}
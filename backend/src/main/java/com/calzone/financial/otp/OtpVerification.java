@@ -0,0 +1,13 @@
+package com.calzone.financial.otp;
+
+/** Outcome of checking a submitted code with {@link OtpStore#verify}. */
+public enum OtpVerification {
+    /** The code matched and is now used up. */
+    VERIFIED,
+    /** No unused, unexpired code was issued to the subject. */
+    NOT_FOUND,
+    /** The code's attempts are used up; a new code has to be requested. */
+    TOO_MANY_ATTEMPTS,
+    /** The code did not match; the attempt was counted. */
+    INVALID
+}
@@ -0,0 +1,186 @@
+package com.calzone.financial.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers {@link OutboxMessage}s to their {@link OutboxHandler}s off the request thread.
+ *
+ * <p>Each poll reads the oldest deliverable messages, skipping aggregates whose head message is
+ * waiting for a retry, and groups them by aggregate. Groups run in parallel on the dispatcher
+ * pool; inside a group messages run one by one in id order, and a failure holds back the rest of
+ * the group, so per-order ordering survives retries. Failed messages back off exponentially and
+ * are marked DEAD after {@code outbox.dispatcher.max-attempts}.
+ *
+ * <p>Polls do not overlap within one instance. Each delivery locks its message row and skips it
+ * if another instance holds it, so a message is handled once even with several instances, though
+ * their deliveries of one aggregate may interleave.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(10);
+
+    private enum Delivery { DELIVERED, ALREADY_PROCESSED, LOCKED_ELSEWHERE }
+
+    private final OutboxMessageRepository repository;
+    private final Map<String, List<OutboxHandler>> handlers;
+    private final TransactionTemplate messageTransaction;
+    private final ExecutorService pool;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter dead;
+
+    public OutboxDispatcher(OutboxMessageRepository repository, List<OutboxHandler> handlers,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${outbox.dispatcher.threads:4}") int threads,
+                            @Value("${outbox.dispatcher.batch-size:200}") int batchSize,
+                            @Value("${outbox.dispatcher.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.retention-days:7}") int retentionDays) {
+        this.repository = repository;
+        this.handlers = handlers.stream().collect(Collectors.groupingBy(OutboxHandler::eventType));
+        this.messageTransaction = new TransactionTemplate(transactionManager);
+        this.messageTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("outbox-", 0).daemon().factory());
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofDays(retentionDays);
+        this.delivered = Counter.builder("outbox.dispatch").tag("result", "delivered").register(meterRegistry);
+        this.retried = Counter.builder("outbox.dispatch").tag("result", "retry").register(meterRegistry);
+        this.dead = Counter.builder("outbox.dispatch").tag("result", "dead").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dispatcher.poll-ms:500}")
+    public void poll() {
+        List<OutboxMessage> pending;
+        try {
+            pending = repository.findDeliverable(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        } catch (RuntimeException e) {
+            logger.warn("Outbox poll failed: {}", e.getMessage());
+            return;
+        }
+        if (pending.isEmpty()) return;
+
+        Map<String, List<OutboxMessage>> byAggregate = new LinkedHashMap<>();
+        for (OutboxMessage message : pending) {
+            byAggregate.computeIfAbsent(message.getAggregateType() + ":" + message.getAggregateId(),
+                    k -> new ArrayList<>()).add(message);
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (List<OutboxMessage> group : byAggregate.values()) {
+            tasks.add(() -> {
+                deliverInOrder(group);
+                return null;
+            });
+        }
+        try {
+            pool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Scheduled(cron = "${outbox.cleanup-cron:0 30 3 * * *}")
+    public void cleanup() {
+        try {
+            Integer removed = messageTransaction.execute(status ->
+                    repository.deleteDoneBefore(LocalDateTime.now().minus(retention)));
+            if (removed != null && removed > 0) {
+                logger.info("Removed {} delivered outbox messages", removed);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Outbox cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void deliverInOrder(List<OutboxMessage> group) {
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMessage message : group) {
+            if (message.getNextAttemptAt().isAfter(now) || !deliver(message.getId())) {
+                return;
+            }
+        }
+    }
+
+    // Handlers and the status change share one transaction, under a lock on the message row;
+    // returns false if delivery failed or another instance is delivering the message
+    private boolean deliver(Long messageId) {
+        try {
+            Delivery delivery = messageTransaction.execute(status -> {
+                OutboxMessage message = repository.findByIdForUpdate(messageId).orElse(null);
+                if (message == null) return Delivery.LOCKED_ELSEWHERE;
+                if (message.getStatus() != OutboxMessage.Status.PENDING) return Delivery.ALREADY_PROCESSED;
+                for (OutboxHandler handler : handlers.getOrDefault(message.getEventType(), List.of())) {
+                    try {
+                        handler.handle(message);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                message.markDone();
+                return Delivery.DELIVERED;
+            });
+            if (delivery == Delivery.DELIVERED) {
+                delivered.increment();
+            }
+            return delivery != Delivery.LOCKED_ELSEWHERE;
+        } catch (RuntimeException e) {
+            recordFailure(messageId, e);
+            return false;
+        }
+    }
+
+    private void recordFailure(Long messageId, RuntimeException error) {
+        try {
+            messageTransaction.executeWithoutResult(status -> repository.findById(messageId).ifPresent(message -> {
+                boolean giveUp = message.getAttempts() + 1 >= maxAttempts;
+                long backoffSeconds = Math.min(1L << Math.min(message.getAttempts(), 20), MAX_BACKOFF.toSeconds());
+                message.markFailed(String.valueOf(error.getMessage()), LocalDateTime.now().plusSeconds(backoffSeconds), giveUp);
+                if (giveUp) {
+                    dead.increment();
+                    logger.error("Outbox message {} ({} for {} {}) failed {} times; giving up: {}", message.getId(),
+                            message.getEventType(), message.getAggregateType(), message.getAggregateId(),
+                            message.getAttempts(), error.getMessage());
+                } else {
+                    retried.increment();
+                    logger.warn("Outbox message {} ({}) failed, retrying in {}s: {}", message.getId(),
+                            message.getEventType(), backoffSeconds, error.getMessage());
+                }
+            }));
+        } catch (RuntimeException e) {
+            logger.warn("Could not record outbox failure for message {}: {}", messageId, e.getMessage());
+        }
+    }
+}
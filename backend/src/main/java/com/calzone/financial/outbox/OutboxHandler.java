@@ -0,0 +1,13 @@
+package com.calzone.financial.outbox;
+
+/**
+ * Receives outbox messages of one event type. Delivery is at least once: a handler runs in the
+ * transaction that marks the message delivered, so database-only work happens exactly once,
+ * but anything external (mail, SMS) must tolerate the occasional repeat after a crash.
+ */
+public interface OutboxHandler {
+
+    String eventType();
+
+    void handle(OutboxMessage message) throws Exception;
+}
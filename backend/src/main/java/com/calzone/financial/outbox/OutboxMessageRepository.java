@@ -0,0 +1,39 @@
+package com.calzone.financial.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Oldest deliverable first: pending messages with no pending message of their aggregate, themselves
+    // included, still waiting for a retry. Aggregates held back by a failing head take no room in the
+    // page, so they cannot starve the others
+    @Query("SELECT m FROM OutboxMessage m WHERE m.status = com.calzone.financial.outbox.OutboxMessage.Status.PENDING "
+            + "AND NOT EXISTS (SELECT 1 FROM OutboxMessage p WHERE p.aggregateType = m.aggregateType "
+            + "AND p.aggregateId = m.aggregateId AND p.status = com.calzone.financial.outbox.OutboxMessage.Status.PENDING "
+            + "AND p.id <= m.id AND p.nextAttemptAt > :now) ORDER BY m.id")
+    List<OutboxMessage> findDeliverable(@Param("now") LocalDateTime now, Pageable page);
+
+    // SKIP LOCKED: a message another instance is delivering right now is left to it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM OutboxMessage m WHERE m.id = :id")
+    Optional<OutboxMessage> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.status = com.calzone.financial.outbox.OutboxMessage.Status.DONE AND m.processedAt < :before")
+    int deleteDoneBefore(@Param("before") LocalDateTime before);
+}
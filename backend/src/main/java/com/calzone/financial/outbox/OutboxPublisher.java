@@ -0,0 +1,70 @@
+package com.calzone.financial.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/** Records domain events in {@code outbox_messages} as part of the caller's transaction. */
+@Service
+public class OutboxPublisher {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final OutboxMessageRepository repository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxPublisher(OutboxMessageRepository repository, ObjectMapper objectMapper, JdbcTemplate jdbcTemplate) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Must run inside the transaction making the change, so the message exists if and only if
+     * the change committed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        try {
+            repository.save(new OutboxMessage(aggregateType, aggregateId, eventType, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + eventType + " payload", e);
+        }
+    }
+
+    /**
+     * Same as {@link #publish} for many payloads of one event type, written with JDBC batch
+     * inserts. Messages get ids in list order, which is their delivery order per aggregate.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void publishAll(String aggregateType, String eventType, List<T> payloads, Function<T, Long> aggregateId) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>(payloads.size());
+        for (T payload : payloads) {
+            try {
+                rows.add(new Object[]{aggregateType, aggregateId.apply(payload), eventType,
+                        objectMapper.writeValueAsString(payload), OutboxMessage.Status.PENDING.name(), now, now});
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Cannot serialize " + eventType + " payload", e);
+            }
+        }
+        for (int i = 0; i < rows.size(); i += INSERT_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("INSERT INTO outbox_messages (aggregate_type, aggregate_id, event_type, payload, status, "
+                            + "attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, 0, ?, ?)",
+                    rows.subList(i, Math.min(i + INSERT_BATCH_SIZE, rows.size())));
+        }
+    }
+
+    public <T> T read(OutboxMessage message, Class<T> type) throws JsonProcessingException {
+        return objectMapper.readValue(message.getPayload(), type);
+    }
+}
@@ -0,0 +1,51 @@
+package com.calzone.financial.process;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A {@link ProcessStage} moved out of {@code process_stages} by
+ * {@link com.calzone.financial.archive.OrderArchiver}; same columns and ids as the hot table.
+ */
+@Entity
+@Table(
+    name = "process_stages_archive",
+    indexes = {
+        @Index(name = "idx_process_archive_order", columnList = "order_id, created_at")
+    }
+)
+public class ArchivedProcessStage {
+
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false, length = 50)
+    private String stage;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(length = 500)
+    private String notes;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    protected ArchivedProcessStage() {
+        // Default constructor for JPA
+    }
+
+    public ProcessStage toStage() {
+        ProcessStage stage = new ProcessStage(orderId, this.stage, status, notes);
+        stage.setId(id);
+        stage.setCreatedAt(createdAt);
+        return stage;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+}
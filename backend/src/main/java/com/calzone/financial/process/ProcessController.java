@@ -1,34 +1,95 @@
 package com.calzone.financial.process;
 
+import com.calzone.financial.order.OrderRepository;
+import com.calzone.financial.user.User;
+import com.calzone.financial.workflow.WorkflowEvent;
+import com.calzone.financial.workflow.WorkflowPipeline;
+import com.calzone.financial.workflow.WorkflowService;
+import com.calzone.financial.workflow.WorkflowStageView;
+import com.calzone.financial.workflow.WorkflowStatus;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Locale;
 
+/**
+ * Process steps of an order as the service pages show them. Steps are the order's workflow
+ * pipeline; a posted step goes through the workflow engine like any other transition. As in
+ * {@code WorkflowController}, staff can read and post steps of any order, customers can read their
+ * own.
+ */
 @RestController
 @RequestMapping("/api/process")
 public class ProcessController {
 
     public record StageReq(String stage, String status, String notes) {}
 
-    private final ProcessStageRepository repo;
+    private final WorkflowService workflowService;
+    private final OrderRepository orderRepository;
 
-    public ProcessController(ProcessStageRepository repo) {
-        this.repo = repo;
+    public ProcessController(WorkflowService workflowService, OrderRepository orderRepository) {
+        this.workflowService = workflowService;
+        this.orderRepository = orderRepository;
     }
 
     @GetMapping("/orders/{orderId}")
-    public ResponseEntity<List<ProcessStage>> list(@PathVariable Long orderId) {
-        return ResponseEntity.ok(repo.findByOrderIdOrderByCreated(orderId));
+    public ResponseEntity<List<WorkflowStageView>> list(@AuthenticationPrincipal User user, @PathVariable Long orderId) {
+        requireReader(user, orderId);
+        return ResponseEntity.ok(workflowService.getStageViews(orderId));
     }
 
     @PostMapping("/orders/{orderId}/stage")
-    public ResponseEntity<ProcessStage> add(@PathVariable Long orderId, @RequestBody StageReq req) {
-        ProcessStage s = new ProcessStage();
-        s.setOrderId(orderId);
-        s.setStage(req.stage() == null ? "WEB" : req.stage());
-        s.setStatus(req.status() == null ? "completed" : req.status());
-        s.setNotes(req.notes());
-        return ResponseEntity.ok(repo.save(s));
+    public ResponseEntity<WorkflowEvent> add(@AuthenticationPrincipal User user, @PathVariable Long orderId,
+                                             @RequestBody StageReq req) {
+        requireStaff(user);
+        WorkflowPipeline pipeline = workflowService.pipelineFor(orderId);
+        WorkflowPipeline.Step step = req.stage() == null
+                ? pipeline.getSteps().get(0)
+                : pipeline.step(req.stage()).orElseThrow(() ->
+                        new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown stage: " + req.stage()));
+        WorkflowStatus status = parseStatus(req.status());
+        return ResponseEntity.ok(workflowService.transition(orderId, step.stage(), status, req.notes(), null));
+    }
+
+    // Process stages used lower-case statuses; accepts those and the workflow names
+    private static WorkflowStatus parseStatus(String status) {
+        if (status == null) return WorkflowStatus.COMPLETED;
+        try {
+            return WorkflowStatus.valueOf(status.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status: " + status);
+        }
+    }
+
+    private void requireReader(User user, Long orderId) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        if (isStaff(user)) return;
+        boolean owner = orderRepository.findById(orderId)
+                .map(o -> (user.getId() != null && user.getId().equals(o.getUserId()))
+                        || (o.getCustomerEmail() != null && o.getCustomerEmail().equalsIgnoreCase(user.getEmail())))
+                .orElse(false);
+        if (!owner) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your order");
+        }
+    }
+
+    private static void requireStaff(User user) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        if (!isStaff(user)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Requires ADMIN or EMPLOYEE role");
+        }
+    }
+
+    private static boolean isStaff(User user) {
+        return user.getAuthorities().stream().anyMatch(a ->
+                a.getAuthority().equals("ROLE_ADMIN") || a.getAuthority().equals("ROLE_EMPLOYEE"));
     }
 }
@@ -3,9 +3,14 @@ package com.calzone.financial.process;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProcessStageRepository extends JpaRepository<ProcessStage, Long> {
     @Query("select p from ProcessStage p where p.orderId = :orderId order by p.createdAt asc, p.id asc")
     List<ProcessStage> findByOrderIdOrderByCreated(Long orderId);
+
+    // Stages of several orders in one round trip, each order's stages in the same order as above
+    @Query("select p from ProcessStage p where p.orderId in :orderIds order by p.orderId asc, p.createdAt asc, p.id asc")
+    List<ProcessStage> findByOrderIdInOrderByCreated(Collection<Long> orderIds);
 }
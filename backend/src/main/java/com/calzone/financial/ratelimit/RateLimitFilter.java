@@ -0,0 +1,226 @@
+package com.calzone.financial.ratelimit;
+
+import com.calzone.financial.config.RateLimitProperties;
+import com.calzone.financial.config.RateLimitProperties.KeyType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimitProperties} ahead of authentication. A request to a configured route
+ * takes a token from each of its buckets (client IP, and the phone or email in its JSON body);
+ * if any is empty it is answered with 429 and a {@code Retry-After} in seconds. Bodies of routes
+ * keyed by phone or email are read here, at most {@value #MAX_BODY} bytes, and replayed to the
+ * controller.
+ *
+ * <p>Outcomes are counted as {@code ratelimit.allowed} by route and {@code ratelimit.rejected} by
+ * route and the key type that ran out.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_BODY = 16 * 1024;
+
+    private record RouteLimits(String name, RateLimitProperties.Route route, Counter allowed,
+                               Map<KeyType, Counter> rejected) {}
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    // In configuration order; the first matching route applies
+    private final Map<String, RouteLimits> routes = new LinkedHashMap<>();
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        properties.getRoutes().forEach((name, route) -> {
+            Map<KeyType, Counter> rejected = new EnumMap<>(KeyType.class);
+            for (KeyType type : route.getLimits().keySet()) {
+                rejected.put(type, Counter.builder("ratelimit.rejected").tag("route", name)
+                        .tag("key", type.name().toLowerCase(Locale.ROOT)).register(meterRegistry));
+            }
+            routes.put(name, new RouteLimits(name, route,
+                    Counter.builder("ratelimit.allowed").tag("route", name).register(meterRegistry), rejected));
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || match(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RouteLimits limits = match(request);
+        Map<KeyType, RateLimitProperties.Limit> configured = limits.route().getLimits();
+
+        JsonNode body = null;
+        if (configured.containsKey(KeyType.PHONE) || configured.containsKey(KeyType.EMAIL)) {
+            byte[] bytes = request.getInputStream().readNBytes(MAX_BODY + 1);
+            if (bytes.length > MAX_BODY) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                return;
+            }
+            request = new CachedBodyRequest(request, bytes);
+            body = parse(bytes);
+        }
+
+        for (Map.Entry<KeyType, RateLimitProperties.Limit> entry : configured.entrySet()) {
+            String key = key(entry.getKey(), entry.getValue(), request, body);
+            if (key == null) continue;
+            long waitNanos = rateLimiter.tryAcquire(limits.name(), entry.getKey(), key, entry.getValue());
+            if (waitNanos > 0) {
+                limits.rejected().get(entry.getKey()).increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+        limits.allowed().increment();
+        filterChain.doFilter(request, response);
+    }
+
+    private RouteLimits match(HttpServletRequest request) {
+        String path = request.getServletPath();
+        for (RouteLimits limits : routes.values()) {
+            RateLimitProperties.Route route = limits.route();
+            if (route.getMethod().equalsIgnoreCase(request.getMethod()) && pathMatcher.match(route.getPath(), path)) {
+                return limits;
+            }
+        }
+        return null;
+    }
+
+    private String key(KeyType type, RateLimitProperties.Limit limit, HttpServletRequest request, JsonNode body) {
+        if (type == KeyType.IP) {
+            return clientIp(request);
+        }
+        String field = limit.getField() != null ? limit.getField() : type.name().toLowerCase(Locale.ROOT);
+        JsonNode value = body == null ? null : body.get(field);
+        if (value == null || !value.isTextual()) {
+            // Requests without the field are still limited by IP; the controller rejects them
+            return null;
+        }
+        // Normalised like the controllers do, so spelling variants share one bucket
+        String key = type == KeyType.PHONE
+                ? value.asText().replaceAll("[^0-9]", "")
+                : value.asText().trim().toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private JsonNode parse(byte[] bytes) {
+        try {
+            return bytes.length == 0 ? null : objectMapper.readTree(bytes);
+        } catch (IOException e) {
+            // Not JSON; the controller answers it
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many requests, try again in " + seconds + " seconds\"}");
+    }
+
+    /** Replays a body the filter has already read. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
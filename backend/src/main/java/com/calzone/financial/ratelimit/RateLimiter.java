@@ -0,0 +1,52 @@
+package com.calzone.financial.ratelimit;
+
+import com.calzone.financial.config.RateLimitProperties;
+import com.calzone.financial.config.RateLimitProperties.KeyType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds one {@link TokenBucket} per route, key type and key value. Buckets are created on first
+ * use and dropped by a periodic sweep once they have been full for
+ * {@code security.rate-limit.idle-eviction}. A dropped bucket would have been full anyway, so
+ * eviction only lets a client through early if its request races the sweep. Bucket count is
+ * published as {@code ratelimit.buckets}.
+ */
+@Component
+public class RateLimiter {
+
+    private record Key(String route, KeyType type, String value) {}
+
+    private final ConcurrentMap<Key, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final long idleNanos;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.idleNanos = properties.getIdleEviction().toNanos();
+        Gauge.builder("ratelimit.buckets", buckets, ConcurrentMap::size)
+                .description("Rate limit buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    /** @return 0 if the request may proceed, otherwise nanoseconds until it could */
+    public long tryAcquire(String route, KeyType type, String value, RateLimitProperties.Limit limit) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(new Key(route, type, value),
+                k -> new TokenBucket(limit.getCapacity(), limit.getPeriod().toNanos(), now));
+        return bucket.tryAcquire(now);
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limit.sweep-ms:60000}")
+    public void evictIdle() {
+        long before = System.nanoTime() - idleNanos;
+        buckets.values().removeIf(bucket -> bucket.fullSince(before));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.calzone.financial.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket of {@code capacity} tokens refilled evenly over {@code period}, kept lock-free
+ * as a single "theoretical arrival time" (the generic cell rate algorithm): the instant at which
+ * the bucket would be full again. Taking a token pushes it one emission interval further; a
+ * request is refused when that would put it more than one period ahead of now.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long periodNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, long periodNanos, long now) {
+        this.intervalNanos = Math.max(1, periodNanos / capacity);
+        this.periodNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /** @return 0 if a token was taken, otherwise nanoseconds until one is available */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > periodNanos) {
+                return ahead - periodNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Whether the bucket has been full since {@code before}, i.e. can be dropped and recreated. */
+    boolean fullSince(long before) {
+        return fullAt.get() - before <= 0;
+    }
+}
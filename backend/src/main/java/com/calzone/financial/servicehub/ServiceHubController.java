@@ -2,27 +2,37 @@ package com.calzone.financial.servicehub;
 
 import com.calzone.financial.order.DocumentRepository;
 import com.calzone.financial.order.Order;
+import com.calzone.financial.order.OrderQueryRepository;
+import com.calzone.financial.order.OrderQueryService;
 import com.calzone.financial.order.OrderRepository;
-import com.calzone.financial.process.ProcessStage;
-import com.calzone.financial.process.ProcessStageRepository;
+import com.calzone.financial.order.OrderSummary;
+import com.calzone.financial.workflow.WorkflowService;
+import com.calzone.financial.workflow.WorkflowStageView;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/servicehub")
 public class ServiceHubController {
 
+    private static final int IN_CHUNK_SIZE = 1000;
+
     private final OrderRepository orderRepository;
     private final DocumentRepository documentRepository;
-    private final ProcessStageRepository stageRepository;
+    private final WorkflowService workflowService;
     private final ServiceEntryRepository serviceEntryRepository;
+    private final OrderQueryService orderQueryService;
 
-    public ServiceHubController(OrderRepository orderRepository, DocumentRepository documentRepository, ProcessStageRepository stageRepository, ServiceEntryRepository serviceEntryRepository) {
+    public ServiceHubController(OrderRepository orderRepository, DocumentRepository documentRepository, WorkflowService workflowService, ServiceEntryRepository serviceEntryRepository,
+                                OrderQueryService orderQueryService) {
         this.orderRepository = orderRepository;
         this.documentRepository = documentRepository;
-        this.stageRepository = stageRepository;
+        this.workflowService = workflowService;
         this.serviceEntryRepository = serviceEntryRepository;
+        this.orderQueryService = orderQueryService;
     }
 
     // --- Static UI data for the ServiceHub page (moved from frontend) ---
@@ -108,21 +118,25 @@ public class ServiceHubController {
 
         if ("EMPLOYEE".equalsIgnoreCase(role) && email != null && !email.isBlank()) {
             // Orders assigned to this employee
-            List<Order> assigned = orderRepository.findByAssigneeEmailIgnoreCase(email);
+            List<Long> assigned = orderRepository.findIdsByAssigneeEmail(email);
             res.put("assignedOrdersCount", assigned.size());
             // Documents for assigned orders
             long docsForAssigned = 0;
-            for (Order o : assigned) {
-                docsForAssigned += documentRepository.findByOrderId(o.getId()).size();
+            for (List<Long> chunk : chunks(assigned)) {
+                for (Object[] row : documentRepository.countByOrderIds(chunk)) {
+                    docsForAssigned += ((Number) row[1]).longValue();
+                }
             }
             res.put("documentsForAssignedOrders", docsForAssigned);
         } else {
             // ADMIN overview
-            long assignedCount = orderRepository.findByAssigneeEmailNotNull().size();
+            long assignedCount = orderRepository.countByAssigneeEmailNotNull();
             res.put("assignedOrdersCount", assignedCount);
             // Simple per-status counts (CREATED, PAYMENT_COMPLETED, DOCUMENTS_PENDING, DOCUMENTS_VERIFIED, ASSIGNED)
             Map<String, Long> statusCounts = new HashMap<>();
-            orderRepository.findAll().forEach(o -> statusCounts.merge(o.getStatus(), 1L, Long::sum));
+            for (Object[] row : orderRepository.aggregateByStatus()) {
+                statusCounts.merge((String) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
             res.put("statusCounts", statusCounts);
         }
 
@@ -183,10 +197,11 @@ public class ServiceHubController {
                 orders = orderRepository.findByServiceNameAndCustomerEmail(service, email);
             }
 
+            Map<Long, List<WorkflowStageView>> stages = stagesByOrder(orders, Order::getId, Order::getServiceName);
             for (Order o : orders) {
                 Map<String, Object> m = new HashMap<>();
                 m.put("order", o);
-                m.put("stages", stageRepository.findByOrderIdOrderByCreated(o.getId()));
+                m.put("stages", stages.getOrDefault(o.getId(), List.of()));
                 entries.add(m);
             }
             out.put("serviceEntries", entries);
@@ -206,44 +221,73 @@ public class ServiceHubController {
         if (service == null || service.isBlank()) orders = orderRepository.findByCustomerEmail(email);
         else orders = orderRepository.findByServiceNameAndCustomerEmail(service, email);
 
+        Map<Long, List<WorkflowStageView>> stages = stagesByOrder(orders, Order::getId, Order::getServiceName);
         List<Map<String, Object>> out = new ArrayList<>();
         for (Order o : orders) {
             Map<String, Object> m = new HashMap<>();
             m.put("order", o);
-            List<ProcessStage> stages = stageRepository.findByOrderIdOrderByCreated(o.getId());
-            m.put("stages", stages);
+            m.put("stages", stages.getOrDefault(o.getId(), List.of()));
             out.add(m);
         }
         return out;
     }
 
-    // Return orders for service - ADMIN sees all, EMPLOYEE sees assigned to them
+    // Return orders for service - ADMIN sees all, EMPLOYEE sees assigned to them.
+    // Pass limit to page through them; the next cursor comes back in X-Next-Cursor.
     @GetMapping("/orders")
-    public List<Map<String, Object>> orders(@RequestParam(required = false) String service) {
+    public ResponseEntity<List<Map<String, Object>>> orders(@RequestParam(required = false) String service,
+                                                            @RequestParam(required = false) String status,
+                                                            @RequestParam(required = false) String assignee,
+                                                            @RequestParam(required = false) String customer,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         boolean isAdmin = auth != null && auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
         boolean isEmployee = auth != null && auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_EMPLOYEE"));
         String email = auth == null ? null : auth.getName();
 
-        List<Order> orders = new ArrayList<>();
+        OrderQueryRepository.Page page;
         if (isAdmin) {
-            if (service == null || service.isBlank()) orders = orderRepository.findAll();
-            else orders = orderRepository.findByServiceName(service);
+            page = orderQueryService.search(status, service, assignee, customer, cursor, limit);
         } else if (isEmployee) {
             // employee sees assigned orders
-            orders = orderRepository.findByAssigneeEmailIgnoreCase(email);
+            page = orderQueryService.search(status, null, email, customer, cursor, limit);
         } else {
             throw new org.springframework.security.access.AccessDeniedException("Requires ADMIN or EMPLOYEE role");
         }
 
+        Map<Long, List<WorkflowStageView>> stages = stagesByOrder(page.items(), OrderSummary::id, OrderSummary::serviceName);
         List<Map<String, Object>> out = new ArrayList<>();
-        for (Order o : orders) {
+        for (OrderSummary o : page.items()) {
             Map<String, Object> m = new HashMap<>();
             m.put("order", o);
-            List<ProcessStage> stages = stageRepository.findByOrderIdOrderByCreated(o.getId());
-            m.put("stages", stages);
+            m.put("stages", stages.getOrDefault(o.id(), List.of()));
             out.add(m);
         }
-        return out;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header("X-Next-Cursor", page.next().encode());
+        }
+        return response.body(out);
+    }
+
+    // Pipeline steps for all the given orders; the service name picks each order's pipeline
+    private <T> Map<Long, List<WorkflowStageView>> stagesByOrder(List<T> orders, Function<T, Long> id,
+                                                                 Function<T, String> serviceName) {
+        // HashMap rather than Collectors.toMap, which rejects the null service names older orders have
+        Map<Long, String> byOrder = new HashMap<>();
+        for (T order : orders) {
+            byOrder.put(id.apply(order), serviceName.apply(order));
+        }
+        return workflowService.getStageViews(byOrder);
+    }
+
+    // Keeps IN lists to a size the driver and optimizer handle well when a listing is unpaged
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + IN_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
     }
 }
@@ -0,0 +1,89 @@
+package com.calzone.financial.sms;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Local stand-in for a gateway. With {@code sms.mock.url} set, each message is POSTed there as
+ * JSON ({@code to}, {@code body}) and the response's {@code id} is used as the message id, so a
+ * stub server can exercise throttling and failures; otherwise the message is only logged.
+ * Delivery reports are accepted with an {@code X-Sms-Token} header equal to {@code sms.authToken}.
+ */
+@Component
+@ConditionalOnProperty(name = "sms.provider", havingValue = "mock", matchIfMissing = true)
+public class MockHttpSmsProvider implements SmsProvider {
+
+    public static final String NAME = "mock";
+
+    private static final Logger logger = LoggerFactory.getLogger(MockHttpSmsProvider.class);
+
+    private final RestClient restClient;
+    private final String url;
+    private final double ratePerSecond;
+    private final byte[] callbackToken;
+
+    public MockHttpSmsProvider(@Value("${sms.mock.url:}") String url,
+                               @Value("${sms.authToken:}") String callbackToken,
+                               @Value("${sms.mock.rate-per-second:50}") double ratePerSecond) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(2000);
+        requestFactory.setReadTimeout(5000);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        this.url = url == null || url.isBlank() ? null : url;
+        this.ratePerSecond = ratePerSecond;
+        this.callbackToken = callbackToken == null || callbackToken.isBlank()
+                ? null : callbackToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public double ratePerSecond() {
+        return ratePerSecond;
+    }
+
+    @Override
+    public String send(String to, String body) {
+        if (url == null) {
+            logger.info("[SMS MOCK] to={} msg={}", to, body);
+            return UUID.randomUUID().toString();
+        }
+        try {
+            Map<?, ?> response = restClient.post().uri(url)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("to", to, "body", body))
+                    .retrieve()
+                    .body(Map.class);
+            Object id = response == null ? null : response.get("id");
+            return id == null ? UUID.randomUUID().toString() : id.toString();
+        } catch (HttpClientErrorException e) {
+            throw new SmsSendException(e.getMessage(), e.getStatusCode().value() == 429, e);
+        } catch (RestClientException e) {
+            throw new SmsSendException(e.getMessage(), true, e);
+        }
+    }
+
+    @Override
+    public boolean isAuthenticCallback(HttpServletRequest request, Map<String, String> params) {
+        String token = request.getHeader("X-Sms-Token");
+        return callbackToken != null && token != null
+                && MessageDigest.isEqual(callbackToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,243 @@
+package com.calzone.financial.sms;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends queued {@link SmsMessage}s through the configured {@link SmsProvider} off the request thread.
+ *
+ * <p>Each poll claims the due messages, oldest first, with {@code SKIP LOCKED} and pushes their
+ * next attempt out by {@code sms.dispatch.lease-seconds}, so other instances and later polls leave
+ * them alone. Claimed messages are handed, without waiting, to a pool of
+ * {@code sms.dispatch.threads}, which bounds the requests open against the gateway. Sends are
+ * paced to the provider's {@link SmsProvider#ratePerSecond()}, so a burst of OTP requests queues
+ * here instead of being throttled by the gateway. Outcomes collected since the last poll are
+ * written in one transaction at the start of the next; retryable failures back off exponentially
+ * and fail for good after {@code sms.dispatch.max-attempts}.
+ *
+ * <p>Queue depth is published as {@code sms.outbox.depth}, the time from queueing to sending as
+ * {@code sms.outbox.latency} and outcomes as {@code sms.outbox.dispatch}. At most one poll's worth
+ * of messages is in flight per instance.
+ */
+@Component
+public class SmsDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsDispatcher.class);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(10);
+
+    private record Outcome(String providerMessageId, String error, boolean retryable) {}
+
+    private final SmsMessageRepository repository;
+    private final SmsProvider provider;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService pool;
+    private final Pacer pacer;
+    private final int pollSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final Duration lease;
+    private final Map<Long, Outcome> outcomes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong depth = new AtomicLong();
+    private final Timer latency;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public SmsDispatcher(SmsMessageRepository repository, SmsProvider provider,
+                         PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                         @Value("${sms.dispatch.threads:4}") int threads,
+                         @Value("${sms.dispatch.poll-size:100}") int pollSize,
+                         @Value("${sms.dispatch.max-attempts:5}") int maxAttempts,
+                         @Value("${sms.outbox.retention-days:30}") int retentionDays,
+                         @Value("${sms.dispatch.lease-seconds:300}") int leaseSeconds) {
+        this.repository = repository;
+        this.provider = provider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("sms-", 0).daemon().factory());
+        this.pacer = new Pacer(provider.ratePerSecond());
+        // About five seconds of sends per poll, so outcomes are written soon after the gateway has them
+        double perPoll = provider.ratePerSecond() > 0 ? provider.ratePerSecond() * 5 : pollSize;
+        this.pollSize = (int) Math.max(threads, Math.min(pollSize, perPoll));
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofDays(retentionDays);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        Gauge.builder("sms.outbox.depth", depth, AtomicLong::get)
+                .description("Text messages waiting to be sent").register(meterRegistry);
+        this.latency = Timer.builder("sms.outbox.latency")
+                .description("Time from queueing a text message to the gateway accepting it").register(meterRegistry);
+        this.sent = Counter.builder("sms.outbox.dispatch").tag("provider", provider.name()).tag("result", "sent")
+                .register(meterRegistry);
+        this.retried = Counter.builder("sms.outbox.dispatch").tag("provider", provider.name()).tag("result", "retry")
+                .register(meterRegistry);
+        this.failed = Counter.builder("sms.outbox.dispatch").tag("provider", provider.name()).tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${sms.dispatch.poll-ms:500}")
+    public void poll() {
+        recordOutcomes(drainOutcomes());
+        int room = pollSize - inFlight.get();
+        if (room <= 0) return;
+        List<SmsMessage> due;
+        try {
+            depth.set(repository.countByStatus(SmsMessage.Status.QUEUED));
+            due = transactionTemplate.execute(status -> claimDue(room));
+        } catch (RuntimeException e) {
+            logger.warn("SMS outbox poll failed: {}", e.getMessage());
+            return;
+        }
+        if (due == null) return;
+
+        for (SmsMessage message : due) {
+            inFlight.incrementAndGet();
+            try {
+                pool.execute(() -> {
+                    try {
+                        outcomes.put(message.getId(), send(message));
+                    } catch (InterruptedException e) {
+                        // Shutting down; the lease runs out and the message is sent again
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    @Scheduled(cron = "${sms.outbox.cleanup-cron:0 50 3 * * *}")
+    public void cleanup() {
+        try {
+            Integer removed = transactionTemplate.execute(status ->
+                    repository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+            if (removed != null && removed > 0) {
+                logger.info("Removed {} processed text messages from the outbox", removed);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("SMS outbox cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+        // Messages the gateway already accepted must not be sent again after the lease
+        recordOutcomes(drainOutcomes());
+    }
+
+    private List<SmsMessage> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<SmsMessage> due = repository.findDueForUpdate(now, PageRequest.of(0, limit));
+        due.forEach(message -> message.claim(now.plus(lease)));
+        return due;
+    }
+
+    private Map<Long, Outcome> drainOutcomes() {
+        Map<Long, Outcome> drained = new HashMap<>();
+        for (Long id : outcomes.keySet()) {
+            Outcome outcome = outcomes.remove(id);
+            if (outcome != null) drained.put(id, outcome);
+        }
+        return drained;
+    }
+
+    private Outcome send(SmsMessage message) throws InterruptedException {
+        pacer.acquire();
+        try {
+            return new Outcome(provider.send(message.getRecipient(), message.getBody()), null, false);
+        } catch (SmsSendException e) {
+            return new Outcome(null, e.getMessage(), e.isRetryable());
+        } catch (RuntimeException e) {
+            return new Outcome(null, e.getMessage(), true);
+        }
+    }
+
+    private void recordOutcomes(Map<Long, Outcome> outcomes) {
+        if (outcomes.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (SmsMessage message : repository.findAllById(outcomes.keySet())) {
+                    if (message.getStatus() != SmsMessage.Status.QUEUED) continue;
+                    Outcome outcome = outcomes.get(message.getId());
+                    if (outcome.error() == null) {
+                        message.markSent(provider.name(), outcome.providerMessageId());
+                        sent.increment();
+                        latency.record(Duration.between(message.getCreatedAt(), now));
+                        continue;
+                    }
+                    boolean giveUp = !outcome.retryable() || message.getAttempts() + 1 >= maxAttempts;
+                    long backoffSeconds = Math.min(1L << Math.min(message.getAttempts() + 1, 20), MAX_BACKOFF.toSeconds());
+                    message.markFailed(outcome.error(), now.plusSeconds(backoffSeconds), giveUp);
+                    if (giveUp) {
+                        failed.increment();
+                        logger.error("Text message {} to {} failed after {} attempts: {}", message.getId(),
+                                message.getRecipient(), message.getAttempts(), outcome.error());
+                    } else {
+                        retried.increment();
+                        logger.warn("Text message {} to {} failed, retrying in {}s: {}", message.getId(),
+                                message.getRecipient(), backoffSeconds, outcome.error());
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The messages stay QUEUED and are sent again once their lease runs out
+            logger.warn("Could not record the outcome of {} text messages: {}", outcomes.size(), e.getMessage());
+        }
+    }
+
+    /** Spaces sends evenly at a fixed rate across the pool's threads. */
+    private static final class Pacer {
+
+        private final long intervalNanos;
+        private long nextFree = System.nanoTime();
+
+        Pacer(double ratePerSecond) {
+            this.intervalNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+        }
+
+        void acquire() throws InterruptedException {
+            if (intervalNanos == 0) return;
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                // Idle time does not bank permits, so a burst after a quiet spell is still paced
+                long slot = Math.max(nextFree, now);
+                nextFree = slot + intervalNanos;
+                wait = slot - now;
+            }
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.calzone.financial.sms;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A text message queued by {@link SmsService}, sent by {@link SmsDispatcher} and then tracked
+ * through the provider's delivery callbacks.
+ */
+@Entity
+@Table(name = "sms_outbox", indexes = {
+        @Index(name = "idx_sms_outbox_status_due", columnList = "status, next_attempt_at, id"),
+        @Index(name = "idx_sms_outbox_provider_id", columnList = "provider, provider_message_id"),
+        @Index(name = "idx_sms_outbox_created_at", columnList = "created_at")
+})
+public class SmsMessage {
+
+    /**
+     * QUEUED until the gateway accepts it, then SENT, and DELIVERED or UNDELIVERED once the
+     * gateway reports back. FAILED when the gateway refused it for good or retries ran out.
+     */
+    public enum Status {
+        QUEUED, SENT, DELIVERED, UNDELIVERED, FAILED;
+
+        public boolean isFinal() {
+            return this == DELIVERED || this == UNDELIVERED || this == FAILED;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false, length = 32)
+    private String recipient;
+
+    @Column(name = "body", length = 1600, nullable = false)
+    private String body;
+
+    @Column(name = "status", length = 12, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.QUEUED;
+
+    @Column(name = "provider", length = 20)
+    private String provider;
+
+    @Column(name = "provider_message_id", length = 64)
+    private String providerMessageId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    public SmsMessage() {}
+
+    public SmsMessage(String recipient, String body) {
+        this.recipient = recipient;
+        this.body = body;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public Long getId() { return id; }
+    public String getRecipient() { return recipient; }
+    public String getBody() { return body; }
+    public Status getStatus() { return status; }
+    public String getProvider() { return provider; }
+    public String getProviderMessageId() { return providerMessageId; }
+    public int getAttempts() { return attempts; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getSentAt() { return sentAt; }
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+
+    // Not due again until the lease runs out, unless the dispatcher records an outcome first
+    void claim(LocalDateTime leaseUntil) {
+        nextAttemptAt = leaseUntil;
+    }
+
+    // The body may hold a one-time code, so it is not kept once the gateway has it
+    void markSent(String provider, String providerMessageId) {
+        this.provider = provider;
+        this.providerMessageId = providerMessageId;
+        this.body = "";
+        this.status = Status.SENT;
+        this.sentAt = LocalDateTime.now();
+        this.lastError = null;
+    }
+
+    void markFailed(String error, LocalDateTime retryAt, boolean giveUp) {
+        attempts++;
+        lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (giveUp) {
+            body = "";
+            status = Status.FAILED;
+        } else {
+            nextAttemptAt = retryAt;
+        }
+    }
+
+    /** Applies a delivery report; reports arriving after a final status are ignored. */
+    boolean markReported(Status reported, String error) {
+        if (status.isFinal() || reported == status) {
+            return false;
+        }
+        status = reported;
+        if (reported == Status.DELIVERED) {
+            deliveredAt = LocalDateTime.now();
+        }
+        if (error != null) {
+            lastError = error;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.calzone.financial.sms;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SmsMessageRepository extends JpaRepository<SmsMessage, Long> {
+
+    // SKIP LOCKED: messages another instance is claiming right now are left to it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM SmsMessage m WHERE m.status = com.calzone.financial.sms.SmsMessage.Status.QUEUED "
+            + "AND m.nextAttemptAt <= :now ORDER BY m.id")
+    List<SmsMessage> findDueForUpdate(@Param("now") LocalDateTime now, Pageable page);
+
+    long countByStatus(SmsMessage.Status status);
+
+    Optional<SmsMessage> findByProviderAndProviderMessageId(String provider, String providerMessageId);
+
+    @Modifying
+    @Query("DELETE FROM SmsMessage m WHERE m.status <> com.calzone.financial.sms.SmsMessage.Status.QUEUED AND m.createdAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
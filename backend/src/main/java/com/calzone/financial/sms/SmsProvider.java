@@ -0,0 +1,31 @@
+package com.calzone.financial.sms;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Map;
+
+/**
+ * Hands one text message to an SMS gateway. {@code sms.provider} picks the implementation:
+ * {@code mock} (the default, {@link MockHttpSmsProvider}) or {@code twilio} ({@link TwilioSmsProvider}).
+ */
+public interface SmsProvider {
+
+    /** Stored with each message, so delivery callbacks can be matched to the provider. */
+    String name();
+
+    /** Messages per second the gateway accepts from this account; {@link SmsDispatcher} paces to it. */
+    double ratePerSecond();
+
+    /**
+     * @return the gateway's id for the message, used to match delivery callbacks
+     * @throws SmsSendException if the gateway did not accept the message
+     */
+    String send(String to, String body);
+
+    /**
+     * Checks that a delivery report posted to {@link SmsStatusController} comes from this gateway.
+     *
+     * @param params the report's form parameters
+     */
+    boolean isAuthenticCallback(HttpServletRequest request, Map<String, String> params);
+}
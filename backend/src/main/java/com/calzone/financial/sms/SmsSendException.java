@@ -0,0 +1,19 @@
+package com.calzone.financial.sms;
+
+/**
+ * The gateway did not accept a message. Retryable failures (timeouts, throttling, 5xx) are tried
+ * again with backoff; the rest, such as an invalid number, fail the message at once.
+ */
+public class SmsSendException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public SmsSendException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -1,19 +1,56 @@
 package com.calzone.financial.sms;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Locale;
+
+/**
+ * Queues text messages in {@code sms_outbox}; {@link SmsDispatcher} sends them through the
+ * configured {@link SmsProvider}. Callers return as soon as the message is stored; delivery
+ * reports from the gateway then move it to DELIVERED or UNDELIVERED.
+ */
 @Service
 public class SmsService {
 
-    @Value("${sms.authToken:xxxxxyyyyy}")
-    private String authToken;
+    private static final Logger logger = LoggerFactory.getLogger(SmsService.class);
+
+    private final SmsMessageRepository repository;
 
-    @Value("${twilio.fromPhone:+15017122661}")
-    private String fromPhone;
+    public SmsService(SmsMessageRepository repository) {
+        this.repository = repository;
+    }
+
+    @Transactional
+    public SmsMessage send(String to, String message) {
+        return repository.save(new SmsMessage(to, message));
+    }
 
-    // In production, integrate Twilio/MSG91 here. For now, log the message with token stub.
-    public void send(String to, String message) {
-        System.out.printf("[sms-mock] To: %s | From: %s | Token: %s | Message: %s%n", to, fromPhone, authToken, message);
+    /**
+     * Applies a gateway delivery report. Intermediate statuses (queued, sending, sent) and reports
+     * for unknown messages are ignored.
+     *
+     * @param reportedStatus the gateway's status name, e.g. Twilio's {@code MessageStatus}
+     * @return whether the message changed
+     */
+    @Transactional
+    public boolean recordDeliveryReport(String provider, String providerMessageId, String reportedStatus, String errorCode) {
+        SmsMessage.Status status = switch (reportedStatus == null ? "" : reportedStatus.toLowerCase(Locale.ROOT)) {
+            case "delivered", "read" -> SmsMessage.Status.DELIVERED;
+            case "undelivered" -> SmsMessage.Status.UNDELIVERED;
+            case "failed", "canceled" -> SmsMessage.Status.FAILED;
+            default -> null;
+        };
+        if (status == null || providerMessageId == null) {
+            return false;
+        }
+        SmsMessage message = repository.findByProviderAndProviderMessageId(provider, providerMessageId).orElse(null);
+        if (message == null) {
+            logger.debug("Delivery report for unknown {} message {}", provider, providerMessageId);
+            return false;
+        }
+        return message.markReported(status, errorCode == null || errorCode.isBlank() ? null : "Error code " + errorCode);
     }
 }
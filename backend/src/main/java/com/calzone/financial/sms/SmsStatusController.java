@@ -0,0 +1,42 @@
+package com.calzone.financial.sms;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+/**
+ * Delivery reports from the SMS gateway, posted as a form with {@code MessageSid},
+ * {@code MessageStatus} and optionally {@code ErrorCode} (Twilio's status callback). Open to
+ * unauthenticated requests; the active {@link SmsProvider} checks the report's signature.
+ */
+@RestController
+@RequestMapping("/api/sms")
+public class SmsStatusController {
+
+    private final SmsService smsService;
+    private final SmsProvider provider;
+
+    public SmsStatusController(SmsService smsService, SmsProvider provider) {
+        this.smsService = smsService;
+        this.provider = provider;
+    }
+
+    @PostMapping(path = "/status", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Void> status(@RequestParam Map<String, String> params, HttpServletRequest request) {
+        if (!provider.isAuthenticCallback(request, params)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid callback signature");
+        }
+        smsService.recordDeliveryReport(provider.name(), params.get("MessageSid"), params.get("MessageStatus"),
+                params.get("ErrorCode"));
+        // Unknown or stale reports are acknowledged too, otherwise the gateway keeps retrying them
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.calzone.financial.sms;
+
+import com.twilio.Twilio;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.api.v2010.account.MessageCreator;
+import com.twilio.security.RequestValidator;
+import com.twilio.type.PhoneNumber;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Sends through Twilio's Messages API. Numbers are stored as bare digits, so ten-digit numbers
+ * get {@code sms.twilio.default-country-code} and longer ones a leading {@code +}. When
+ * {@code sms.status-callback-url} is set Twilio reports delivery there ({@link SmsStatusController}).
+ */
+@Component
+@ConditionalOnProperty(name = "sms.provider", havingValue = "twilio")
+public class TwilioSmsProvider implements SmsProvider {
+
+    public static final String NAME = "twilio";
+
+    private final RequestValidator requestValidator;
+    private final PhoneNumber from;
+    private final String defaultCountryCode;
+    private final URI statusCallback;
+    private final double ratePerSecond;
+
+    public TwilioSmsProvider(@Value("${twilio.accountSid}") String accountSid,
+                             @Value("${twilio.authToken}") String authToken,
+                             @Value("${twilio.fromPhone}") String fromPhone,
+                             @Value("${sms.twilio.default-country-code:91}") String defaultCountryCode,
+                             @Value("${sms.status-callback-url:}") String statusCallbackUrl,
+                             @Value("${sms.twilio.rate-per-second:1}") double ratePerSecond) {
+        if (accountSid == null || accountSid.isBlank() || authToken == null || authToken.isBlank()) {
+            throw new IllegalStateException("sms.provider=twilio requires twilio.accountSid and twilio.authToken");
+        }
+        Twilio.init(accountSid, authToken);
+        this.requestValidator = new RequestValidator(authToken);
+        this.from = new PhoneNumber(fromPhone);
+        this.defaultCountryCode = defaultCountryCode;
+        this.statusCallback = statusCallbackUrl == null || statusCallbackUrl.isBlank() ? null : URI.create(statusCallbackUrl);
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public double ratePerSecond() {
+        return ratePerSecond;
+    }
+
+    @Override
+    public String send(String to, String body) {
+        MessageCreator creator = Message.creator(new PhoneNumber(toE164(to)), from, body);
+        if (statusCallback != null) {
+            creator.setStatusCallback(statusCallback);
+        }
+        try {
+            return creator.create().getSid();
+        } catch (ApiConnectionException e) {
+            throw new SmsSendException(e.getMessage(), true, e);
+        } catch (ApiException e) {
+            Integer status = e.getStatusCode();
+            // 4xx other than throttling means the request itself is wrong (bad number, blocked, ...)
+            boolean retryable = status == null || status == 429 || status >= 500;
+            throw new SmsSendException(e.getMessage(), retryable, e);
+        }
+    }
+
+    @Override
+    public boolean isAuthenticCallback(HttpServletRequest request, Map<String, String> params) {
+        String signature = request.getHeader("X-Twilio-Signature");
+        if (signature == null || statusCallback == null) {
+            return false;
+        }
+        // Twilio signs the URL it was given, which behind a proxy differs from the request URL
+        return requestValidator.validate(statusCallback.toString(), params, signature);
+    }
+
+    private String toE164(String phone) {
+        if (phone.startsWith("+")) return phone;
+        return phone.length() == 10 ? "+" + defaultCountryCode + phone : "+" + phone;
+    }
+}
@@ -0,0 +1,27 @@
+package com.calzone.financial.storage;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    // Insert-or-increment in one statement so concurrent uploads of the same bytes cannot race
+    @Modifying
+    @Query(value = "INSERT INTO content_blobs (sha256, size_bytes, ref_count, created_at) VALUES (:sha256, :size, 1, NOW(6)) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    int acquire(@Param("sha256") String sha256, @Param("size") long size);
+
+    @Modifying
+    @Query("UPDATE ContentBlob b SET b.refCount = b.refCount - 1 WHERE b.sha256 = :sha256 AND b.refCount > 0")
+    int release(@Param("sha256") String sha256);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ContentBlob b WHERE b.sha256 = :sha256")
+    Optional<ContentBlob> findForUpdate(@Param("sha256") String sha256);
+}
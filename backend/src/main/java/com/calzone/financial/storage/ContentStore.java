@@ -0,0 +1,194 @@
+package com.calzone.financial.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store shared by every upload path. Files are keyed by the SHA-256 of
+ * their bytes, so identical uploads (the same PAN/Aadhaar scan sent again and again) are kept
+ * once on disk; {@code content_blobs} counts the rows referencing each file.
+ *
+ * <p>Callers keep the returned digest on their own row and call {@link #release} when that row
+ * stops pointing at it. Both operations join the caller's transaction: a rolled back upload
+ * gives its reference back, and a file is only deleted after the last release has committed.
+ */
+@Service
+public class ContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentStore.class);
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final HexFormat HEX = HexFormat.of();
+
+    public record StoredContent(String sha256, long size) {}
+
+    private final ContentBlobRepository blobRepository;
+    private final TransactionTemplate collectTransaction;
+    private final Path root;
+    private final Path incoming;
+    private final Counter newBlobs;
+    private final Counter duplicateBlobs;
+
+    public ContentStore(ContentBlobRepository blobRepository, PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry, @Value("${content-store.dir:data/content}") String rootDir) {
+        this.blobRepository = blobRepository;
+        this.collectTransaction = new TransactionTemplate(transactionManager);
+        this.collectTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.root = Paths.get(rootDir).toAbsolutePath().normalize();
+        // Same file system as the blobs, so finished uploads can be renamed into place
+        this.incoming = root.resolve("incoming");
+        try {
+            Files.createDirectories(incoming);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not initialize content store at " + root, e);
+        }
+        this.newBlobs = Counter.builder("content.store.writes").tag("result", "new")
+                .description("Uploads that added a new blob to the content store").register(meterRegistry);
+        this.duplicateBlobs = Counter.builder("content.store.writes").tag("result", "duplicate")
+                .description("Uploads whose bytes were already stored").register(meterRegistry);
+    }
+
+    @Transactional(rollbackFor = IOException.class)
+    public StoredContent put(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return put(in);
+        }
+    }
+
+    /**
+     * Streams {@code content} to a scratch file, hashing it on the way, and takes a reference on
+     * the blob with that digest. When the bytes are already stored only the count changes and
+     * the scratch file is discarded.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public StoredContent put(InputStream content) throws IOException {
+        Path scratch = Files.createTempFile(incoming, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(scratch), digest)) {
+                size = content.transferTo(out);
+            }
+            String sha256 = HEX.formatHex(digest.digest());
+
+            // The upsert locks the row until commit, which serializes this with collect() below
+            boolean duplicate = blobRepository.acquire(sha256, size) > 1;
+            Path target = path(sha256);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(scratch, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException ignored) {
+                    // Same digest, same bytes: whichever copy landed first is fine
+                }
+            }
+            (duplicate ? duplicateBlobs : newBlobs).increment();
+
+            afterCompletion(committed -> {
+                if (!committed) collect(sha256);
+            });
+            return new StoredContent(sha256, size);
+        } finally {
+            Files.deleteIfExists(scratch);
+        }
+    }
+
+    /** Drops one reference; the file is deleted after commit if nothing else points at it. */
+    @Transactional
+    public void release(String sha256) {
+        if (sha256 == null) return;
+        blobRepository.release(sha256);
+        afterCompletion(committed -> {
+            if (committed) collect(sha256);
+        });
+    }
+
+    public Path path(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Invalid content hash: " + sha256);
+        }
+        // Two levels of fan-out keep directories small
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    /** Returns a streaming handle on the content; nothing is read until the caller does. */
+    public Resource open(String sha256) {
+        return new FileSystemResource(path(sha256));
+    }
+
+    /** The digest identifies the bytes exactly, so it doubles as a strong ETag. */
+    public static String etag(String sha256) {
+        return "\"" + sha256 + "\"";
+    }
+
+    // Runs in its own transaction once the caller's has finished. The row is read FOR UPDATE, so
+    // a concurrent put() of the same bytes either commits first (and the file stays) or waits
+    // until the file is gone and then writes it again.
+    private void collect(String sha256) {
+        try {
+            collectTransaction.executeWithoutResult(status -> {
+                Optional<ContentBlob> blob = blobRepository.findForUpdate(sha256);
+                if (blob.isPresent() && blob.get().getRefCount() > 0) {
+                    return;
+                }
+                blob.ifPresent(blobRepository::delete);
+                try {
+                    Files.deleteIfExists(path(sha256));
+                } catch (IOException e) {
+                    logger.warn("Failed to delete blob {}: {}", sha256, e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to collect blob {}: {}", sha256, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -5,19 +5,32 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class ApplicationUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
 
-    public ApplicationUserDetailsService(UserRepository userRepository) {
+    public ApplicationUserDetailsService(UserRepository userRepository, UserPrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
+    /**
+     * Returns a detached principal built from the cached {@link UserAuthSnapshot}. The image and
+     * KYC BLOBs are not loaded; callers that need them must read the user by id.
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        return principalCache.get(email, this::loadSnapshot)
+                .map(UserAuthSnapshot::toUser)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return user;
+    }
+
+    private Optional<UserAuthSnapshot> loadSnapshot(String email) {
+        return userRepository.findAuthSnapshotByEmail(email)
+                .map(snapshot -> snapshot.withRoles(userRepository.findRoleNamesByUserId(snapshot.id())));
     }
 }
@@ -4,19 +4,20 @@ import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
+import com.calzone.financial.admin.DashboardEntityListener;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
@@ -25,6 +26,7 @@ import jakarta.persistence.UniqueConstraint;
 
 @Entity(name = "com_calzone_financial_user_User")
 @Table(name = "users", uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email"))
+@EntityListeners(DashboardEntityListener.class)
 public class User implements UserDetails {
 
     @Id
@@ -63,12 +65,7 @@ public class User implements UserDetails {
     @Column(columnDefinition = "TEXT")
     private String address;
 
-    // Profile image stored as binary data in database
-    @Lob
-    @Column(name = "profile_image", columnDefinition = "LONGBLOB")
-    private byte[] profileImage;
-
-    // Content type of the profile image (e.g., "image/png")
+    // Content type of the profile image (e.g., "image/png"); the bytes live in UserAssetStore
     @Column(name = "profile_image_type")
     private String profileImageType;
 
@@ -101,22 +98,13 @@ public class User implements UserDetails {
     @Column(name = "bank_name")
     private String bankName;
 
-    // Documents (Blobs)
-    @Lob
-    @Column(name = "aadhaar_front", columnDefinition = "LONGBLOB")
-    private byte[] aadhaarFront;
+    // Documents: content types only, the files live in UserAssetStore
     @Column(name = "aadhaar_front_type")
     private String aadhaarFrontType;
 
-    @Lob
-    @Column(name = "aadhaar_back", columnDefinition = "LONGBLOB")
-    private byte[] aadhaarBack;
     @Column(name = "aadhaar_back_type")
     private String aadhaarBackType;
 
-    @Lob
-    @Column(name = "pan_card", columnDefinition = "LONGBLOB")
-    private byte[] panCard;
     @Column(name = "pan_card_type")
     private String panCardType;
 
@@ -227,14 +215,6 @@ public class User implements UserDetails {
         this.address = address;
     }
 
-    public byte[] getProfileImage() {
-        return profileImage;
-    }
-
-    public void setProfileImage(byte[] profileImage) {
-        this.profileImage = profileImage;
-    }
-
     public String getProfileImageType() {
         return profileImageType;
     }
@@ -273,21 +253,12 @@ public class User implements UserDetails {
     public String getBankName() { return bankName; }
     public void setBankName(String bankName) { this.bankName = bankName; }
 
-    public byte[] getAadhaarFront() { return aadhaarFront; }
-    public void setAadhaarFront(byte[] aadhaarFront) { this.aadhaarFront = aadhaarFront; }
-
     public String getAadhaarFrontType() { return aadhaarFrontType; }
     public void setAadhaarFrontType(String aadhaarFrontType) { this.aadhaarFrontType = aadhaarFrontType; }
 
-    public byte[] getAadhaarBack() { return aadhaarBack; }
-    public void setAadhaarBack(byte[] aadhaarBack) { this.aadhaarBack = aadhaarBack; }
-
     public String getAadhaarBackType() { return aadhaarBackType; }
     public void setAadhaarBackType(String aadhaarBackType) { this.aadhaarBackType = aadhaarBackType; }
 
-    public byte[] getPanCard() { return panCard; }
-    public void setPanCard(byte[] panCard) { this.panCard = panCard; }
-
     public String getPanCardType() { return panCardType; }
     public void setPanCardType(String panCardType) { this.panCardType = panCardType; }
 
@@ -334,9 +305,45 @@ public class User implements UserDetails {
         return enabled != null ? enabled : true;
     }
 
-    // Helper method to check if a profile image exists
+    // Helper method to check if a profile image exists. The content type is written whenever
+    // UserAssetStore stores the image, so no binary data needs to be read.
     public boolean hasProfileImage() {
-        return this.profileImage != null && this.profileImage.length > 0;
+        return this.profileImageType != null && !this.profileImageType.isBlank();
+    }
+
+    public String getAssetType(UserAssetKind kind) {
+        return switch (kind) {
+            case PROFILE_IMAGE -> profileImageType;
+            case AADHAAR_FRONT -> aadhaarFrontType;
+            case AADHAAR_BACK -> aadhaarBackType;
+            case PAN_CARD -> panCardType;
+        };
+    }
+
+    public void setAssetType(UserAssetKind kind, String contentType) {
+        switch (kind) {
+            case PROFILE_IMAGE -> profileImageType = contentType;
+            case AADHAAR_FRONT -> aadhaarFrontType = contentType;
+            case AADHAAR_BACK -> aadhaarBackType = contentType;
+            case PAN_CARD -> panCardType = contentType;
+        }
+    }
+
+    // ==================== Token Principal ====================
+    /**
+     * Builds a detached principal from verified JWT claims. Only identity and role fields are
+     * populated; the instance is never attached to a persistence context, so callers that need
+     * the full profile must load the row themselves.
+     */
+    public static User fromClaims(Long id, String email, String fullName, java.util.Collection<String> roleNames) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setFullName(fullName);
+        for (String roleName : roleNames) {
+            user.getRoles().add(new Role(roleName));
+        }
+        return user;
     }
 
     // ==================== Builder Pattern ====================
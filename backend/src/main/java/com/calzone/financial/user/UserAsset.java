@@ -0,0 +1,58 @@
+package com.calzone.financial.user;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Metadata for a user-owned file. The bytes live in the shared content store, never on the
+ * {@code users} row, so user listings stay free of binary data.
+ */
+@Entity
+@Table(name = "user_assets", uniqueConstraints = @UniqueConstraint(name = "uk_user_assets_user_kind", columnNames = {"user_id", "kind"}))
+public class UserAsset {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private UserAssetKind kind;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long size;
+
+    // SHA-256 of the content in ContentStore
+    @Column(name = "content_sha256", length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt = Instant.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public UserAssetKind getKind() { return kind; }
+    public void setKind(UserAssetKind kind) { this.kind = kind; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,12 @@
+package com.calzone.financial.user;
+
+/**
+ * Binary attachments a user can own. Each kind maps to the {@code *_type} column on
+ * {@code users} that records its content type and doubles as the "present" marker.
+ */
+public enum UserAssetKind {
+    PROFILE_IMAGE,
+    AADHAAR_FRONT,
+    AADHAAR_BACK,
+    PAN_CARD
+}
@@ -0,0 +1,12 @@
+package com.calzone.financial.user;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserAssetRepository extends JpaRepository<UserAsset, Long> {
+    Optional<UserAsset> findByUserIdAndKind(Long userId, UserAssetKind kind);
+
+    List<UserAsset> findByUserId(Long userId);
+}
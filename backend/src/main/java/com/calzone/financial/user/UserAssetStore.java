@@ -0,0 +1,83 @@
+package com.calzone.financial.user;
+
+import com.calzone.financial.storage.ContentStore;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Store for user images and KYC scans. Metadata is kept in {@code user_assets}; the bytes go
+ * through {@link ContentStore}, so a scan that many users upload is kept on disk only once.
+ */
+@Service
+public class UserAssetStore {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final UserAssetRepository assetRepository;
+    private final ContentStore contentStore;
+
+    public UserAssetStore(UserAssetRepository assetRepository, ContentStore contentStore) {
+        this.assetRepository = assetRepository;
+        this.contentStore = contentStore;
+    }
+
+    @Transactional(rollbackFor = IOException.class)
+    public UserAsset store(User user, UserAssetKind kind, MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(user, kind, in, file.getContentType());
+        }
+    }
+
+    /**
+     * Streams {@code content} into the content store and records it as the user's asset of the
+     * given kind, releasing the previous content. Also sets the matching {@code *_type} column
+     * on the (managed) user.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public UserAsset store(User user, UserAssetKind kind, InputStream content, String contentType) throws IOException {
+        if (user.getId() == null) {
+            throw new IllegalArgumentException("User must be saved before storing assets");
+        }
+        String type = contentType != null && !contentType.isBlank() ? contentType : DEFAULT_CONTENT_TYPE;
+        ContentStore.StoredContent stored = contentStore.put(content);
+
+        UserAsset asset = assetRepository.findByUserIdAndKind(user.getId(), kind).orElseGet(UserAsset::new);
+        String previousHash = asset.getContentHash();
+        asset.setUserId(user.getId());
+        asset.setKind(kind);
+        asset.setContentType(type);
+        asset.setSize(stored.size());
+        asset.setContentHash(stored.sha256());
+        asset.setUpdatedAt(Instant.now());
+        UserAsset saved = assetRepository.save(asset);
+        user.setAssetType(kind, type);
+
+        contentStore.release(previousHash);
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserAsset> find(Long userId, UserAssetKind kind) {
+        return assetRepository.findByUserIdAndKind(userId, kind);
+    }
+
+    /** Returns a streaming handle on the asset's content; nothing is read until the caller does. */
+    public Resource open(UserAsset asset) {
+        return contentStore.open(asset.getContentHash());
+    }
+
+    @Transactional
+    public void deleteAll(Long userId) {
+        for (UserAsset asset : assetRepository.findByUserId(userId)) {
+            assetRepository.delete(asset);
+            contentStore.release(asset.getContentHash());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.calzone.financial.user;
+
+import java.util.List;
+
+/**
+ * Slim, immutable view of a user holding only what authentication needs. Loaded with a
+ * projection query so the image/KYC BLOB columns are never read.
+ */
+public record UserAuthSnapshot(
+        Long id,
+        String email,
+        String fullName,
+        String phone,
+        String passwordHash,
+        Boolean enabled,
+        String profileImageType,
+        List<String> roles
+) {
+    // Used by the JPQL constructor expression; roles are loaded by a second query
+    public UserAuthSnapshot(Long id, String email, String fullName, String phone, String passwordHash,
+                            Boolean enabled, String profileImageType) {
+        this(id, email, fullName, phone, passwordHash, enabled, profileImageType, List.of());
+    }
+
+    public UserAuthSnapshot withRoles(List<String> roles) {
+        return new UserAuthSnapshot(id, email, fullName, phone, passwordHash, enabled, profileImageType, List.copyOf(roles));
+    }
+
+    /**
+     * Materializes a detached principal. It is never attached to a persistence context,
+     * so services that modify the user must load the entity by id first.
+     */
+    public User toUser() {
+        User user = User.fromClaims(id, email, fullName, roles);
+        user.setPhone(phone);
+        user.setPassword(passwordHash);
+        user.setEnabled(enabled);
+        user.setProfileImageType(profileImageType);
+        return user;
+    }
+}
@@ -0,0 +1,8 @@
+package com.calzone.financial.user;
+
+/**
+ * Published whenever a user row is modified or removed, so in-memory views of the user
+ * (e.g. {@link UserPrincipalCache}) can be dropped once the change is committed.
+ */
+public record UserChangedEvent(Long userId) {
+}
@@ -1,7 +1,7 @@
 package com.calzone.financial.user;
 
 import com.calzone.financial.auth.dto.UserProfile;
-import org.springframework.core.io.ByteArrayResource;
+import com.calzone.financial.storage.ContentStore;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,10 +19,12 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final UserService userService;
+    private final UserAssetStore userAssetStore;
 
-    public UserController(UserRepository userRepository, UserService userService) {
+    public UserController(UserRepository userRepository, UserService userService, UserAssetStore userAssetStore) {
         this.userRepository = userRepository;
         this.userService = userService;
+        this.userAssetStore = userAssetStore;
     }
 
     // ==================== GET ALL USERS ====================
@@ -75,23 +77,25 @@ public class UserController {
             return ResponseEntity.notFound().build();
         }
 
-        byte[] imageData = user.getProfileImage();
-        if (imageData == null || imageData.length == 0) {
-            return ResponseEntity.notFound().build();
-        }
+        return userAssetStore.find(user.getId(), UserAssetKind.PROFILE_IMAGE)
+                .map(this::streamAsset)
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        ByteArrayResource resource = new ByteArrayResource(imageData);
+    private ResponseEntity<Resource> streamAsset(UserAsset asset) {
         MediaType mediaType;
-
         try {
-            mediaType = MediaType.parseMediaType(user.getProfileImageType());
+            mediaType = MediaType.parseMediaType(asset.getContentType());
         } catch (Exception e) {
             mediaType = MediaType.APPLICATION_OCTET_STREAM;
         }
 
+        // FileSystemResource is copied to the response in chunks, never loaded whole
         return ResponseEntity.ok()
                 .contentType(mediaType)
-                .body(resource);
+                .contentLength(asset.getSize())
+                .eTag(ContentStore.etag(asset.getContentHash()))
+                .body(userAssetStore.open(asset));
     }
 
     // ==================== UPDATE USER PROFILE ====================
@@ -142,4 +146,19 @@ public class UserController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    // ==================== GET USER ASSET (OWNER OR ADMIN) ====================
+    @GetMapping("/{id}/assets/{kind}")
+    public ResponseEntity<Resource> getUserAsset(@AuthenticationPrincipal User user, @PathVariable Long id, @PathVariable UserAssetKind kind) {
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        boolean isAdmin = user.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (!isAdmin && !id.equals(user.getId())) {
+            return ResponseEntity.status(403).build();
+        }
+        return userAssetStore.find(id, kind)
+                .map(this::streamAsset)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
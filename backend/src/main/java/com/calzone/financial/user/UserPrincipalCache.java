@@ -0,0 +1,109 @@
+package com.calzone.financial.user;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-limited cache of {@link UserAuthSnapshot}s keyed by email. Entries are evicted
+ * when a {@link UserChangedEvent} for the user commits. Hit/miss counters are published as
+ * {@code auth.principal.cache.requests} and the size as {@code auth.principal.cache.size}.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private record Entry(UserAuthSnapshot snapshot, Instant loadedAt) {}
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Map<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Bumped by every eviction; a snapshot loaded while it moved may predate the change and is not cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserPrincipalCache(@Value("${security.principal-cache.max-size:1000}") int maxSize,
+                              @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserPrincipalCache.this.maxSize;
+            }
+        };
+
+        FunctionCounter.builder("auth.principal.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", this, UserPrincipalCache::size)
+                .register(meterRegistry);
+    }
+
+    public Optional<UserAuthSnapshot> get(String email, Function<String, Optional<UserAuthSnapshot>> loader) {
+        if (maxSize > 0) {
+            synchronized (entries) {
+                Entry entry = entries.get(email);
+                if (entry != null && entry.loadedAt().plus(ttl).isAfter(Instant.now())) {
+                    hits.incrementAndGet();
+                    return Optional.of(entry.snapshot());
+                }
+                entries.remove(email);
+            }
+        }
+        misses.incrementAndGet();
+        long seen = evictions.get();
+        Optional<UserAuthSnapshot> loaded = loader.apply(email);
+        if (maxSize > 0) {
+            loaded.ifPresent(snapshot -> {
+                synchronized (entries) {
+                    if (evictions.get() == seen) {
+                        entries.put(email, new Entry(snapshot, Instant.now()));
+                    }
+                }
+            });
+        }
+        return loaded;
+    }
+
+    public void evict(Long userId) {
+        synchronized (entries) {
+            evictions.incrementAndGet();
+            // Keyed by email, which may itself have changed; the map is small, so scan by id
+            entries.values().removeIf(entry -> entry.snapshot().id().equals(userId));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            evictions.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.userId());
+    }
+}
@@ -1,8 +1,11 @@
 package com.calzone.financial.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +17,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByPhone(String phone);
     
     boolean existsByPhone(String phone);
+
+    // Authentication projection: selects scalar columns only, never the BLOBs
+    @Query("SELECT new com.calzone.financial.user.UserAuthSnapshot(u.id, u.email, u.fullName, u.phone, u.passwordHash, u.enabled, u.profileImageType) " +
+           "FROM com_calzone_financial_user_User u WHERE u.email = :email")
+    Optional<UserAuthSnapshot> findAuthSnapshotByEmail(@Param("email") String email);
+
+    @Query("SELECT r.name FROM com_calzone_financial_user_User u JOIN u.roles r WHERE u.id = :userId")
+    List<String> findRoleNamesByUserId(@Param("userId") Long userId);
+
+    // Rows of [role name, user count]
+    @Query("SELECT r.name, COUNT(u) FROM com_calzone_financial_user_User u JOIN u.roles r GROUP BY r.name")
+    List<Object[]> countUsersByRole();
 }
@@ -1,5 +1,6 @@
 package com.calzone.financial.user;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,17 +15,25 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserAssetStore userAssetStore;
 
     // Define a constant for the maximum image size (e.g., 5MB)
     private static final long MAX_IMAGE_SIZE_BYTES = 5 * 1024 * 1024;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher,
+                       UserAssetStore userAssetStore) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.userAssetStore = userAssetStore;
     }
 
     @Transactional
-    public User updateUserProfile(User user, String fullName, String phone, String password, MultipartFile profileImage) throws IOException, IllegalArgumentException {
+    public User updateUserProfile(User principal, String fullName, String phone, String password, MultipartFile profileImage) throws IOException, IllegalArgumentException {
+        // The principal is a detached snapshot; always modify the managed row
+        User user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
         boolean changed = false;
 
         // Handle profile image update
@@ -38,8 +47,7 @@ public class UserService {
                 throw new IllegalArgumentException("Invalid image type. Only JPG, PNG, GIF, SVG are allowed.");
             }
 
-            user.setProfileImage(profileImage.getBytes());
-            user.setProfileImageType(profileImage.getContentType());
+            userAssetStore.store(user, UserAssetKind.PROFILE_IMAGE, profileImage);
             changed = true;
         }
 
@@ -62,7 +70,9 @@ public class UserService {
         }
 
         if (changed) {
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+            return saved;
         }
 
         return user;
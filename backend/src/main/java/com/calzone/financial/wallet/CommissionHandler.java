@@ -0,0 +1,49 @@
+package com.calzone.financial.wallet;
+
+import com.calzone.financial.order.OrderPaid;
+import com.calzone.financial.outbox.OutboxHandler;
+import com.calzone.financial.outbox.OutboxMessage;
+import com.calzone.financial.outbox.OutboxPublisher;
+import com.calzone.financial.user.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/** Credits a 10% commission to agents when an order they placed is paid. */
+@Component
+public class CommissionHandler implements OutboxHandler {
+
+    private static final BigDecimal COMMISSION_RATE = new BigDecimal("0.10");
+
+    private final OutboxPublisher outboxPublisher;
+    private final UserRepository userRepository;
+    private final WalletService walletService;
+
+    public CommissionHandler(OutboxPublisher outboxPublisher, UserRepository userRepository, WalletService walletService) {
+        this.outboxPublisher = outboxPublisher;
+        this.userRepository = userRepository;
+        this.walletService = walletService;
+    }
+
+    @Override
+    public String eventType() {
+        return OrderPaid.TYPE;
+    }
+
+    // Runs in the transaction that marks the message delivered; the per-order reference keeps a
+    // redelivered or republished OrderPaid from crediting twice
+    @Override
+    public void handle(OutboxMessage message) throws Exception {
+        OrderPaid paid = outboxPublisher.read(message, OrderPaid.class);
+        if (paid.userId() == null || paid.totalAmount() <= 0) return;
+        userRepository.findById(paid.userId()).ifPresent(user -> {
+            boolean isAgent = user.getRoles().stream()
+                    .anyMatch(role -> role.getName().equalsIgnoreCase("AGENT"));
+            if (isAgent) {
+                BigDecimal commission = BigDecimal.valueOf(paid.totalAmount()).multiply(COMMISSION_RATE);
+                walletService.creditOnce(user.getId(), commission, "Commission for Order #" + paid.orderId(),
+                        "COMMISSION:order:" + paid.orderId());
+            }
+        });
+    }
+}
@@ -5,7 +5,8 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "user_wallet_transactions")
+@Table(name = "user_wallet_transactions", uniqueConstraints =
+        @UniqueConstraint(name = "uk_wallet_tx_reference", columnNames = "reference"))
 public class UserWalletTransaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +24,10 @@ public class UserWalletTransaction {
 
     private String description;
 
+    // Set for credits that must happen once per business event, e.g. one commission per order
+    @Column(length = 100)
+    private String reference;
+
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
 
@@ -45,5 +50,7 @@ public class UserWalletTransaction {
     public void setType(String type) { this.type = type; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
     public Instant getCreatedAt() { return createdAt; }
 }
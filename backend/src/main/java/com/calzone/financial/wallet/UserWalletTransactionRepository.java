@@ -7,4 +7,6 @@ import java.util.List;
 @Repository
 public interface UserWalletTransactionRepository extends JpaRepository<UserWalletTransaction, Long> {
     List<UserWalletTransaction> findByWalletIdOrderByCreatedAtDesc(Long walletId);
+
+    boolean existsByReference(String reference);
 }
@@ -22,6 +22,12 @@ public class WalletService {
                 .orElseGet(() -> walletRepository.save(new Wallet(userId)));
     }
 
+    // Locked read first: a wallet already in the persistence context would not be refreshed
+    private Wallet lockWallet(Long userId) {
+        return walletRepository.findByUserIdForUpdate(userId)
+                .orElseGet(() -> walletRepository.save(new Wallet(userId)));
+    }
+
     @Transactional(readOnly = true)
     public List<UserWalletTransaction> getTransactions(Long userId) {
         Wallet wallet = getOrCreateWallet(userId);
@@ -30,7 +36,7 @@ public class WalletService {
 
     @Transactional
     public void credit(Long userId, BigDecimal amount, String description) {
-        Wallet wallet = getOrCreateWallet(userId);
+        Wallet wallet = lockWallet(userId);
         wallet.setBalance(wallet.getBalance().add(amount));
         wallet.setUpdatedAt(Instant.now());
         walletRepository.save(wallet);
@@ -38,9 +44,31 @@ public class WalletService {
         transactionRepository.save(new UserWalletTransaction(wallet, amount, "CREDIT", description));
     }
 
+    /**
+     * Credits the wallet unless a transaction with this reference already exists; the unique key
+     * on the reference backs the check against concurrent callers.
+     *
+     * @return whether the wallet was credited
+     */
+    @Transactional
+    public boolean creditOnce(Long userId, BigDecimal amount, String description, String reference) {
+        Wallet wallet = lockWallet(userId);
+        if (transactionRepository.existsByReference(reference)) {
+            return false;
+        }
+        wallet.setBalance(wallet.getBalance().add(amount));
+        wallet.setUpdatedAt(Instant.now());
+        walletRepository.save(wallet);
+
+        UserWalletTransaction transaction = new UserWalletTransaction(wallet, amount, "CREDIT", description);
+        transaction.setReference(reference);
+        transactionRepository.save(transaction);
+        return true;
+    }
+
     @Transactional
     public void debit(Long userId, BigDecimal amount, String description) {
-        Wallet wallet = getOrCreateWallet(userId);
+        Wallet wallet = lockWallet(userId);
         if (wallet.getBalance().compareTo(amount) < 0) {
             throw new IllegalArgumentException("Insufficient balance");
         }
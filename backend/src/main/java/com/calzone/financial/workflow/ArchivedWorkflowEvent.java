@@ -0,0 +1,56 @@
+package com.calzone.financial.workflow;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A {@link WorkflowEvent} moved out of {@code workflow_events} by
+ * {@link com.calzone.financial.archive.OrderArchiver}. Same columns and ids as the hot table;
+ * read back through {@link WorkflowEventHistory}.
+ */
+@Entity
+@Table(name = "workflow_events_archive", indexes = {
+        @Index(name = "idx_wf_archive_order", columnList = "orderId, createdAt"),
+        @Index(name = "idx_wf_archive_created_at", columnList = "createdAt")
+})
+public class ArchivedWorkflowEvent {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private WorkflowStage stage;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private WorkflowStatus status;
+
+    @Column
+    private String description;
+
+    @Column
+    private String details;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime updatedAt;
+
+    protected ArchivedWorkflowEvent() {}
+
+    WorkflowEvent toEvent() {
+        WorkflowEvent event = new WorkflowEvent(orderId, stage, status, description);
+        event.setId(id);
+        event.setDetails(details);
+        event.setTimestamps(createdAt, updatedAt);
+        return event;
+    }
+
+    public Long getId() { return id; }
+    public Long getOrderId() { return orderId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,22 @@
+package com.calzone.financial.workflow;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedWorkflowEventRepository extends JpaRepository<ArchivedWorkflowEvent, Long> {
+
+    List<ArchivedWorkflowEvent> findByOrderIdOrderByCreatedAtAscIdAsc(Long orderId);
+
+    List<ArchivedWorkflowEvent> findByOrderIdInOrderByOrderIdAscCreatedAtAscIdAsc(Collection<Long> orderIds);
+
+    @Query("SELECT w FROM ArchivedWorkflowEvent w WHERE w.createdAt BETWEEN :startDate AND :endDate ORDER BY w.createdAt DESC")
+    List<ArchivedWorkflowEvent> findByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                @Param("endDate") LocalDateTime endDate);
+}
@@ -0,0 +1,118 @@
+package com.calzone.financial.workflow;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Materialized per-order view of {@code workflow_events}: the latest status of each stage, the
+ * current stage and the open exceptions. {@link WorkflowService} folds every new event into it,
+ * so progress reads touch this one row instead of the order's whole event history;
+ * {@link WorkflowStateReplayer} rebuilds it from the events. Completion depends on the order's
+ * {@link WorkflowPipeline}, so progress reads compute it from the stage statuses.
+ */
+@Entity
+@Table(name = "order_workflow_state")
+public class OrderWorkflowState {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "current_stage", length = 20, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private WorkflowStage currentStage = WorkflowStage.APP_REC;
+
+    // "STAGE:STATUS,..." - the latest status seen per stage
+    @Column(name = "stage_statuses", length = 500, nullable = false)
+    private String stageStatuses = "";
+
+    // "STAGE:eventId,..." - the event that opened each exception stage that is still open
+    @Column(name = "open_exceptions", length = 500, nullable = false)
+    private String openExceptions = "";
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public OrderWorkflowState() {}
+
+    public OrderWorkflowState(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    /** Recomputes everything from the order's events, oldest first. */
+    void replay(List<WorkflowEvent> events) {
+        currentStage = WorkflowStage.APP_REC;
+        stageStatuses = "";
+        openExceptions = "";
+        events.forEach(this::apply);
+        updatedAt = LocalDateTime.now();
+    }
+
+    /** Folds in an event that is newer than everything applied so far. */
+    void apply(WorkflowEvent event) {
+        WorkflowStage stage = event.getStage();
+        WorkflowStatus status = event.getStatus();
+
+        Map<WorkflowStage, WorkflowStatus> statuses = getStageStatuses();
+        statuses.put(stage, status);
+        stageStatuses = encode(statuses);
+
+        // The latest main-stage event that did not fail names the current stage
+        if (stage.isMainStage() && status != WorkflowStatus.FAILED) {
+            currentStage = stage;
+        }
+
+        if (stage.isException()) {
+            Map<WorkflowStage, Long> open = getOpenExceptions();
+            if (status == WorkflowStatus.BLOCKED || status == WorkflowStatus.PENDING) {
+                open.put(stage, event.getId());
+            } else {
+                open.remove(stage);
+            }
+            openExceptions = encode(open);
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    public Long getOrderId() { return orderId; }
+    public WorkflowStage getCurrentStage() { return currentStage; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public Map<WorkflowStage, WorkflowStatus> getStageStatuses() {
+        Map<WorkflowStage, WorkflowStatus> map = new EnumMap<>(WorkflowStage.class);
+        for (String[] entry : entries(stageStatuses)) {
+            map.put(WorkflowStage.valueOf(entry[0]), WorkflowStatus.valueOf(entry[1]));
+        }
+        return map;
+    }
+
+    public Map<WorkflowStage, Long> getOpenExceptions() {
+        Map<WorkflowStage, Long> map = new EnumMap<>(WorkflowStage.class);
+        for (String[] entry : entries(openExceptions)) {
+            map.put(WorkflowStage.valueOf(entry[0]), Long.valueOf(entry[1]));
+        }
+        return map;
+    }
+
+    private static String[][] entries(String value) {
+        if (value == null || value.isEmpty()) return new String[0][];
+        String[] items = value.split(",");
+        String[][] entries = new String[items.length][];
+        for (int i = 0; i < items.length; i++) {
+            entries[i] = items[i].split(":", 2);
+        }
+        return entries;
+    }
+
+    private static String encode(Map<WorkflowStage, ?> map) {
+        StringBuilder out = new StringBuilder();
+        map.forEach((key, value) -> {
+            if (out.length() > 0) out.append(',');
+            out.append(key.name()).append(':').append(value);
+        });
+        return out.toString();
+    }
+}
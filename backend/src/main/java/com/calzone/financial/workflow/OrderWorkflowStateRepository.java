@@ -0,0 +1,35 @@
+package com.calzone.financial.workflow;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderWorkflowStateRepository extends JpaRepository<OrderWorkflowState, Long> {
+
+    // Creates the row if needed without racing a concurrent first event for the same order
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO order_workflow_state (order_id, current_stage, stage_statuses, open_exceptions) "
+            + "VALUES (:orderId, 'APP_REC', '', '')", nativeQuery = true)
+    int insertIfAbsent(@Param("orderId") Long orderId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OrderWorkflowState s WHERE s.orderId = :orderId")
+    Optional<OrderWorkflowState> findForUpdate(@Param("orderId") Long orderId);
+
+    @Query("SELECT s.orderId FROM OrderWorkflowState s WHERE s.orderId IN :orderIds")
+    List<Long> findExistingIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Ascending id order, so concurrent bulk writers lock rows in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OrderWorkflowState s WHERE s.orderId IN :orderIds ORDER BY s.orderId")
+    List<OrderWorkflowState> findAllForUpdate(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,314 @@
+package com.calzone.financial.workflow;
+
+import com.calzone.financial.config.SlaProperties;
+import com.calzone.financial.order.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raises the SLAB exception when an order stays in a main stage longer than its configured
+ * deadline ({@link SlaProperties}).
+ *
+ * <p>Each tracked order has exactly one live timer, for the stage it is currently in, held in a
+ * {@link DelayQueue}. A tick only takes timers that have expired, so its cost does not depend on
+ * how many orders are open. On startup the timers are rebuilt from {@code workflow_events} in one
+ * streamed pass; afterwards every tick first reads the events added since, so each instance sees
+ * every stage change, not only the outbox messages it happens to deliver. A replaced timer stays
+ * in the queue and is ignored when it expires.
+ *
+ * <p>Every instance therefore fires the same breaches. The SLAB event is written with
+ * {@link WorkflowService#createEventIf}, under the order's state row lock, only if the order is
+ * still in the stage and no SLAB has been opened since it entered it, so one instance records it
+ * and the others skip it.
+ */
+@Component
+public class SlaMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlaMonitor.class);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    private static final int FOLLOW_BATCH = 500;
+    // Event ids become visible out of order when transactions commit out of order; ids this far
+    // below the newest one seen are read again, and applied if they were missed
+    private static final long FOLLOW_LOOKBACK = 1000;
+    private static final String EVENTS = "SELECT e.id, e.order_id, e.stage, e.status, e.created_at, o.service_name "
+            + "FROM workflow_events e LEFT JOIN orders o ON o.id = e.order_id ";
+
+    private final SlaProperties properties;
+    private final WorkflowService workflowService;
+    private final WorkflowAlertRepository alertRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streamingJdbc;
+    private final Counter breaches;
+
+    private final DelayQueue<Timer> queue = new DelayQueue<>();
+    private final Map<Long, Timer> active = new ConcurrentHashMap<>();
+    // Ids of the events applied so far that are within FOLLOW_LOOKBACK of the newest; only
+    // touched by the rebuild, then by ticks once ready is set
+    private final NavigableSet<Long> seen = new TreeSet<>();
+    private long lastEventId;
+    private volatile boolean ready;
+
+    public SlaMonitor(SlaProperties properties, WorkflowService workflowService, WorkflowAlertRepository alertRepository,
+                      OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+                      DataSource dataSource, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.workflowService = workflowService;
+        this.alertRepository = alertRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.streamingJdbc = new JdbcTemplate(dataSource);
+        // Makes MySQL Connector/J stream rows instead of buffering the whole result
+        this.streamingJdbc.setFetchSize(Integer.MIN_VALUE);
+        this.breaches = Counter.builder("workflow.sla.breaches")
+                .description("SLA breaches raised as SLAB events").register(meterRegistry);
+        Gauge.builder("workflow.sla.tracked", active, Map::size)
+                .description("Orders with a running SLA timer").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        if (!properties.isEnabled()) return;
+        Thread.ofPlatform().name("sla-rebuild").daemon().start(this::rebuild);
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.sla.tick-ms:5000}")
+    public void tick() {
+        if (!ready) return;
+        try {
+            follow();
+        } catch (RuntimeException e) {
+            logger.warn("SLA monitor could not read new workflow events: {}", e.getMessage());
+        }
+        Timer timer;
+        while ((timer = queue.poll()) != null) {
+            // Superseded timers are no longer the order's entry in active
+            if (active.remove(timer.orderId, timer)) {
+                breach(timer);
+            }
+        }
+    }
+
+    void rebuild() {
+        long started = System.currentTimeMillis();
+        Fold fold = new Fold();
+        try {
+            streamingJdbc.query(EVENTS + "ORDER BY e.order_id, e.id", rs -> {
+                long id = rs.getLong("id");
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                fold.accept(id, rs.getLong("order_id"), WorkflowStage.valueOf(rs.getString("stage")),
+                        WorkflowStatus.valueOf(rs.getString("status")),
+                        createdAt != null ? createdAt.toLocalDateTime() : LocalDateTime.now(), rs.getString("service_name"));
+                lastEventId = Math.max(lastEventId, id);
+                if (id > lastEventId - FOLLOW_LOOKBACK) seen.add(id);
+            });
+            fold.finish();
+            seen.headSet(lastEventId - FOLLOW_LOOKBACK, true).clear();
+            logger.info("SLA monitor tracking {} orders (rebuilt in {} ms)", active.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("SLA monitor rebuild failed; tracking only new changes: {}", e.getMessage());
+        }
+        // Events that commit from here on, or committed under a lower id than the newest one read
+        // above, are picked up by the ticks
+        ready = true;
+    }
+
+    // Applies the events added since the last call, in id order
+    private void follow() {
+        long from = Math.max(0, lastEventId - FOLLOW_LOOKBACK);
+        int read;
+        do {
+            long[] last = {from};
+            read = jdbc.query(EVENTS + "WHERE e.id > ? ORDER BY e.id LIMIT ?", rs -> {
+                int rows = 0;
+                while (rs.next()) {
+                    rows++;
+                    long id = rs.getLong("id");
+                    last[0] = id;
+                    if (id <= lastEventId - FOLLOW_LOOKBACK || !seen.add(id)) continue;
+                    lastEventId = Math.max(lastEventId, id);
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    apply(id, rs.getLong("order_id"), WorkflowStage.valueOf(rs.getString("stage")),
+                            WorkflowStatus.valueOf(rs.getString("status")),
+                            createdAt != null ? createdAt.toLocalDateTime() : LocalDateTime.now(), rs.getString("service_name"));
+                }
+                return rows;
+            }, from, FOLLOW_BATCH);
+            from = last[0];
+        } while (read == FOLLOW_BATCH);
+        seen.headSet(lastEventId - FOLLOW_LOOKBACK, true).clear();
+    }
+
+    private void apply(long eventId, Long orderId, WorkflowStage stage, WorkflowStatus status, LocalDateTime at, String serviceName) {
+        // Exceptions (including our own SLAB events) do not move the order between stages
+        if (stage.isException()) return;
+        Timer current = active.get(orderId);
+        if (status == WorkflowStatus.COMPLETED) {
+            if (current != null && current.stage == stage) {
+                active.remove(orderId, current);
+            }
+            return;
+        }
+        // A failed attempt leaves the stage, and its clock, open
+        if (status == WorkflowStatus.FAILED) return;
+        if (current != null && current.stage == stage) return;
+
+        String service = serviceName != null ? serviceName
+                : current != null ? current.serviceName
+                : orderRepository.findServiceNameById(orderId).orElse(null);
+        arm(orderId, stage, service, eventId, at);
+    }
+
+    private void arm(Long orderId, WorkflowStage stage, String serviceName, long enteredBy, LocalDateTime enteredAt) {
+        Duration allowed = properties.deadlineFor(serviceName, stage);
+        if (allowed == null) {
+            active.remove(orderId);
+            return;
+        }
+        Timer timer = new Timer(orderId, stage, serviceName, enteredBy, allowed, enteredAt.plus(allowed));
+        active.put(orderId, timer);
+        queue.add(timer);
+    }
+
+    private void breach(Timer timer) {
+        String label = timer.stage.getLabel();
+        String message = label + " was not completed within " + describe(timer.allowed)
+                + " (due " + timer.deadline.withNano(0) + ")";
+        try {
+            Boolean recorded = transactionTemplate.execute(status -> {
+                if (workflowService.createEventIf(timer.orderId, WorkflowStage.SLAB, WorkflowStatus.BLOCKED,
+                        "SLA breach: " + label, message, state -> isUnreported(state, timer)).isEmpty()) {
+                    return false;
+                }
+                WorkflowAlert alert = new WorkflowAlert(timer.orderId, WorkflowAlert.AlertType.SLA_BREACH,
+                        "SLA breach: " + label, message);
+                alert.setActionUrl("/dashboard/orders/" + timer.orderId);
+                alertRepository.save(alert);
+                return true;
+            });
+            if (Boolean.TRUE.equals(recorded)) {
+                breaches.increment();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not record SLA breach for order {}; retrying: {}", timer.orderId, e.getMessage());
+            Timer retry = new Timer(timer.orderId, timer.stage, timer.serviceName, timer.enteredBy, timer.allowed,
+                    LocalDateTime.now().plus(RETRY_DELAY));
+            if (active.putIfAbsent(timer.orderId, retry) == null) {
+                queue.add(retry);
+            }
+        }
+    }
+
+    // Still in the stage the timer was armed for, and no SLAB opened since the order entered it;
+    // false when another instance has just recorded this breach
+    private static boolean isUnreported(OrderWorkflowState state, Timer timer) {
+        if (state.getCurrentStage() != timer.stage
+                || state.getStageStatuses().get(timer.stage) == WorkflowStatus.COMPLETED) {
+            return false;
+        }
+        Long openBreach = state.getOpenExceptions().get(WorkflowStage.SLAB);
+        return openBreach == null || openBreach < timer.enteredBy;
+    }
+
+    private static String describe(Duration duration) {
+        if (duration.toHours() % 24 == 0 && duration.toDays() > 0) return duration.toDays() + " days";
+        if (duration.toMinutes() % 60 == 0 && duration.toHours() > 0) return duration.toHours() + " hours";
+        return duration.toMinutes() + " minutes";
+    }
+
+    // Folds one order's events (in id order) into the stage it is in now and whether that stay
+    // has already been reported as a breach
+    private final class Fold {
+        private Long orderId;
+        private String serviceName;
+        private WorkflowStage stage;
+        private long enteredBy;
+        private LocalDateTime enteredAt;
+        private boolean breached;
+
+        void accept(long rowId, long rowOrderId, WorkflowStage rowStage, WorkflowStatus rowStatus, LocalDateTime at, String rowService) {
+            if (!Objects.equals(orderId, rowOrderId)) {
+                finish();
+                orderId = rowOrderId;
+                serviceName = rowService;
+                stage = null;
+            }
+            if (rowStage == WorkflowStage.SLAB) {
+                breached = stage != null;
+            } else if (rowStage.isException() || rowStatus == WorkflowStatus.FAILED) {
+                // no stage change
+            } else if (rowStatus == WorkflowStatus.COMPLETED) {
+                if (rowStage == stage) stage = null;
+            } else if (rowStage != stage) {
+                stage = rowStage;
+                enteredBy = rowId;
+                enteredAt = at;
+                breached = false;
+            }
+        }
+
+        void finish() {
+            // Past deadlines fire on the next tick: breaches that happened while we were down
+            if (orderId != null && stage != null && !breached) {
+                arm(orderId, stage, serviceName, enteredBy, enteredAt);
+            }
+        }
+    }
+
+    private static final class Timer implements Delayed {
+        final Long orderId;
+        final WorkflowStage stage;
+        final String serviceName;
+        // Id of the event that moved the order into the stage
+        final long enteredBy;
+        final Duration allowed;
+        final LocalDateTime deadline;
+        private final long deadlineMillis;
+
+        Timer(Long orderId, WorkflowStage stage, String serviceName, long enteredBy, Duration allowed, LocalDateTime deadline) {
+            this.orderId = orderId;
+            this.stage = stage;
+            this.serviceName = serviceName;
+            this.enteredBy = enteredBy;
+            this.allowed = allowed;
+            this.deadline = deadline;
+            this.deadlineMillis = deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((Timer) other).deadlineMillis);
+        }
+    }
+}
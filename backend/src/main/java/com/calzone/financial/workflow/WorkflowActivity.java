@@ -0,0 +1,14 @@
+package com.calzone.financial.workflow;
+
+/**
+ * A workflow event or alert that was written for an order, published from the JPA listener and
+ * pushed to stream subscribers once the writing transaction commits.
+ *
+ * @param type    SSE event name: {@code workflow-event} or {@code alert}
+ * @param payload the entity as written
+ */
+public record WorkflowActivity(Long orderId, String type, Object payload) {
+
+    public static final String WORKFLOW_EVENT = "workflow-event";
+    public static final String ALERT = "alert";
+}
@@ -0,0 +1,40 @@
+package com.calzone.financial.workflow;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Publishes a {@link WorkflowActivity} for every workflow event written and every alert written or
+ * resolved, and a {@link WorkflowAlertsChangedEvent} for every alert deleted.
+ */
+@Component
+public class WorkflowActivityEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WorkflowActivityEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWrite(Object entity) {
+        if (entity instanceof WorkflowEvent event) {
+            eventPublisher.publishEvent(new WorkflowActivity(event.getOrderId(), WorkflowActivity.WORKFLOW_EVENT, event));
+        } else if (entity instanceof WorkflowAlert alert) {
+            eventPublisher.publishEvent(new WorkflowActivity(alert.getOrderId(), WorkflowActivity.ALERT, alert));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof WorkflowAlert alert) {
+            eventPublisher.publishEvent(new WorkflowAlertsChangedEvent(Set.of(alert.getOrderId())));
+        }
+    }
+}
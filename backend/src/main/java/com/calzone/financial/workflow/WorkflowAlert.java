@@ -9,9 +9,15 @@ import java.time.LocalDateTime;
     indexes = {
         @Index(name = "idx_order_id", columnList = "order_id"),
         @Index(name = "idx_alert_type", columnList = "alert_type"),
-        @Index(name = "idx_resolved", columnList = "resolved")
+        @Index(name = "idx_resolved", columnList = "resolved"),
+        // Work queue and per-order counts; MySQL has no partial indexes, so these lead with
+        // resolved and the unresolved rows form one contiguous range of each
+        @Index(name = "idx_alerts_open", columnList = "resolved, id"),
+        @Index(name = "idx_alerts_open_type", columnList = "resolved, alert_type, id"),
+        @Index(name = "idx_alerts_order_open", columnList = "order_id, resolved")
     }
 )
+@EntityListeners(WorkflowActivityEntityListener.class)
 public class WorkflowAlert {
 
     @Id
@@ -5,15 +5,20 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/workflow/alerts")
 @CrossOrigin(origins = "*")
 public class WorkflowAlertController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final WorkflowAlertRepository alertRepository;
+    private final WorkflowAlertService alertService;
 
-    public WorkflowAlertController(WorkflowAlertRepository alertRepository) {
+    public WorkflowAlertController(WorkflowAlertRepository alertRepository, WorkflowAlertService alertService) {
         this.alertRepository = alertRepository;
+        this.alertService = alertService;
     }
 
     @GetMapping("/orders/{orderId}")
@@ -28,10 +33,21 @@ public class WorkflowAlertController {
         return ResponseEntity.ok(alerts);
     }
 
+    /**
+     * The unresolved-alert work queue, newest first, optionally for one assignee's orders or one
+     * alert type. One page is returned per call and the next cursor is sent in {@code X-Next-Cursor}.
+     */
     @GetMapping("/unresolved")
-    public ResponseEntity<List<WorkflowAlert>> getAllUnresolvedAlerts() {
-        List<WorkflowAlert> alerts = alertRepository.findAllUnresolved();
-        return ResponseEntity.ok(alerts);
+    public ResponseEntity<List<WorkflowAlert>> getAllUnresolvedAlerts(@RequestParam(required = false) String assignee,
+                                                                      @RequestParam(required = false) String type,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limit) {
+        WorkflowAlertQueryRepository.Page page = alertService.getUnresolved(assignee, type, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next().encode());
+        }
+        return response.body(page.items());
     }
 
     @PostMapping
@@ -61,6 +77,17 @@ public class WorkflowAlertController {
         return ResponseEntity.ok(updated);
     }
 
+    @PostMapping("/resolve")
+    public ResponseEntity<Map<String, Object>> resolveAlerts(@RequestBody BulkRequest request) {
+        List<WorkflowAlert> resolved = alertService.resolve(request.getIds(), request.getResolvedBy());
+        return ResponseEntity.ok(Map.of("resolved", resolved.size(), "alerts", resolved));
+    }
+
+    @PostMapping("/delete")
+    public ResponseEntity<Map<String, Integer>> deleteAlerts(@RequestBody BulkRequest request) {
+        return ResponseEntity.ok(Map.of("deleted", alertService.delete(request.getIds())));
+    }
+
     @DeleteMapping("/{alertId}")
     public ResponseEntity<Void> deleteAlert(@PathVariable Long alertId) {
         alertRepository.deleteById(alertId);
@@ -69,7 +96,7 @@ public class WorkflowAlertController {
 
     @GetMapping("/count/{orderId}")
     public ResponseEntity<Long> getUnresolvedCount(@PathVariable Long orderId) {
-        long count = alertRepository.countByOrderIdAndResolved(orderId, false);
+        long count = alertService.countUnresolved(orderId);
         return ResponseEntity.ok(count);
     }
 
@@ -96,6 +123,17 @@ public class WorkflowAlertController {
         public void setActionUrl(String actionUrl) { this.actionUrl = actionUrl; }
     }
 
+    public static class BulkRequest {
+        private List<Long> ids;
+        private String resolvedBy;
+
+        public List<Long> getIds() { return ids; }
+        public void setIds(List<Long> ids) { this.ids = ids; }
+
+        public String getResolvedBy() { return resolvedBy; }
+        public void setResolvedBy(String resolvedBy) { this.resolvedBy = resolvedBy; }
+    }
+
     public static class ResolveRequest {
         private String resolvedBy;
 
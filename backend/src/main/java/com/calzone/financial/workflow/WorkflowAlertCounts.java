@@ -0,0 +1,108 @@
+package com.calzone.financial.workflow;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-limited cache of unresolved alert counts per order, for clients that poll the
+ * count. An order's entry is dropped when an alert of the order is written, resolved or deleted
+ * and the change commits. Hit/miss counters are published as
+ * {@code workflow.alerts.count.cache.requests} and the size as {@code workflow.alerts.count.cache.size}.
+ */
+@Component
+public class WorkflowAlertCounts {
+
+    private record Entry(long count, Instant loadedAt) {}
+
+    private final WorkflowAlertRepository alertRepository;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Map<Long, Entry> entries;
+    // Bumped by every eviction; a count read while it moved may predate the change and is not cached
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public WorkflowAlertCounts(WorkflowAlertRepository alertRepository,
+                               @Value("${workflow.alerts.count-cache.max-size:10000}") int maxSize,
+                               @Value("${workflow.alerts.count-cache.ttl-seconds:300}") long ttlSeconds,
+                               MeterRegistry meterRegistry) {
+        this.alertRepository = alertRepository;
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > WorkflowAlertCounts.this.maxSize;
+            }
+        };
+
+        FunctionCounter.builder("workflow.alerts.count.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("workflow.alerts.count.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("workflow.alerts.count.cache.size", this, WorkflowAlertCounts::size)
+                .register(meterRegistry);
+    }
+
+    public long unresolved(Long orderId) {
+        if (maxSize > 0) {
+            synchronized (entries) {
+                Entry entry = entries.get(orderId);
+                if (entry != null && entry.loadedAt().plus(ttl).isAfter(Instant.now())) {
+                    hits.incrementAndGet();
+                    return entry.count();
+                }
+                entries.remove(orderId);
+            }
+        }
+        misses.incrementAndGet();
+        long seen = evictions.get();
+        long count = alertRepository.countByOrderIdAndResolved(orderId, false);
+        if (maxSize > 0) {
+            synchronized (entries) {
+                if (evictions.get() == seen) {
+                    entries.put(orderId, new Entry(count, Instant.now()));
+                }
+            }
+        }
+        return count;
+    }
+
+    public void evict(Long orderId) {
+        synchronized (entries) {
+            evictions.incrementAndGet();
+            entries.remove(orderId);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(WorkflowActivity activity) {
+        if (WorkflowActivity.ALERT.equals(activity.type())) {
+            evict(activity.orderId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertsChanged(WorkflowAlertsChangedEvent event) {
+        event.orderIds().forEach(this::evict);
+    }
+}
@@ -0,0 +1,95 @@
+package com.calzone.financial.workflow;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * The unresolved-alert work queue, newest first. Pagination is keyset based on the id: without
+ * filters MySQL walks {@code (resolved, id)} backwards, by type {@code (resolved, alert_type, id)},
+ * and stops after {@code limit} rows. By assignee the alerts are joined to the assignee's orders.
+ */
+@Repository
+public class WorkflowAlertQueryRepository {
+
+    /** Position after the last row of a page; opaque to clients. */
+    public record Cursor(long id) {
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String value) {
+            try {
+                return new Cursor(Long.parseLong(new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
+    /**
+     * Null filters match everything.
+     *
+     * @param after cursor from the previous page, or null for the first page
+     */
+    public record Query(String assigneeEmail, WorkflowAlert.AlertType alertType, Cursor after, int limit) {}
+
+    public record Page(List<WorkflowAlert> items, Cursor next) {}
+
+    private static final String COLUMNS = "a.id, a.order_id, a.alert_type, a.title, a.message, a.action_url, "
+            + "a.resolved, a.created_at, a.resolved_at, a.resolved_by";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public WorkflowAlertQueryRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Page findUnresolved(Query query) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                // One extra row tells us whether there is a next page
+                .addValue("limit", query.limit() + 1);
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM workflow_alerts a");
+        if (query.assigneeEmail() != null) {
+            params.addValue("assignee", query.assigneeEmail());
+            sql.append(" JOIN orders o ON o.id = a.order_id AND o.assignee_email = :assignee");
+        }
+        sql.append(" WHERE a.resolved = false");
+        if (query.alertType() != null) {
+            params.addValue("alertType", query.alertType().name());
+            sql.append(" AND a.alert_type = :alertType");
+        }
+        if (query.after() != null) {
+            params.addValue("cursorId", query.after().id());
+            sql.append(" AND a.id < :cursorId");
+        }
+        sql.append(" ORDER BY a.id DESC LIMIT :limit");
+        List<WorkflowAlert> rows = jdbc.query(sql.toString(), params, WorkflowAlertQueryRepository::mapRow);
+        if (rows.size() <= query.limit()) {
+            return new Page(rows, null);
+        }
+        List<WorkflowAlert> items = rows.subList(0, query.limit());
+        return new Page(items, new Cursor(items.get(items.size() - 1).getId()));
+    }
+
+    private static WorkflowAlert mapRow(ResultSet rs, int rowNum) throws SQLException {
+        WorkflowAlert alert = new WorkflowAlert(rs.getLong("order_id"),
+                WorkflowAlert.AlertType.valueOf(rs.getString("alert_type")), rs.getString("title"), rs.getString("message"));
+        alert.setId(rs.getLong("id"));
+        alert.setActionUrl(rs.getString("action_url"));
+        alert.setResolved(rs.getBoolean("resolved"));
+        alert.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        Timestamp resolvedAt = rs.getTimestamp("resolved_at");
+        alert.setResolvedAt(resolvedAt == null ? null : resolvedAt.toLocalDateTime());
+        alert.setResolvedBy(rs.getString("resolved_by"));
+        return alert;
+    }
+}
@@ -1,9 +1,15 @@
 package com.calzone.financial.workflow;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,10 +19,25 @@ public interface WorkflowAlertRepository extends JpaRepository<WorkflowAlert, Lo
     @Query("SELECT w FROM WorkflowAlert w WHERE w.orderId = :orderId AND w.resolved = false ORDER BY w.createdAt DESC")
     List<WorkflowAlert> findUnresolvedByOrderId(@Param("orderId") Long orderId);
 
-    @Query("SELECT w FROM WorkflowAlert w WHERE w.resolved = false ORDER BY w.createdAt DESC")
-    List<WorkflowAlert> findAllUnresolved();
-
     List<WorkflowAlert> findByAlertTypeOrderByCreatedAtDesc(WorkflowAlert.AlertType alertType);
 
     long countByOrderIdAndResolved(Long orderId, Boolean resolved);
+
+    // Locked in id order, the order concurrent bulk resolutions take them in
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WorkflowAlert w WHERE w.id IN :ids AND w.resolved = false ORDER BY w.id")
+    List<WorkflowAlert> findUnresolvedForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WorkflowAlert w SET w.resolved = true, w.resolvedAt = :resolvedAt, w.resolvedBy = :resolvedBy "
+            + "WHERE w.id IN :ids AND w.resolved = false")
+    int resolveAll(@Param("ids") Collection<Long> ids, @Param("resolvedAt") LocalDateTime resolvedAt,
+                   @Param("resolvedBy") String resolvedBy);
+
+    @Query("SELECT DISTINCT w.orderId FROM WorkflowAlert w WHERE w.id IN :ids")
+    List<Long> findOrderIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM WorkflowAlert w WHERE w.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
 }
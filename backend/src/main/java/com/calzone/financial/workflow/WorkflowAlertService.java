@@ -0,0 +1,124 @@
+package com.calzone.financial.workflow;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * The alert work queue: unresolved alerts page by page, bulk resolution and deletion in single
+ * statements, and cached unresolved counts per order.
+ */
+@Service
+public class WorkflowAlertService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BULK = 1000;
+
+    private final WorkflowAlertRepository alertRepository;
+    private final WorkflowAlertQueryRepository queryRepository;
+    private final WorkflowAlertCounts alertCounts;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WorkflowAlertService(WorkflowAlertRepository alertRepository, WorkflowAlertQueryRepository queryRepository,
+                                WorkflowAlertCounts alertCounts, ApplicationEventPublisher eventPublisher) {
+        this.alertRepository = alertRepository;
+        this.queryRepository = queryRepository;
+        this.alertCounts = alertCounts;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @param assignee only alerts of orders assigned to this email
+     * @param type     only alerts of this {@link WorkflowAlert.AlertType}
+     * @param cursor   cursor from the previous page's {@code X-Next-Cursor}, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public WorkflowAlertQueryRepository.Page getUnresolved(String assignee, String type, String cursor, Integer limit) {
+        try {
+            if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            WorkflowAlert.AlertType alertType = type == null || type.isBlank()
+                    ? null : WorkflowAlert.AlertType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+            WorkflowAlertQueryRepository.Cursor after = cursor == null || cursor.isBlank()
+                    ? null : WorkflowAlertQueryRepository.Cursor.decode(cursor);
+            String assigneeFilter = assignee == null || assignee.isBlank() ? null : assignee.trim();
+            return queryRepository.findUnresolved(new WorkflowAlertQueryRepository.Query(
+                    assigneeFilter, alertType, after, limit == null ? DEFAULT_PAGE_SIZE : limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    public long countUnresolved(Long orderId) {
+        return alertCounts.unresolved(orderId);
+    }
+
+    /**
+     * Resolves the given alerts with one UPDATE; ids that are unknown or already resolved are
+     * skipped. Stream subscribers get each resolved alert as they would from a single resolve.
+     *
+     * @return the alerts resolved by this call
+     */
+    @Transactional
+    public List<WorkflowAlert> resolve(Collection<Long> ids, String resolvedBy) {
+        Collection<Long> alertIds = checkBulk(ids);
+        if (alertIds.isEmpty()) {
+            return List.of();
+        }
+        // Locking first keeps the returned list exactly the rows this UPDATE resolves
+        List<WorkflowAlert> alerts = alertRepository.findUnresolvedForUpdate(alertIds);
+        if (alerts.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        alertRepository.resolveAll(alerts.stream().map(WorkflowAlert::getId).toList(), now, resolvedBy);
+        // The UPDATE bypassed the entity listener, and the entities are detached now
+        for (WorkflowAlert alert : alerts) {
+            alert.setResolved(true);
+            alert.setResolvedAt(now);
+            alert.setResolvedBy(resolvedBy);
+            eventPublisher.publishEvent(new WorkflowActivity(alert.getOrderId(), WorkflowActivity.ALERT, alert));
+        }
+        return alerts;
+    }
+
+    /** @return the number of alerts deleted */
+    @Transactional
+    public int delete(Collection<Long> ids) {
+        Collection<Long> alertIds = checkBulk(ids);
+        if (alertIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> orderIds = alertRepository.findOrderIdsByIdIn(alertIds);
+        int deleted = alertRepository.deleteAllByIds(alertIds);
+        if (deleted > 0) {
+            eventPublisher.publishEvent(new WorkflowAlertsChangedEvent(new HashSet<>(orderIds)));
+        }
+        return deleted;
+    }
+
+    private static Collection<Long> checkBulk(Collection<Long> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        TreeSet<Long> unique = new TreeSet<>();
+        for (Long id : ids) {
+            if (id != null) unique.add(id);
+        }
+        if (unique.size() > MAX_BULK) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BULK + " alerts per request");
+        }
+        return unique;
+    }
+}
@@ -0,0 +1,9 @@
+package com.calzone.financial.workflow;
+
+import java.util.Set;
+
+/**
+ * Alerts of these orders were removed or changed outside the JPA listener's view, e.g. by a bulk
+ * statement; {@link WorkflowAlertCounts} drops their cached counts once the change commits.
+ */
+public record WorkflowAlertsChangedEvent(Set<Long> orderIds) {}
@@ -1,97 +1,199 @@
 package com.calzone.financial.workflow;
 
+import com.calzone.financial.order.OrderRepository;
+import com.calzone.financial.user.User;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDateTime;
 import java.util.*;
 
+/**
+ * Order workflow reads and stage changes. Reads come from the order's state row and its
+ * {@link WorkflowPipeline}; changes are checked against that pipeline by
+ * {@link WorkflowService#transition}. Staff can read and change any order, customers can read
+ * their own.
+ */
 @RestController
 @RequestMapping("/api/workflow")
 public class WorkflowController {
 
+    private final WorkflowStateReplayer stateReplayer;
+    private final WorkflowService workflowService;
+    private final WorkflowPipelines pipelines;
+    private final OrderRepository orderRepository;
+
+    public WorkflowController(WorkflowStateReplayer stateReplayer, WorkflowService workflowService,
+                              WorkflowPipelines pipelines, OrderRepository orderRepository) {
+        this.stateReplayer = stateReplayer;
+        this.workflowService = workflowService;
+        this.pipelines = pipelines;
+        this.orderRepository = orderRepository;
+    }
+
     @GetMapping("/orders/{orderId}/timeline")
-    public ResponseEntity<List<Map<String, Object>>> timeline(@PathVariable Long orderId) {
-        List<Map<String, Object>> events = new ArrayList<>();
-        events.add(Map.of(
-            "id", 1L,
-            "orderId", orderId,
-            "stage", "APP_REC",
-            "status", "COMPLETED",
-            "description", "Application received successfully",
-            "details", "Customer initiated the service order",
-            "createdAt", LocalDateTime.now().minusDays(5).toString()
-        ));
-        events.add(Map.of(
-            "id", 2L,
-            "orderId", orderId,
-            "stage", "DOC_VER",
-            "status", "IN_PROGRESS",
-            "description", "Document verification in progress",
-            "details", "Expert reviewing uploaded documents",
-            "createdAt", LocalDateTime.now().minusDays(1).toString()
-        ));
-        return ResponseEntity.ok(events);
+    public ResponseEntity<List<WorkflowEvent>> timeline(@AuthenticationPrincipal User user, @PathVariable Long orderId) {
+        requireReader(user, orderId);
+        return ResponseEntity.ok(workflowService.getOrderTimeline(orderId));
     }
 
     @GetMapping("/orders/{orderId}/progress")
-    public ResponseEntity<Map<String, Object>> progress(@PathVariable Long orderId) {
-        List<Map<String, Object>> stages = new ArrayList<>();
-        stages.add(Map.of("sequence", 1, "stage", "APP_REC", "label", "Application Received", "status", "COMPLETED"));
-        stages.add(Map.of("sequence", 2, "stage", "DOC_VER", "label", "Document Verification", "status", "IN_PROGRESS"));
-        stages.add(Map.of("sequence", 3, "stage", "PROC", "label", "Processing", "status", "PENDING"));
-        stages.add(Map.of("sequence", 4, "stage", "DRAFT", "label", "Drafting", "status", "PENDING"));
-        stages.add(Map.of("sequence", 5, "stage", "FILING", "label", "Filing", "status", "PENDING"));
-        stages.add(Map.of("sequence", 6, "stage", "GOVT_REV", "label", "Govt Review", "status", "PENDING"));
-        stages.add(Map.of("sequence", 7, "stage", "APPR", "label", "Approval", "status", "PENDING"));
-        stages.add(Map.of("sequence", 8, "stage", "DEL", "label", "Delivery", "status", "PENDING"));
-
-        Map<String, Object> prog = new HashMap<>();
-        prog.put("orderId", orderId);
-        prog.put("currentStage", "DOC_VER");
-        prog.put("completionPercentage", 25);
-        prog.put("stages", stages);
-        return ResponseEntity.ok(prog);
+    public ResponseEntity<WorkflowService.WorkflowProgressDTO> progress(@AuthenticationPrincipal User user,
+                                                                       @PathVariable Long orderId) {
+        requireReader(user, orderId);
+        return ResponseEntity.ok(workflowService.getWorkflowProgress(orderId));
     }
 
     @GetMapping("/orders/{orderId}/current-stage")
-    public ResponseEntity<Map<String, Object>> current(@PathVariable Long orderId) {
-        Map<String, Object> current = Map.of("stage", "Drafting MOA/AOA", "etaDays", 3);
+    public ResponseEntity<Map<String, Object>> current(@AuthenticationPrincipal User user, @PathVariable Long orderId) {
+        requireReader(user, orderId);
+        WorkflowStage stage = workflowService.getCurrentStage(orderId);
+        Map<String, Object> current = new LinkedHashMap<>();
+        workflowService.pipelineFor(orderId).step(stage).ifPresentOrElse(step -> {
+            current.put("stage", step.label());
+            current.put("code", step.code());
+        }, () -> {
+            current.put("stage", stage.getLabel());
+            current.put("code", stage.name());
+        });
+        current.put("workflowStage", stage.name());
         return ResponseEntity.ok(current);
     }
 
     @PostMapping("/orders/{orderId}/advance")
-    public ResponseEntity<?> advance(@PathVariable Long orderId, @RequestBody Map<String,String> body) {
-        return ResponseEntity.ok(Map.of("status","advanced","orderId",orderId));
+    public ResponseEntity<WorkflowEvent> advance(@AuthenticationPrincipal User user, @PathVariable Long orderId,
+                                                 @RequestBody(required = false) Map<String, String> body) {
+        requireStaff(user);
+        Map<String, String> req = body == null ? Map.of() : body;
+        WorkflowStage next = stageParam(orderId, req.getOrDefault("nextStage", req.get("stage")));
+        return ResponseEntity.ok(workflowService.advanceStage(orderId, next, req.get("description")));
     }
 
     @PostMapping("/orders/{orderId}/complete")
-    public ResponseEntity<?> complete(@PathVariable Long orderId, @RequestBody Map<String,String> body) {
-        return ResponseEntity.ok(Map.of("status","completed","orderId",orderId));
+    public ResponseEntity<WorkflowEvent> complete(@AuthenticationPrincipal User user, @PathVariable Long orderId,
+                                                  @RequestBody(required = false) Map<String, String> body) {
+        requireStaff(user);
+        Map<String, String> req = body == null ? Map.of() : body;
+        return ResponseEntity.ok(workflowService.completeStage(orderId, stageParam(orderId, req.get("stage")), req.get("description")));
     }
 
     @PostMapping("/orders/{orderId}/fail")
-    public ResponseEntity<?> fail(@PathVariable Long orderId, @RequestBody Map<String,String> body) {
-        return ResponseEntity.ok(Map.of("status","failed","orderId",orderId));
+    public ResponseEntity<WorkflowEvent> fail(@AuthenticationPrincipal User user, @PathVariable Long orderId,
+                                              @RequestBody(required = false) Map<String, String> body) {
+        requireStaff(user);
+        Map<String, String> req = body == null ? Map.of() : body;
+        String description = req.getOrDefault("description", req.get("reason"));
+        return ResponseEntity.ok(workflowService.failStage(orderId, stageParam(orderId, req.get("stage")), description));
     }
 
     @PostMapping("/orders/{orderId}/event")
-    public ResponseEntity<?> event(@PathVariable Long orderId, @RequestBody Map<String,String> body) {
-        return ResponseEntity.ok(Map.of("status","event_created","orderId",orderId, "event", body));
+    public ResponseEntity<WorkflowEvent> event(@AuthenticationPrincipal User user, @PathVariable Long orderId,
+                                               @RequestBody Map<String, String> body) {
+        requireStaff(user);
+        WorkflowStage stage = stageParam(orderId, body.get("stage"));
+        if (stage == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "stage is required");
+        }
+        WorkflowStatus status = statusParam(body.get("status"));
+        return ResponseEntity.ok(workflowService.transition(orderId, stage, status, body.get("description"), body.get("details")));
     }
 
     @PostMapping("/orders/{orderId}/exception")
-    public ResponseEntity<?> exception(@PathVariable Long orderId, @RequestBody Map<String,String> body) {
-        return ResponseEntity.ok(Map.of("status","exception_added","orderId",orderId));
+    public ResponseEntity<WorkflowEvent> exception(@AuthenticationPrincipal User user, @PathVariable Long orderId,
+                                                   @RequestBody Map<String, String> body) {
+        requireStaff(user);
+        WorkflowStage type = stageParam(orderId, body.getOrDefault("exceptionType", body.get("stage")));
+        return ResponseEntity.ok(workflowService.addException(orderId, type, body.get("description"), body.get("details")));
+    }
+
+    /**
+     * Applies up to {@link WorkflowService#MAX_TRANSITIONS} stage changes in one call, e.g. moving
+     * a whole filing batch to government review. Invalid transitions are listed and skipped.
+     */
+    @PostMapping("/transitions")
+    public ResponseEntity<WorkflowService.TransitionResult> transitions(@AuthenticationPrincipal User user,
+                                                                       @RequestBody List<WorkflowTransition> transitions) {
+        requireStaff(user);
+        return ResponseEntity.ok(workflowService.applyTransitions(transitions));
     }
 
     @GetMapping("/orders/{orderId}/exceptions")
-    public ResponseEntity<List<Map<String,Object>>> exceptions(@PathVariable Long orderId) {
-        return ResponseEntity.ok(List.of(Map.of("id",1,"type","missing_docs","status","open")));
+    public ResponseEntity<List<WorkflowEvent>> exceptions(@AuthenticationPrincipal User user, @PathVariable Long orderId) {
+        requireReader(user, orderId);
+        return ResponseEntity.ok(workflowService.getActiveExceptions(orderId));
     }
 
+    /** Step labels of a service's pipeline, or of the standard pipeline. */
     @GetMapping("/stages")
-    public ResponseEntity<List<String>> stages() {
-        return ResponseEntity.ok(List.of("Intake","Drafting","Filing","Processing","Delivery"));
+    public ResponseEntity<List<String>> stages(@RequestParam(required = false) String service) {
+        return ResponseEntity.ok(pipelines.forService(service).getSteps().stream().map(WorkflowPipeline.Step::label).toList());
+    }
+
+    /** Rebuilds order_workflow_state from workflow_events, for one order or for all of them. */
+    @PostMapping("/state/replay")
+    public ResponseEntity<Map<String, Object>> replayState(@AuthenticationPrincipal User user,
+                                                           @RequestParam(required = false) Long orderId) {
+        if (user == null || user.getAuthorities().stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            return ResponseEntity.status(403).build();
+        }
+        if (orderId != null) {
+            stateReplayer.replay(orderId);
+            return ResponseEntity.ok(Map.of("status", "replayed", "orders", 1));
+        }
+        int orders = stateReplayer.replayAll();
+        return ResponseEntity.ok(Map.of("status", "replayed", "orders", orders));
+    }
+
+    // Accepts a workflow stage name or one of the order's pipeline step codes; null stays null
+    private WorkflowStage stageParam(Long orderId, String value) {
+        if (value == null || value.isBlank()) return null;
+        Optional<WorkflowPipeline.Step> step = workflowService.pipelineFor(orderId).step(value);
+        if (step.isPresent()) return step.get().stage();
+        try {
+            return WorkflowStage.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown stage: " + value);
+        }
+    }
+
+    private static WorkflowStatus statusParam(String value) {
+        if (value == null || value.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "status is required");
+        }
+        try {
+            return WorkflowStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status: " + value);
+        }
+    }
+
+    private void requireReader(User user, Long orderId) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        if (isStaff(user)) return;
+        boolean owner = orderRepository.findById(orderId)
+                .map(o -> (user.getId() != null && user.getId().equals(o.getUserId()))
+                        || (o.getCustomerEmail() != null && o.getCustomerEmail().equalsIgnoreCase(user.getEmail())))
+                .orElse(false);
+        if (!owner) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your order");
+        }
+    }
+
+    private static void requireStaff(User user) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        if (!isStaff(user)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Requires ADMIN or EMPLOYEE role");
+        }
+    }
+
+    private static boolean isStaff(User user) {
+        return user.getAuthorities().stream().anyMatch(a ->
+                a.getAuthority().equals("ROLE_ADMIN") || a.getAuthority().equals("ROLE_EMPLOYEE"));
     }
 }
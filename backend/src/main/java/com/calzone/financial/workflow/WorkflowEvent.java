@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
         @Index(name = "idx_stage", columnList = "stage"),
         @Index(name = "idx_created_at", columnList = "createdAt")
 })
+@EntityListeners(WorkflowActivityEntityListener.class)
 public class WorkflowEvent {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -77,4 +78,10 @@ public class WorkflowEvent {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    // For rows read or written outside JPA (bulk transitions, the archive), where @PrePersist does not run
+    void setTimestamps(LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
 }
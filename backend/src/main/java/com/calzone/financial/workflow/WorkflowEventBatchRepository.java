@@ -0,0 +1,84 @@
+package com.calzone.financial.workflow;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for bulk workflow transitions. These bypass JPA, so entity listeners do not
+ * fire; {@link WorkflowService#applyTransitions} publishes what they would have.
+ */
+@Repository
+public class WorkflowEventBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_EVENT = "INSERT INTO workflow_events "
+            + "(order_id, stage, status, description, details, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WorkflowEventBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Inserts the events in list order and sets their ids and timestamps. */
+    public void insertAll(List<WorkflowEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        for (int from = 0; from < events.size(); from += BATCH_SIZE) {
+            List<WorkflowEvent> batch = events.subList(from, Math.min(from + BATCH_SIZE, events.size()));
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_EVENT, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            WorkflowEvent event = batch.get(i);
+                            ps.setLong(1, event.getOrderId());
+                            ps.setString(2, event.getStage().name());
+                            ps.setString(3, event.getStatus().name());
+                            ps.setString(4, event.getDescription());
+                            ps.setString(5, event.getDetails());
+                            ps.setTimestamp(6, createdAt);
+                            ps.setTimestamp(7, createdAt);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> generated = keys.getKeyList();
+            if (generated.size() != batch.size()) {
+                throw new IllegalStateException("Expected " + batch.size() + " generated ids, got " + generated.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                WorkflowEvent event = batch.get(i);
+                event.setId(((Number) generated.get(i).values().iterator().next()).longValue());
+                event.setTimestamps(now, now);
+            }
+        }
+    }
+
+    /** Creates empty projection rows for the orders; rows that already exist are left alone. */
+    public void insertStatesIfAbsent(List<Long> orderIds) {
+        for (int from = 0; from < orderIds.size(); from += BATCH_SIZE) {
+            List<Object[]> rows = orderIds.subList(from, Math.min(from + BATCH_SIZE, orderIds.size())).stream()
+                    .map(id -> new Object[]{id})
+                    .toList();
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO order_workflow_state "
+                    + "(order_id, current_stage, stage_statuses, open_exceptions) "
+                    + "VALUES (?, 'APP_REC', '', '')", rows);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.calzone.financial.workflow;
+
+import java.time.LocalDateTime;
+
+/** Outbox payload for a newly recorded {@link WorkflowEvent}. */
+public record WorkflowEventCreated(Long eventId, Long orderId, WorkflowStage stage, WorkflowStatus status,
+                                   String description, LocalDateTime createdAt) {
+
+    public static final String TYPE = "workflow.event.created";
+
+    static WorkflowEventCreated of(WorkflowEvent event) {
+        return new WorkflowEventCreated(event.getId(), event.getOrderId(), event.getStage(), event.getStatus(),
+                event.getDescription(), event.getCreatedAt());
+    }
+}
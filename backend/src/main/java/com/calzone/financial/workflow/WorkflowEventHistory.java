@@ -0,0 +1,86 @@
+package com.calzone.financial.workflow;
+
+import com.calzone.financial.archive.OrderArchiveSummary;
+import com.calzone.financial.archive.OrderArchiveSummaryRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads workflow events from {@code workflow_events} and, where the order has been archived
+ * ({@link OrderArchiveSummary}) or the range reaches back into archived time, from
+ * {@code workflow_events_archive}. Orders that were never archived cost one primary-key lookup
+ * on the summary table on top of the hot query.
+ */
+@Component
+public class WorkflowEventHistory {
+
+    private static final Comparator<WorkflowEvent> OLDEST_FIRST =
+            Comparator.comparing(WorkflowEvent::getCreatedAt).thenComparing(WorkflowEvent::getId);
+
+    private final WorkflowEventRepository eventRepository;
+    private final ArchivedWorkflowEventRepository archiveRepository;
+    private final OrderArchiveSummaryRepository summaryRepository;
+
+    public WorkflowEventHistory(WorkflowEventRepository eventRepository, ArchivedWorkflowEventRepository archiveRepository,
+                                OrderArchiveSummaryRepository summaryRepository) {
+        this.eventRepository = eventRepository;
+        this.archiveRepository = archiveRepository;
+        this.summaryRepository = summaryRepository;
+    }
+
+    /** Oldest first, the order in which events are folded into {@link OrderWorkflowState}. */
+    public List<WorkflowEvent> oldestFirst(Long orderId) {
+        List<WorkflowEvent> events = eventRepository.findByOrderIdOrderByCreatedAtAscIdAsc(orderId);
+        if (!summaryRepository.existsById(orderId)) {
+            return events;
+        }
+        List<WorkflowEvent> all = new ArrayList<>();
+        archiveRepository.findByOrderIdOrderByCreatedAtAscIdAsc(orderId).forEach(e -> all.add(e.toEvent()));
+        all.addAll(events);
+        all.sort(OLDEST_FIRST);
+        return all;
+    }
+
+    /** Events of several orders, grouped by order id and oldest first within each order. */
+    public List<WorkflowEvent> oldestFirst(Collection<Long> orderIds) {
+        List<WorkflowEvent> events = eventRepository.findByOrderIdInOrderByOrderIdAscCreatedAtAscIdAsc(orderIds);
+        List<Long> archived = summaryRepository.findAllById(orderIds).stream().map(OrderArchiveSummary::getOrderId).toList();
+        if (archived.isEmpty()) {
+            return events;
+        }
+        List<WorkflowEvent> all = new ArrayList<>(events);
+        archiveRepository.findByOrderIdInOrderByOrderIdAscCreatedAtAscIdAsc(archived).forEach(e -> all.add(e.toEvent()));
+        all.sort(Comparator.comparing(WorkflowEvent::getOrderId).thenComparing(OLDEST_FIRST));
+        return all;
+    }
+
+    /** Newest first, as the timeline endpoints show it. */
+    public List<WorkflowEvent> newestFirst(Long orderId) {
+        List<WorkflowEvent> events = eventRepository.findByOrderIdOrderByCreatedAtDesc(orderId);
+        if (!summaryRepository.existsById(orderId)) {
+            return events;
+        }
+        List<WorkflowEvent> all = new ArrayList<>(events);
+        archiveRepository.findByOrderIdOrderByCreatedAtAscIdAsc(orderId).forEach(e -> all.add(e.toEvent()));
+        all.sort(OLDEST_FIRST.reversed());
+        return all;
+    }
+
+    /** Events created between the two instants, newest first, across both tables. */
+    public List<WorkflowEvent> between(LocalDateTime start, LocalDateTime end) {
+        List<WorkflowEvent> events = eventRepository.findByDateRange(start, end);
+        LocalDateTime archivedUntil = summaryRepository.findLatestArchivedEventAt();
+        if (archivedUntil == null || start.isAfter(archivedUntil)) {
+            return events;
+        }
+        List<WorkflowEvent> all = new ArrayList<>(events);
+        archiveRepository.findByDateRange(start, end).forEach(e -> all.add(e.toEvent()));
+        all.sort(OLDEST_FIRST.reversed());
+        return all;
+    }
+}
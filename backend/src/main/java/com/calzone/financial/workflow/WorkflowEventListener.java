@@ -1,31 +1,48 @@
 package com.calzone.financial.workflow;
 
+import com.calzone.financial.outbox.OutboxHandler;
+import com.calzone.financial.outbox.OutboxMessage;
+import com.calzone.financial.outbox.OutboxPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 @Component
-public class WorkflowEventListener {
+public class WorkflowEventListener implements OutboxHandler {
     private static final Logger logger = LoggerFactory.getLogger(WorkflowEventListener.class);
 
-    @EventListener
-    public void onWorkflowEventCreated(WorkflowEvent event) {
+    private final OutboxPublisher outboxPublisher;
+
+    public WorkflowEventListener(OutboxPublisher outboxPublisher) {
+        this.outboxPublisher = outboxPublisher;
+    }
+
+    @Override
+    public String eventType() {
+        return WorkflowEventCreated.TYPE;
+    }
+
+    @Override
+    public void handle(OutboxMessage message) throws Exception {
+        onWorkflowEventCreated(outboxPublisher.read(message, WorkflowEventCreated.class));
+    }
+
+    public void onWorkflowEventCreated(WorkflowEventCreated event) {
         logger.info("Workflow Event Created: Order {} - Stage {} - Status {}",
-                event.getOrderId(), event.getStage(), event.getStatus());
+                event.orderId(), event.stage(), event.status());
 
-        if (event.getStatus() == WorkflowStatus.FAILED) {
+        if (event.status() == WorkflowStatus.FAILED) {
             logger.warn("Stage Failed: Order {} - Stage {} - Description: {}",
-                    event.getOrderId(), event.getStage(), event.getDescription());
+                    event.orderId(), event.stage(), event.description());
         }
 
-        if (event.getStage().isException()) {
+        if (event.stage().isException()) {
             logger.warn("Exception Detected: Order {} - Exception {} - Description: {}",
-                    event.getOrderId(), event.getStage(), event.getDescription());
+                    event.orderId(), event.stage(), event.description());
         }
 
-        if (event.getStatus() == WorkflowStatus.COMPLETED && event.getStage() == WorkflowStage.DEL) {
-            logger.info("Order Completed: Order {} - Delivery Complete", event.getOrderId());
+        if (event.status() == WorkflowStatus.COMPLETED && event.stage() == WorkflowStage.DEL) {
+            logger.info("Order Completed: Order {} - Delivery Complete", event.orderId());
         }
     }
 }
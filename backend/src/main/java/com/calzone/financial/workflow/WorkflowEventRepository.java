@@ -1,11 +1,13 @@
 package com.calzone.financial.workflow;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +16,15 @@ public interface WorkflowEventRepository extends JpaRepository<WorkflowEvent, Lo
     // Spring Data JPA query creation from method name (implicitly ordered DESC)
     List<WorkflowEvent> findByOrderIdOrderByCreatedAtDesc(Long orderId);
 
+    // Oldest first, in the order the events were applied to OrderWorkflowState
+    List<WorkflowEvent> findByOrderIdOrderByCreatedAtAscIdAsc(Long orderId);
+
+    List<WorkflowEvent> findByOrderIdInOrderByOrderIdAscCreatedAtAscIdAsc(Collection<Long> orderIds);
+
+    // Keyset walk over the orders that have events, for replaying OrderWorkflowState
+    @Query("SELECT DISTINCT w.orderId FROM com_calzone_financial_workflow_WorkflowEvent w WHERE w.orderId > :after ORDER BY w.orderId")
+    List<Long> findOrderIdsAfter(@Param("after") Long after, Pageable page);
+
     // Spring Data JPA query creation from method name (implicitly ordered DESC)
     List<WorkflowEvent> findByOrderIdAndStageOrderByCreatedAtDesc(Long orderId, WorkflowStage stage);
 
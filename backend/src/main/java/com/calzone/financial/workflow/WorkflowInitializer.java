@@ -13,6 +13,7 @@ public class WorkflowInitializer {
     @Bean
     public ApplicationRunner initializeWorkflowSampleData(
             WorkflowEventRepository eventRepository,
+            WorkflowService workflowService,
             WorkflowAlertRepository alertRepository) {
         return args -> {
             logger.info("Initializing workflow sample data...");
@@ -26,42 +27,22 @@ public class WorkflowInitializer {
 
                 Long sampleOrderId = 1002L;
 
-                // Create sample workflow events
-                WorkflowEvent event1 = new WorkflowEvent(
-                        sampleOrderId,
-                        WorkflowStage.APP_REC,
-                        WorkflowStatus.COMPLETED,
-                        "Application received successfully"
-                );
-                event1.setDetails("Customer submitted application details");
-                eventRepository.save(event1);
+                // Create sample workflow events (through the service, so the counters include them)
+                workflowService.createEvent(sampleOrderId, WorkflowStage.APP_REC, WorkflowStatus.COMPLETED,
+                        "Application received successfully",
+                        "Customer submitted application details");
 
-                WorkflowEvent event2 = new WorkflowEvent(
-                        sampleOrderId,
-                        WorkflowStage.DOC_VER,
-                        WorkflowStatus.COMPLETED,
-                        "Documents verified successfully"
-                );
-                event2.setDetails("All required documents are valid");
-                eventRepository.save(event2);
+                workflowService.createEvent(sampleOrderId, WorkflowStage.DOC_VER, WorkflowStatus.COMPLETED,
+                        "Documents verified successfully",
+                        "All required documents are valid");
 
-                WorkflowEvent event3 = new WorkflowEvent(
-                        sampleOrderId,
-                        WorkflowStage.PROC,
-                        WorkflowStatus.COMPLETED,
-                        "Processing initiated"
-                );
-                event3.setDetails("Application moved to processing stage");
-                eventRepository.save(event3);
+                workflowService.createEvent(sampleOrderId, WorkflowStage.PROC, WorkflowStatus.COMPLETED,
+                        "Processing initiated",
+                        "Application moved to processing stage");
 
-                WorkflowEvent event4 = new WorkflowEvent(
-                        sampleOrderId,
-                        WorkflowStage.DRAFT,
-                        WorkflowStatus.IN_PROGRESS,
-                        "Drafting legal documents"
-                );
-                event4.setDetails("Preparing MOA/AOA");
-                eventRepository.save(event4);
+                workflowService.createEvent(sampleOrderId, WorkflowStage.DRAFT, WorkflowStatus.IN_PROGRESS,
+                        "Drafting legal documents",
+                        "Preparing MOA/AOA");
 
                 // Create sample alert
                 WorkflowAlert alert = new WorkflowAlert(
@@ -0,0 +1,141 @@
+package com.calzone.financial.workflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The ordered main stages one kind of service goes through, with service-specific step codes and
+ * labels. Built once by {@link WorkflowPipelines}; the transition table is two arrays indexed by
+ * {@link WorkflowStage#ordinal()}, so checking a transition is a couple of array reads.
+ *
+ * <p>An order moves through its pipeline one step at a time: a step may be started, worked on or
+ * failed while it is the current one, and the next step opens once the current one is completed.
+ * Exception stages are outside the pipeline and always allowed.
+ */
+public final class WorkflowPipeline {
+
+    /**
+     * @param code  service-specific name, e.g. {@code PORTAL_SUBMISSION}; also accepted as input
+     * @param stage the workflow stage recorded for this step
+     */
+    public record Step(int position, WorkflowStage stage, String code, String label, String description) {}
+
+    private final String name;
+    private final List<Step> steps;
+    private final Step[] stepByStage;
+    private final WorkflowStage[] nextByStage;
+    private final Map<String, Step> stepByCode;
+
+    private WorkflowPipeline(String name, List<Step> steps) {
+        this.name = name;
+        this.steps = Collections.unmodifiableList(steps);
+        this.stepByStage = new Step[WorkflowStage.values().length];
+        this.nextByStage = new WorkflowStage[WorkflowStage.values().length];
+        Map<String, Step> byCode = new HashMap<>();
+        for (Step step : steps) {
+            stepByStage[step.stage().ordinal()] = step;
+            if (step.position() + 1 < steps.size()) {
+                nextByStage[step.stage().ordinal()] = steps.get(step.position() + 1).stage();
+            }
+            byCode.put(step.code().toUpperCase(Locale.ROOT), step);
+            byCode.put(step.stage().name(), step);
+        }
+        this.stepByCode = Map.copyOf(byCode);
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public String getName() { return name; }
+    public List<Step> getSteps() { return steps; }
+
+    public Optional<Step> step(WorkflowStage stage) {
+        return Optional.ofNullable(stepByStage[stage.ordinal()]);
+    }
+
+    /** Finds a step by its code or by its workflow stage name, ignoring case. */
+    public Optional<Step> step(String codeOrStage) {
+        if (codeOrStage == null) return Optional.empty();
+        return Optional.ofNullable(stepByCode.get(codeOrStage.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    public WorkflowStage first() {
+        return steps.get(0).stage();
+    }
+
+    /** The stage after {@code stage}, or null at the end of the pipeline or outside it. */
+    public WorkflowStage next(WorkflowStage stage) {
+        return nextByStage[stage.ordinal()];
+    }
+
+    /**
+     * Checks a transition against an order's current stage and the latest status of each stage.
+     *
+     * @return why the transition is not allowed, or null if it is
+     */
+    public String check(WorkflowStage currentStage, Map<WorkflowStage, WorkflowStatus> statuses,
+                        WorkflowStage stage, WorkflowStatus status) {
+        if (stage.isException()) return null;
+        Step target = stepByStage[stage.ordinal()];
+        if (target == null) {
+            return stage + " is not part of the " + name + " pipeline";
+        }
+        // An order with no status for its current stage has not entered the pipeline yet
+        Step current = statuses.containsKey(currentStage) ? stepByStage[currentStage.ordinal()] : null;
+        int at = current == null ? -1 : current.position();
+        if (target.position() < at) {
+            return "Order is already at " + currentStage;
+        }
+        if (target.position() > at + 1) {
+            return "Cannot skip from " + (current == null ? "the start" : currentStage.name()) + " to " + stage;
+        }
+        if (target.position() == at + 1 && current != null && statuses.get(currentStage) != WorkflowStatus.COMPLETED) {
+            return currentStage + " is not completed";
+        }
+        return null;
+    }
+
+    /** Share of this pipeline's steps whose latest status is COMPLETED, 0-100. */
+    public int completion(Map<WorkflowStage, WorkflowStatus> statuses) {
+        long completed = steps.stream().filter(s -> statuses.get(s.stage()) == WorkflowStatus.COMPLETED).count();
+        return (int) (completed * 100 / steps.size());
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final List<Step> steps = new ArrayList<>();
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder step(WorkflowStage stage) {
+            return step(stage, stage.name(), stage.getLabel(), stage.getDescription());
+        }
+
+        public Builder step(WorkflowStage stage, String code, String label, String description) {
+            if (!stage.isMainStage()) {
+                throw new IllegalArgumentException(stage + " is an exception stage");
+            }
+            if (steps.stream().anyMatch(s -> s.stage() == stage)) {
+                throw new IllegalArgumentException(stage + " appears twice in " + name);
+            }
+            steps.add(new Step(steps.size(), stage, code, label, description));
+            return this;
+        }
+
+        public WorkflowPipeline build() {
+            // SLA tracking and archival treat a completed delivery as the end of an order
+            if (steps.isEmpty() || steps.get(steps.size() - 1).stage() != WorkflowStage.DEL) {
+                throw new IllegalStateException(name + " must end with " + WorkflowStage.DEL);
+            }
+            return new WorkflowPipeline(name, new ArrayList<>(steps));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.calzone.financial.workflow;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The pipeline each service follows, keyed by order service name (case-insensitive). Services
+ * without a pipeline of their own follow {@link #STANDARD}, the eight main workflow stages.
+ */
+@Component
+public class WorkflowPipelines {
+
+    public static final WorkflowPipeline STANDARD = WorkflowPipeline.builder("Standard")
+            .step(WorkflowStage.APP_REC)
+            .step(WorkflowStage.DOC_VER)
+            .step(WorkflowStage.PROC)
+            .step(WorkflowStage.DRAFT)
+            .step(WorkflowStage.FILING)
+            .step(WorkflowStage.GOVT_REV)
+            .step(WorkflowStage.APPR)
+            .step(WorkflowStage.DEL)
+            .build();
+
+    // Step codes match the process stages GstServiceController used to create
+    public static final WorkflowPipeline GST_REGISTRATION = WorkflowPipeline.builder("GST Registration")
+            .step(WorkflowStage.APP_REC, "WEB_SUBMISSION", "Web Submission", "Application submitted by user")
+            .step(WorkflowStage.DOC_VER, "DOCUMENT_VERIFICATION", "Document Verification", "Verify PAN, address, and identity docs")
+            .step(WorkflowStage.FILING, "PORTAL_SUBMISSION", "Portal Submission", "Submit application on GST portal")
+            .step(WorkflowStage.PROC, "PAYMENT", "Payment", "GST registration fees / government fees")
+            .step(WorkflowStage.DEL, "GSTIN_ISSUED", "GSTIN Issued", "GSTIN issuance awaiting confirmation")
+            .build();
+
+    public static final WorkflowPipeline COMPANY_REGISTRATION = WorkflowPipeline.builder("Company Registration")
+            .step(WorkflowStage.APP_REC, "DATA_COLLECTION", "Data Collection", "Gathering required director data")
+            .step(WorkflowStage.DOC_VER, "DOCUMENT_VETTING", "Document Vetting", "Director KYC and address proofs reviewed")
+            .step(WorkflowStage.DRAFT, "DRAFTING", "Drafting MOA/AOA", "Preparation of MOA, AOA and board resolutions")
+            .step(WorkflowStage.FILING, "MCA_FILING", "MCA Filing", "Incorporation forms filed with the MCA")
+            .step(WorkflowStage.GOVT_REV, "ROC_REVIEW", "ROC Review", "Under review by the Registrar of Companies")
+            .step(WorkflowStage.APPR, "INCORPORATION", "Incorporation", "Certificate of incorporation issued")
+            .step(WorkflowStage.DEL, "DELIVERY", "Delivery", "Incorporation documents delivered to customer")
+            .build();
+
+    private final Map<String, WorkflowPipeline> byService = List.of(GST_REGISTRATION, COMPANY_REGISTRATION).stream()
+            .collect(Collectors.toUnmodifiableMap(p -> p.getName().toLowerCase(Locale.ROOT), Function.identity()));
+
+    public WorkflowPipeline forService(String serviceName) {
+        if (serviceName == null) return STANDARD;
+        return byService.getOrDefault(serviceName.trim().toLowerCase(Locale.ROOT), STANDARD);
+    }
+}
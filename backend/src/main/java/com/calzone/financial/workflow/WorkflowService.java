@@ -1,125 +1,395 @@
 package com.calzone.financial.workflow;
 
+import com.calzone.financial.order.OrderRepository;
+import com.calzone.financial.outbox.OutboxMessage;
+import com.calzone.financial.outbox.OutboxPublisher;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 @Service
 @Transactional
 public class WorkflowService {
-    private final WorkflowEventRepository eventRepository;
+    public static final int MAX_TRANSITIONS = 5000;
+    private static final int IN_CHUNK_SIZE = 1000;
 
-    public WorkflowService(WorkflowEventRepository eventRepository) {
+    private final WorkflowEventRepository eventRepository;
+    private final WorkflowStatistics statistics;
+    private final OrderWorkflowStateRepository stateRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final WorkflowEventBatchRepository batchRepository;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WorkflowEventHistory history;
+    private final WorkflowPipelines pipelines;
+
+    public WorkflowService(WorkflowEventRepository eventRepository, WorkflowStatistics statistics,
+                           OrderWorkflowStateRepository stateRepository, OutboxPublisher outboxPublisher,
+                           WorkflowEventBatchRepository batchRepository, OrderRepository orderRepository,
+                           ApplicationEventPublisher eventPublisher, WorkflowEventHistory history,
+                           WorkflowPipelines pipelines) {
         this.eventRepository = eventRepository;
+        this.statistics = statistics;
+        this.stateRepository = stateRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.batchRepository = batchRepository;
+        this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
+        this.history = history;
+        this.pipelines = pipelines;
     }
 
+    /** Records an event as given, without checking it against the order's pipeline. */
     public WorkflowEvent createEvent(Long orderId, WorkflowStage stage, WorkflowStatus status, String description, String details) {
+        return record(orderId, stage, status, description, details, null, null);
+    }
+
+    /**
+     * Records an event as given if {@code condition} holds for the order's state, checked while
+     * holding the order's state row lock; empty if it does not. Lets writers that may race each
+     * other, such as {@link SlaMonitor} on several instances, record an event at most once.
+     */
+    public Optional<WorkflowEvent> createEventIf(Long orderId, WorkflowStage stage, WorkflowStatus status, String description,
+                                                 String details, Predicate<OrderWorkflowState> condition) {
+        return Optional.ofNullable(record(orderId, stage, status, description, details, null, condition));
+    }
+
+    /**
+     * Records a stage change after checking it against the order's {@link WorkflowPipeline}
+     * while holding the order's state row lock. Unknown orders are a 404 and transitions the
+     * pipeline does not allow a 409.
+     */
+    public WorkflowEvent transition(Long orderId, WorkflowStage stage, WorkflowStatus status, String description, String details) {
+        return record(orderId, stage, status, description, details, pipelineFor(orderId), null);
+    }
+
+    private WorkflowEvent record(Long orderId, WorkflowStage stage, WorkflowStatus status, String description, String details,
+                                 WorkflowPipeline pipeline, Predicate<OrderWorkflowState> condition) {
         WorkflowEvent event = new WorkflowEvent(orderId, stage, status, description);
         event.setDetails(details);
-        return eventRepository.save(event);
+        // Counters, then the order's state row, then the event: WorkflowStatistics.rebuild() and
+        // WorkflowStateReplayer take their locks in the same order. A conditional event only
+        // reserves its counter until the condition has been checked
+        Integer counterSlot = null;
+        if (condition == null) {
+            statistics.record(stage, status);
+        } else {
+            counterSlot = statistics.lock(Map.of(stage, Set.of(status)));
+        }
+        boolean newState = stateRepository.insertIfAbsent(orderId) > 0;
+        OrderWorkflowState state = stateRepository.findForUpdate(orderId).orElseThrow();
+        if (newState) {
+            // First event since the projection existed; the order may already have a history
+            state.replay(history.oldestFirst(orderId));
+        }
+        if (pipeline != null) {
+            String reason = pipeline.check(state.getCurrentStage(), state.getStageStatuses(), stage, status);
+            if (reason != null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, reason);
+            }
+        }
+        if (condition != null && !condition.test(state)) {
+            return null;
+        }
+        WorkflowEvent saved = eventRepository.save(event);
+        state.apply(saved);
+        if (counterSlot != null) {
+            statistics.record(stage, status, 1, counterSlot);
+        }
+        outboxPublisher.publish(OutboxMessage.ORDER_AGGREGATE, orderId, WorkflowEventCreated.TYPE, WorkflowEventCreated.of(saved));
+        return saved;
     }
 
-    public List<WorkflowEvent> getOrderTimeline(Long orderId) {
-        return eventRepository.findByOrderIdOrderByCreatedAtDesc(orderId);
+    /** The pipeline of the order's service; 404 if there is no such order. */
+    @Transactional(readOnly = true)
+    public WorkflowPipeline pipelineFor(Long orderId) {
+        if (!orderRepository.existsById(orderId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+        }
+        return pipelines.forService(orderRepository.findServiceNameById(orderId).orElse(null));
     }
 
-    public WorkflowStage getCurrentStage(Long orderId) {
-        List<WorkflowEvent> events = eventRepository.findByOrderIdOrderByCreatedAtDesc(orderId);
-        if (events.isEmpty()) return WorkflowStage.APP_REC;
+    /**
+     * Records many stage changes in one transaction. Each transition is checked against the
+     * order's {@link WorkflowPipeline} and current stage, including earlier transitions for the
+     * same order in this request. Rejected transitions are reported by index and
+     * skipped; the rest are inserted with JDBC batches and folded into the projection and
+     * counters in one pass.
+     */
+    public TransitionResult applyTransitions(List<WorkflowTransition> transitions) {
+        if (transitions == null || transitions.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No transitions given");
+        }
+        if (transitions.size() > MAX_TRANSITIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_TRANSITIONS + " transitions per request");
+        }
 
-        for (WorkflowEvent event : events) {
-            if (event.getStage().isMainStage() && event.getStatus() != WorkflowStatus.FAILED) {
-                return event.getStage();
+        List<Rejection> rejected = new ArrayList<>();
+        SortedSet<Long> requested = new TreeSet<>();
+        Map<WorkflowStage, Set<WorkflowStatus>> pairs = new EnumMap<>(WorkflowStage.class);
+        for (int i = 0; i < transitions.size(); i++) {
+            WorkflowTransition t = transitions.get(i);
+            if (t == null || t.orderId() == null || t.stage() == null || t.status() == null) {
+                rejected.add(new Rejection(i, t == null ? null : t.orderId(), "orderId, stage and status are required"));
+                continue;
             }
+            requested.add(t.orderId());
+            pairs.computeIfAbsent(t.stage(), k -> EnumSet.noneOf(WorkflowStatus.class)).add(t.status());
+        }
+
+        Map<Long, String> serviceNames = new HashMap<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(requested))) {
+            for (Object[] row : orderRepository.findServiceNamesByIds(chunk)) {
+                serviceNames.put((Long) row[0], (String) row[1]);
+            }
+        }
+        Set<Long> known = serviceNames.keySet();
+        List<Long> orderIds = requested.stream().filter(known::contains).toList();
+
+        // Counters, then state rows (ascending order id), then events, as in createEvent
+        int counterSlot = statistics.lock(pairs);
+        Map<Long, OrderWorkflowState> states = lockStates(orderIds);
+
+        Map<Long, Progress> progress = new HashMap<>();
+        List<WorkflowEvent> accepted = new ArrayList<>();
+        for (int i = 0; i < transitions.size(); i++) {
+            WorkflowTransition t = transitions.get(i);
+            if (t == null || t.orderId() == null || t.stage() == null || t.status() == null) continue;
+            if (!known.contains(t.orderId())) {
+                rejected.add(new Rejection(i, t.orderId(), "Order not found"));
+                continue;
+            }
+            Progress order = progress.computeIfAbsent(t.orderId(),
+                    id -> new Progress(states.get(id), pipelines.forService(serviceNames.get(id))));
+            String reason = order.check(t.stage(), t.status());
+            if (reason != null) {
+                rejected.add(new Rejection(i, t.orderId(), reason));
+                continue;
+            }
+            order.apply(t.stage(), t.status());
+            accepted.add(new WorkflowEvent(t.orderId(), t.stage(), t.status(), t.description()));
+        }
+        rejected.sort(Comparator.comparingInt(Rejection::index));
+        if (accepted.isEmpty()) {
+            return new TransitionResult(0, rejected);
+        }
+
+        batchRepository.insertAll(accepted);
+        Map<WorkflowStage, Map<WorkflowStatus, Long>> added = new EnumMap<>(WorkflowStage.class);
+        for (WorkflowEvent event : accepted) {
+            added.computeIfAbsent(event.getStage(), k -> new EnumMap<>(WorkflowStatus.class))
+                    .merge(event.getStatus(), 1L, Long::sum);
+            states.get(event.getOrderId()).apply(event);
+            // What WorkflowActivityEntityListener publishes for JPA inserts
+            eventPublisher.publishEvent(new WorkflowActivity(event.getOrderId(), WorkflowActivity.WORKFLOW_EVENT, event));
+        }
+        added.forEach((stage, byStatus) -> byStatus.forEach((status, count) -> statistics.record(stage, status, count, counterSlot)));
+        outboxPublisher.publishAll(OutboxMessage.ORDER_AGGREGATE, WorkflowEventCreated.TYPE,
+                accepted.stream().map(WorkflowEventCreated::of).toList(), WorkflowEventCreated::orderId);
+        return new TransitionResult(accepted.size(), rejected);
+    }
+
+    // Locks the orders' projection rows, creating missing ones from the orders' event history
+    private Map<Long, OrderWorkflowState> lockStates(List<Long> orderIds) {
+        Set<Long> existing = new HashSet<>();
+        for (List<Long> chunk : chunks(orderIds)) {
+            existing.addAll(stateRepository.findExistingIds(chunk));
+        }
+        List<Long> missing = orderIds.stream().filter(id -> !existing.contains(id)).toList();
+        batchRepository.insertStatesIfAbsent(missing);
+
+        Map<Long, OrderWorkflowState> states = new HashMap<>();
+        for (List<Long> chunk : chunks(orderIds)) {
+            stateRepository.findAllForUpdate(chunk).forEach(state -> states.put(state.getOrderId(), state));
+        }
+        for (List<Long> chunk : chunks(missing)) {
+            Map<Long, List<WorkflowEvent>> byOrder = new HashMap<>();
+            for (WorkflowEvent event : history.oldestFirst(chunk)) {
+                byOrder.computeIfAbsent(event.getOrderId(), k -> new ArrayList<>()).add(event);
+            }
+            chunk.forEach(id -> states.get(id).replay(byOrder.getOrDefault(id, List.of())));
+        }
+        return states;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + IN_CHUNK_SIZE, ids.size())));
         }
-        return WorkflowStage.APP_REC;
+        return chunks;
+    }
+
+    public List<WorkflowEvent> getOrderTimeline(Long orderId) {
+        return history.newestFirst(orderId);
+    }
+
+    public List<WorkflowEvent> getEventsBetween(LocalDateTime start, LocalDateTime end) {
+        return history.between(start, end);
+    }
+
+    /** The order's pipeline steps with their latest status, read from the order's state row. */
+    @Transactional(readOnly = true)
+    public List<WorkflowStageView> getStageViews(Long orderId) {
+        return stageViews(orderId, pipelineFor(orderId), stateRepository.findById(orderId).orElse(null));
+    }
+
+    /** Same as {@link #getStageViews(Long)} for several orders, with one state lookup per chunk. */
+    @Transactional(readOnly = true)
+    public Map<Long, List<WorkflowStageView>> getStageViews(Map<Long, String> serviceNameByOrder) {
+        Map<Long, OrderWorkflowState> states = new HashMap<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(serviceNameByOrder.keySet()))) {
+            stateRepository.findAllById(chunk).forEach(state -> states.put(state.getOrderId(), state));
+        }
+        Map<Long, List<WorkflowStageView>> views = new HashMap<>();
+        serviceNameByOrder.forEach((orderId, serviceName) ->
+                views.put(orderId, stageViews(orderId, pipelines.forService(serviceName), states.get(orderId))));
+        return views;
+    }
+
+    private static List<WorkflowStageView> stageViews(Long orderId, WorkflowPipeline pipeline, OrderWorkflowState state) {
+        Map<WorkflowStage, WorkflowStatus> statuses = state == null ? Map.of() : state.getStageStatuses();
+        List<WorkflowStageView> views = new ArrayList<>();
+        for (WorkflowPipeline.Step step : pipeline.getSteps()) {
+            WorkflowStatus status = statuses.getOrDefault(step.stage(), WorkflowStatus.PENDING);
+            views.add(new WorkflowStageView(orderId, step.position() + 1, step.stage().name(), step.code(), step.label(),
+                    status.name().toLowerCase(Locale.ROOT), step.description()));
+        }
+        return views;
+    }
+
+    public WorkflowStage getCurrentStage(Long orderId) {
+        return stateRepository.findById(orderId)
+                .map(OrderWorkflowState::getCurrentStage)
+                .orElse(WorkflowStage.APP_REC);
     }
 
     public List<WorkflowEvent> getStageHistory(Long orderId, WorkflowStage stage) {
-        return eventRepository.findByOrderIdAndStageOrderByCreatedAtDesc(orderId, stage);
+        return history.newestFirst(orderId).stream().filter(e -> e.getStage() == stage).toList();
     }
 
     public WorkflowProgressDTO getWorkflowProgress(Long orderId) {
-        List<WorkflowEvent> allEvents = eventRepository.findByOrderIdOrderByCreatedAtDesc(orderId);
-        
+        WorkflowPipeline pipeline = pipelineFor(orderId);
+        OrderWorkflowState state = stateRepository.findById(orderId).orElseGet(() -> new OrderWorkflowState(orderId));
+        Map<WorkflowStage, WorkflowStatus> stageStatus = state.getStageStatuses();
+
         WorkflowProgressDTO progress = new WorkflowProgressDTO();
         progress.setOrderId(orderId);
 
-        // Map stages to their status
-        Map<WorkflowStage, WorkflowStatus> stageStatus = new HashMap<>();
-        // Using reverse order timeline, the first status encountered for a stage is the latest status.
-        for (WorkflowEvent event : allEvents) {
-            if (!stageStatus.containsKey(event.getStage())) {
-                stageStatus.put(event.getStage(), event.getStatus());
-            }
+        // The stage cards still list their events; group the timeline once instead of per stage
+        Map<WorkflowStage, List<WorkflowEvent>> eventsByStage = new EnumMap<>(WorkflowStage.class);
+        for (WorkflowEvent event : history.newestFirst(orderId)) {
+            eventsByStage.computeIfAbsent(event.getStage(), k -> new ArrayList<>()).add(event);
         }
 
         // Build stage details
         List<WorkflowProgressDTO.StageProgress> stages = new ArrayList<>();
-        for (WorkflowStage mainStage : WorkflowStage.values()) {
-            if (!mainStage.isMainStage()) continue;
-
+        for (WorkflowPipeline.Step step : pipeline.getSteps()) {
             WorkflowProgressDTO.StageProgress sp = new WorkflowProgressDTO.StageProgress();
-            sp.setStage(mainStage.name());
-            sp.setLabel(mainStage.getLabel());
-            sp.setDescription(mainStage.getDescription());
-            sp.setSequence(mainStage.getSequence());
-            sp.setStatus(stageStatus.getOrDefault(mainStage, WorkflowStatus.PENDING).name());
-
-            List<WorkflowEvent> stageEvents = allEvents.stream()
-                    .filter(e -> e.getStage() == mainStage)
-                    .collect(Collectors.toList());
-            sp.setEvents(stageEvents);
+            sp.setStage(step.stage().name());
+            sp.setLabel(step.label());
+            sp.setDescription(step.description());
+            sp.setSequence(step.position() + 1);
+            sp.setStatus(stageStatus.getOrDefault(step.stage(), WorkflowStatus.PENDING).name());
+            sp.setEvents(eventsByStage.getOrDefault(step.stage(), List.of()));
 
             stages.add(sp);
         }
         progress.setStages(stages);
 
         // Collect exceptions
-        List<WorkflowEvent> exceptions = allEvents.stream()
-                .filter(e -> e.getStage().isException())
-                .collect(Collectors.toList());
+        List<WorkflowEvent> exceptions = new ArrayList<>();
+        for (WorkflowStage stage : WorkflowStage.values()) {
+            if (stage.isException()) {
+                exceptions.addAll(eventsByStage.getOrDefault(stage, List.of()));
+            }
+        }
+        exceptions.sort(Comparator.comparing(WorkflowEvent::getCreatedAt).reversed());
         progress.setExceptions(exceptions);
 
-        progress.setCurrentStage(getCurrentStage(orderId).name());
-        progress.setCompletionPercentage(calculateCompletion(stageStatus));
+        progress.setCurrentStage(state.getCurrentStage().name());
+        progress.setCompletionPercentage(pipeline.completion(stageStatus));
 
         return progress;
     }
 
-    private int calculateCompletion(Map<WorkflowStage, WorkflowStatus> stageStatus) {
-        int completed = (int) stageStatus.values().stream()
-                .filter(s -> s == WorkflowStatus.COMPLETED)
-                .count();
-        int total = 8; // 8 main stages now
-        return total > 0 ? (completed * 100) / total : 0;
-    }
-
-    public void advanceStage(Long orderId, WorkflowStage nextStage, String description) {
-        createEvent(orderId, nextStage, WorkflowStatus.IN_PROGRESS, description, null);
+    /** Starts {@code nextStage}, or the pipeline's stage after the current one when it is null. */
+    public WorkflowEvent advanceStage(Long orderId, WorkflowStage nextStage, String description) {
+        if (nextStage == null) {
+            WorkflowPipeline pipeline = pipelineFor(orderId);
+            OrderWorkflowState state = stateRepository.findById(orderId).orElse(null);
+            nextStage = state == null || !state.getStageStatuses().containsKey(state.getCurrentStage())
+                    ? pipeline.first() : pipeline.next(state.getCurrentStage());
+            if (nextStage == null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is at the last stage of its pipeline");
+            }
+        }
+        return transition(orderId, nextStage, WorkflowStatus.IN_PROGRESS, description, null);
     }
 
-    public void completeStage(Long orderId, WorkflowStage stage, String description) {
-        createEvent(orderId, stage, WorkflowStatus.COMPLETED, description, null);
+    /** Completes {@code stage}, or the current stage when it is null. */
+    public WorkflowEvent completeStage(Long orderId, WorkflowStage stage, String description) {
+        return transition(orderId, stage != null ? stage : getCurrentStage(orderId), WorkflowStatus.COMPLETED, description, null);
     }
 
-    public void failStage(Long orderId, WorkflowStage stage, String description) {
-        createEvent(orderId, stage, WorkflowStatus.FAILED, description, null);
+    /** Fails {@code stage}, or the current stage when it is null. */
+    public WorkflowEvent failStage(Long orderId, WorkflowStage stage, String description) {
+        return transition(orderId, stage != null ? stage : getCurrentStage(orderId), WorkflowStatus.FAILED, description, null);
     }
 
-    public void addException(Long orderId, WorkflowStage exceptionType, String description, String details) {
-        createEvent(orderId, exceptionType, WorkflowStatus.BLOCKED, description, details);
+    public WorkflowEvent addException(Long orderId, WorkflowStage exceptionType, String description, String details) {
+        if (exceptionType == null || !exceptionType.isException()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not an exception stage: " + exceptionType);
+        }
+        return transition(orderId, exceptionType, WorkflowStatus.BLOCKED, description, details);
     }
 
+    // Exception stages whose latest event is still BLOCKED or PENDING, newest first
     public List<WorkflowEvent> getActiveExceptions(Long orderId) {
-        List<WorkflowEvent> exceptions = eventRepository.findByOrderIdOrderByCreatedAtDesc(orderId).stream()
-                .filter(e -> e.getStage().isException())
-                .filter(e -> e.getStatus() == WorkflowStatus.BLOCKED || e.getStatus() == WorkflowStatus.PENDING)
-                .collect(Collectors.toList());
+        Collection<Long> eventIds = stateRepository.findById(orderId)
+                .map(state -> state.getOpenExceptions().values())
+                .orElse(List.of());
+        if (eventIds.isEmpty()) return List.of();
+        List<WorkflowEvent> exceptions = new ArrayList<>(eventRepository.findAllById(eventIds));
+        exceptions.sort(Comparator.comparing(WorkflowEvent::getCreatedAt).reversed());
         return exceptions;
     }
 
+    public record TransitionResult(int applied, List<Rejection> rejected) {}
+
+    /** @param index position of the transition in the request */
+    public record Rejection(int index, Long orderId, String reason) {}
+
+    // An order's current stage and stage statuses while a bulk request is being checked
+    private static final class Progress {
+        private final WorkflowPipeline pipeline;
+        private WorkflowStage currentStage;
+        private final Map<WorkflowStage, WorkflowStatus> statuses;
+
+        Progress(OrderWorkflowState state, WorkflowPipeline pipeline) {
+            this.pipeline = pipeline;
+            this.currentStage = state.getCurrentStage();
+            this.statuses = state.getStageStatuses();
+        }
+
+        String check(WorkflowStage stage, WorkflowStatus status) {
+            return pipeline.check(currentStage, statuses, stage, status);
+        }
+
+        // Mirrors OrderWorkflowState.apply for the fields check() reads
+        void apply(WorkflowStage stage, WorkflowStatus status) {
+            statuses.put(stage, status);
+            if (stage.isMainStage() && status != WorkflowStatus.FAILED) {
+                currentStage = stage;
+            }
+        }
+    }
+
     public static class WorkflowProgressDTO {
         private Long orderId;
         private String currentStage;
@@ -0,0 +1,31 @@
+package com.calzone.financial.workflow;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WorkflowStageCountRepository extends JpaRepository<WorkflowStageCount, WorkflowStageCount.Key> {
+
+    // Insert-or-add in one statement so concurrent events for a new slot cannot race. Adding 0
+    // still takes the row lock, which is how bulk writers reserve counters up front
+    @Modifying
+    @Query(value = "INSERT INTO workflow_stage_count_slots (stage, status, slot, event_count) "
+            + "VALUES (:stage, :status, :slot, :amount) "
+            + "ON DUPLICATE KEY UPDATE event_count = event_count + :amount", nativeQuery = true)
+    int add(@Param("stage") String stage, @Param("status") String status, @Param("slot") int slot,
+            @Param("amount") long amount);
+
+    @Modifying
+    @Query(value = "DELETE FROM workflow_stage_count_slots", nativeQuery = true)
+    int deleteAllCounts();
+
+    // Rebuilt totals all go to slot 0
+    @Modifying
+    @Query(value = "INSERT INTO workflow_stage_count_slots (stage, status, slot, event_count) "
+            + "SELECT stage, status, 0, COUNT(*) FROM (SELECT stage, status FROM workflow_events "
+            + "UNION ALL SELECT stage, status FROM workflow_events_archive) e GROUP BY stage, status", nativeQuery = true)
+    int insertCountsFromEvents();
+}
@@ -0,0 +1,14 @@
+package com.calzone.financial.workflow;
+
+/**
+ * One pipeline step of an order with its latest status, as the process and service hub views
+ * list them. {@code status} is lower case ({@code completed}, {@code in_progress}, ...) like the
+ * process stages these views used to show.
+ *
+ * @param stage workflow stage name, e.g. {@code DOC_VER}
+ * @param step  the pipeline's code for the step, e.g. {@code DOCUMENT_VERIFICATION}
+ * @param notes the step description
+ */
+public record WorkflowStageView(Long orderId, int sequence, String stage, String step, String label,
+                                String status, String notes) {
+}
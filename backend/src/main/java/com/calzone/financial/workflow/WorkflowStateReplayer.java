@@ -0,0 +1,67 @@
+package com.calzone.financial.workflow;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Rebuilds {@link OrderWorkflowState} rows from {@code workflow_events}. Each order is replayed in
+ * its own short transaction holding that order's state row lock, so events created meanwhile
+ * either land before the replay reads them or wait and are folded in afterwards. An order's
+ * archived events are included; orders with only archived events keep their rows as they are.
+ */
+@Service
+public class WorkflowStateReplayer {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final WorkflowEventRepository eventRepository;
+    private final OrderWorkflowStateRepository stateRepository;
+    private final WorkflowEventHistory history;
+    private final TransactionTemplate transactionTemplate;
+
+    public WorkflowStateReplayer(WorkflowEventRepository eventRepository, OrderWorkflowStateRepository stateRepository,
+                                 WorkflowEventHistory history, PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.stateRepository = stateRepository;
+        this.history = history;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** @return the number of orders replayed */
+    public int replayAll() {
+        int replayed = 0;
+        long lastOrderId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> orderIds = eventRepository.findOrderIdsAfter(lastOrderId, PageRequest.of(0, BATCH_SIZE));
+            if (orderIds.isEmpty()) {
+                return replayed;
+            }
+            for (Long orderId : orderIds) {
+                replay(orderId);
+                replayed++;
+                lastOrderId = orderId;
+            }
+        }
+    }
+
+    public void replay(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            stateRepository.insertIfAbsent(orderId);
+            OrderWorkflowState state = stateRepository.findForUpdate(orderId).orElseThrow();
+            List<WorkflowEvent> events = history.oldestFirst(orderId);
+            if (events.isEmpty()) {
+                stateRepository.delete(state);
+            } else {
+                state.replay(events);
+            }
+        });
+    }
+
+    public boolean isEmpty() {
+        return stateRepository.count() == 0;
+    }
+}
@@ -0,0 +1,102 @@
+package com.calzone.financial.workflow;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Stage x status event counters behind the workflow analytics endpoints. Each pair is spread over
+ * {@link WorkflowStageCount#SLOTS} rows, so events of one pair do not all queue on one row lock
+ * until their transactions commit.
+ */
+@Service
+public class WorkflowStatistics {
+
+    private final WorkflowStageCountRepository countRepository;
+
+    public WorkflowStatistics(WorkflowStageCountRepository countRepository) {
+        this.countRepository = countRepository;
+    }
+
+    /** Joins the caller's transaction, so the count commits or rolls back with the event. */
+    @Transactional
+    public void record(WorkflowStage stage, WorkflowStatus status) {
+        countRepository.add(stage.name(), status.name(), ThreadLocalRandom.current().nextInt(WorkflowStageCount.SLOTS), 1);
+    }
+
+    /** Adds to the slot reserved by {@link #lock}. */
+    @Transactional
+    public void record(WorkflowStage stage, WorkflowStatus status, long events, int slot) {
+        countRepository.add(stage.name(), status.name(), slot, events);
+    }
+
+    /**
+     * Locks one slot of each given pair until the caller's transaction ends, creating missing ones
+     * at zero. Pairs are locked in enum order, so concurrent bulk writers cannot deadlock.
+     *
+     * @return the slot to pass to {@link #record(WorkflowStage, WorkflowStatus, long, int)}
+     */
+    @Transactional
+    public int lock(Map<WorkflowStage, Set<WorkflowStatus>> pairs) {
+        int slot = ThreadLocalRandom.current().nextInt(WorkflowStageCount.SLOTS);
+        new TreeMap<>(pairs).forEach((stage, statuses) -> new TreeSet<>(statuses)
+                .forEach(status -> countRepository.add(stage.name(), status.name(), slot, 0)));
+        return slot;
+    }
+
+    /**
+     * Recomputes every counter from {@code workflow_events} with one GROUP BY. Runs in a single
+     * transaction, so readers see either the old or the new counts.
+     *
+     * @return the number of (stage, status) pairs written
+     */
+    @Transactional
+    public int rebuild() {
+        countRepository.deleteAllCounts();
+        return countRepository.insertCountsFromEvents();
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return countRepository.count() == 0;
+    }
+
+    @Transactional(readOnly = true)
+    public Counts counts() {
+        Map<WorkflowStage, Map<WorkflowStatus, Long>> counts = new EnumMap<>(WorkflowStage.class);
+        for (WorkflowStageCount row : countRepository.findAll()) {
+            counts.computeIfAbsent(row.getStage(), k -> new EnumMap<>(WorkflowStatus.class))
+                    .merge(row.getStatus(), row.getEventCount(), Long::sum);
+        }
+        return new Counts(counts);
+    }
+
+    public record Counts(Map<WorkflowStage, Map<WorkflowStatus, Long>> byStage) {
+
+        public long get(WorkflowStage stage, WorkflowStatus status) {
+            return byStage.getOrDefault(stage, Map.of()).getOrDefault(status, 0L);
+        }
+
+        public long total() {
+            return sum(stage -> true, status -> true);
+        }
+
+        public long sum(Predicate<WorkflowStage> stages, Predicate<WorkflowStatus> statuses) {
+            long total = 0;
+            for (var stage : byStage.entrySet()) {
+                if (!stages.test(stage.getKey())) continue;
+                for (var status : stage.getValue().entrySet()) {
+                    if (statuses.test(status.getKey())) total += status.getValue();
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.calzone.financial.workflow;
 
+import com.calzone.financial.user.User;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
 
@@ -9,95 +11,78 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 public class WorkflowStatisticsController {
     
-    private final WorkflowEventRepository eventRepository;
+    private final WorkflowStatistics statistics;
 
-    public WorkflowStatisticsController(WorkflowEventRepository eventRepository) {
-        this.eventRepository = eventRepository;
+    public WorkflowStatisticsController(WorkflowStatistics statistics) {
+        this.statistics = statistics;
     }
 
     @GetMapping("/dashboard-stats")
     public ResponseEntity<DashboardStatsDTO> getDashboardStats() {
         DashboardStatsDTO stats = new DashboardStatsDTO();
-        
-        // Count active stages
-        long completedCount = eventRepository.count() > 0 ? 
-            eventRepository.findAll().stream()
-                .filter(e -> e.getStatus() == WorkflowStatus.COMPLETED && e.getStage().isMainStage())
-                .count() : 0;
-        
-        long inProgressCount = eventRepository.findAll().stream()
-            .filter(e -> e.getStatus() == WorkflowStatus.IN_PROGRESS && e.getStage().isMainStage())
-            .count();
-        
-        long failedCount = eventRepository.findAll().stream()
-            .filter(e -> e.getStatus() == WorkflowStatus.FAILED)
-            .count();
-        
-        long blockedCount = eventRepository.findAll().stream()
-            .filter(e -> e.getStatus() == WorkflowStatus.BLOCKED)
-            .count();
-
-        stats.setCompletedStages(completedCount);
-        stats.setInProgressStages(inProgressCount);
-        stats.setFailedStages(failedCount);
-        stats.setBlockedStages(blockedCount);
-        stats.setTotalEvents(eventRepository.count());
-        
+        WorkflowStatistics.Counts counts = statistics.counts();
+
+        stats.setCompletedStages(counts.sum(WorkflowStage::isMainStage, s -> s == WorkflowStatus.COMPLETED));
+        stats.setInProgressStages(counts.sum(WorkflowStage::isMainStage, s -> s == WorkflowStatus.IN_PROGRESS));
+        stats.setFailedStages(counts.sum(stage -> true, s -> s == WorkflowStatus.FAILED));
+        stats.setBlockedStages(counts.sum(stage -> true, s -> s == WorkflowStatus.BLOCKED));
+        stats.setTotalEvents(counts.total());
+
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/stage-stats")
     public ResponseEntity<List<StageStatDTO>> getStageStats() {
         List<StageStatDTO> stats = new ArrayList<>();
-        
+        WorkflowStatistics.Counts counts = statistics.counts();
+
         for (WorkflowStage stage : WorkflowStage.values()) {
             if (!stage.isMainStage()) continue;
-            
+
             StageStatDTO stat = new StageStatDTO();
             stat.setStage(stage.name());
             stat.setLabel(stage.getLabel());
-            
-            List<WorkflowEvent> events = eventRepository.findByStageAndStatusOrderByCreatedAtDesc(
-                stage, WorkflowStatus.COMPLETED
-            );
-            stat.setCompletedCount(events.size());
-            
-            List<WorkflowEvent> failedEvents = eventRepository.findByStageAndStatusOrderByCreatedAtDesc(
-                stage, WorkflowStatus.FAILED
-            );
-            stat.setFailedCount(failedEvents.size());
-            
+            stat.setCompletedCount(counts.get(stage, WorkflowStatus.COMPLETED));
+            stat.setFailedCount(counts.get(stage, WorkflowStatus.FAILED));
+
             stats.add(stat);
         }
-        
+
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/exception-stats")
     public ResponseEntity<List<ExceptionStatDTO>> getExceptionStats() {
         List<ExceptionStatDTO> stats = new ArrayList<>();
-        
+        WorkflowStatistics.Counts counts = statistics.counts();
+
         WorkflowStage[] exceptions = {
-            WorkflowStage.PF, WorkflowStage.MD, WorkflowStage.GO, 
+            WorkflowStage.PF, WorkflowStage.MD, WorkflowStage.GO,
             WorkflowStage.SLAB, WorkflowStage.CR
         };
-        
+
         for (WorkflowStage exc : exceptions) {
             ExceptionStatDTO stat = new ExceptionStatDTO();
             stat.setException(exc.name());
             stat.setLabel(exc.getLabel());
-            
-            long count = eventRepository.findAll().stream()
-                .filter(e -> e.getStage() == exc)
-                .count();
-            stat.setCount(count);
-            
+            stat.setCount(counts.sum(stage -> stage == exc, status -> true));
+
             stats.add(stat);
         }
-        
+
         return ResponseEntity.ok(stats);
     }
 
+    /** Recomputes the counters from workflow_events, e.g. after events were edited in SQL. */
+    @PostMapping("/rebuild-counters")
+    public ResponseEntity<Map<String, Object>> rebuildCounters(@AuthenticationPrincipal User user) {
+        if (user == null || user.getAuthorities().stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            return ResponseEntity.status(403).build();
+        }
+        int pairs = statistics.rebuild();
+        return ResponseEntity.ok(Map.of("status", "rebuilt", "counters", pairs));
+    }
+
     public static class DashboardStatsDTO {
         private long completedStages;
         private long inProgressStages;
@@ -0,0 +1,80 @@
+package com.calzone.financial.workflow;
+
+import com.calzone.financial.order.OrderRepository;
+import com.calzone.financial.user.User;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent event streams of committed workflow events ({@code workflow-event}) and alerts
+ * ({@code alert}). Clients open one stream instead of polling progress and alert counts, and
+ * re-fetch once after (re)connecting to cover anything missed while disconnected.
+ */
+@RestController
+@RequestMapping("/api/workflow/stream")
+public class WorkflowStreamController {
+
+    private final WorkflowStreamHub streamHub;
+    private final OrderRepository orderRepository;
+
+    public WorkflowStreamController(WorkflowStreamHub streamHub, OrderRepository orderRepository) {
+        this.streamHub = streamHub;
+        this.orderRepository = orderRepository;
+    }
+
+    /** Activity of one order; staff can follow any order, customers only their own. */
+    @GetMapping(value = "/orders/{orderId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter orderStream(@AuthenticationPrincipal User user, @PathVariable Long orderId) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        if (!isStaff(user)) {
+            boolean owner = orderRepository.findById(orderId)
+                    .map(o -> (user.getId() != null && user.getId().equals(o.getUserId()))
+                            || (o.getCustomerEmail() != null && o.getCustomerEmail().equalsIgnoreCase(user.getEmail())))
+                    .orElse(false);
+            if (!owner) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your order");
+            }
+        }
+        return streamHub.subscribeOrder(orderId);
+    }
+
+    /**
+     * Activity of every order assigned to the caller. Admins may pass {@code email} to follow
+     * another assignee.
+     */
+    @GetMapping(value = "/assigned", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter assignedStream(@AuthenticationPrincipal User user, @RequestParam(required = false) String email) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        if (!isStaff(user)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Requires ADMIN or EMPLOYEE role");
+        }
+        String assignee = user.getEmail();
+        if (email != null && !email.isBlank()) {
+            if (!hasRole(user, "ROLE_ADMIN") && !email.equalsIgnoreCase(user.getEmail())) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Requires ADMIN role");
+            }
+            assignee = email.trim();
+        }
+        return streamHub.subscribeAssignee(assignee);
+    }
+
+    private static boolean isStaff(User user) {
+        return hasRole(user, "ROLE_ADMIN") || hasRole(user, "ROLE_EMPLOYEE");
+    }
+
+    private static boolean hasRole(User user, String role) {
+        return user.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals(role));
+    }
+}
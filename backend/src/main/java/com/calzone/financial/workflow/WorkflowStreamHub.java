@@ -0,0 +1,183 @@
+package com.calzone.financial.workflow;
+
+import com.calzone.financial.order.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed {@link WorkflowActivity} to SSE subscribers of an order or of an assignee's
+ * orders, replacing client polling of progress, alert counts and notifications.
+ *
+ * <p>Publishing never blocks: each subscriber has a small bounded queue drained by a shared
+ * sender pool, one drain at a time per subscriber. A subscriber whose queue overflows (a client
+ * that stopped reading) is closed; it reconnects and reloads, which is cheaper than buffering for
+ * it. A heartbeat comment keeps proxies from closing idle streams and detects dead clients.
+ */
+@Component
+public class WorkflowStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowStreamHub.class);
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final OrderRepository orderRepository;
+    private final long timeoutMs;
+    private final ExecutorService sender = Executors.newFixedThreadPool(2,
+            Thread.ofPlatform().name("workflow-stream-", 0).daemon().factory());
+
+    private final Map<Long, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> byAssignee = new ConcurrentHashMap<>();
+
+    public WorkflowStreamHub(OrderRepository orderRepository,
+                             @Value("${workflow.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.orderRepository = orderRepository;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter subscribeOrder(Long orderId) {
+        return register(byOrder, orderId);
+    }
+
+    public SseEmitter subscribeAssignee(String assigneeEmail) {
+        return register(byAssignee, assigneeEmail.toLowerCase(Locale.ROOT));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(WorkflowActivity activity) {
+        if (activity.orderId() == null) return;
+        // Built once and shared; the payload is serialized separately for each subscriber
+        Set<DataWithMediaType> event = SseEmitter.event().name(activity.type()).data(activity.payload()).build();
+        Set<Subscriber> orderSubscribers = byOrder.get(activity.orderId());
+        if (orderSubscribers != null) {
+            orderSubscribers.forEach(s -> s.enqueue(event));
+        }
+        // Only look up the assignee when someone is listening by assignee, and do it on the
+        // sender pool so the committing thread does not pay a query per activity
+        if (!byAssignee.isEmpty()) {
+            try {
+                sender.execute(() -> notifyAssignee(activity.orderId(), event));
+            } catch (RuntimeException e) {
+                // Pool shut down
+            }
+        }
+    }
+
+    private void notifyAssignee(Long orderId, Set<DataWithMediaType> event) {
+        try {
+            orderRepository.findAssigneeEmailById(orderId)
+                    .map(email -> byAssignee.get(email.toLowerCase(Locale.ROOT)))
+                    .ifPresent(subscribers -> subscribers.forEach(s -> s.enqueue(event)));
+        } catch (RuntimeException e) {
+            logger.warn("Workflow stream assignee lookup failed for order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        byOrder.values().forEach(set -> set.forEach(s -> s.enqueue(ping)));
+        byAssignee.values().forEach(set -> set.forEach(s -> s.enqueue(ping)));
+    }
+
+    public int subscriberCount() {
+        return byOrder.values().stream().mapToInt(Set::size).sum()
+                + byAssignee.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private <K> SseEmitter register(Map<K, Set<Subscriber>> registry, K key) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        registry.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        Runnable remove = () -> registry.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        // Lets the client know the stream is live before anything happens
+        subscriber.enqueue(SseEmitter.event().name("ready").data(String.valueOf(key)).build());
+        return emitter;
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Set<DataWithMediaType> event) {
+            if (closed) return;
+            if (!queue.offer(event)) {
+                logger.debug("Workflow stream subscriber fell behind; closing it");
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Pool shut down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter callbacks unregister us
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (RuntimeException ignored) {
+                // Already completed
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.calzone.financial.workflow;
+
+/** One requested stage change in a bulk transition, see {@link WorkflowService#applyTransitions}. */
+public record WorkflowTransition(Long orderId, WorkflowStage stage, WorkflowStatus status, String description) {
+}